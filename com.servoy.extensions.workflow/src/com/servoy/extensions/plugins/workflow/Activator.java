@@ -16,6 +16,7 @@ import org.osgi.framework.ServiceRegistration;
 import org.osgi.util.tracker.ServiceTracker;
 
 import com.servoy.extensions.plugins.workflow.client.WorkflowPlugin;
+import com.servoy.extensions.plugins.workflow.impl.HeadlessClientPool;
 import com.servoy.extensions.workflow.api.IWorkflowPluginService;
 import com.servoy.j2db.persistence.IServerInternal;
 import com.servoy.j2db.plugins.IPluginManager;
@@ -67,6 +68,11 @@ public class Activator implements BundleActivator
 			Debug.warn("Mail properties mail.smtp.username or mail.smtp.password not found, no jbpm mail capabilities!");
 		}
 		
+		//configure the clients used by the headless client activities
+		HeadlessClientPool.init(getIntProperty(settings, HeadlessClientPool.CLIENT_POOL_SIZE_PROPERTY, HeadlessClientPool.CLIENT_POOL_SIZE_DEFAULT),
+			getIntProperty(settings, HeadlessClientPool.CLIENT_POOL_IDLE_TIMEOUT_PROPERTY, HeadlessClientPool.CLIENT_POOL_IDLE_TIMEOUT_DEFAULT),
+			!"false".equalsIgnoreCase(settings.getProperty(HeadlessClientPool.CLIENT_POOL_RELOAD_SOLUTION_PROPERTY, "true").trim()));
+
 		String jndi_datasource = "osgi:service/"+DataSource.class.getName()+"/(name="+jbpmServerName+")";
 		String jndi_server = "osgi:service/"+IServerInternal.class.getName()+"/(name="+jbpmServerName+")";
 
@@ -103,6 +109,20 @@ public class Activator implements BundleActivator
 		}
 	}
 
+	private static int getIntProperty(Settings settings, String name, int defaultValue)
+	{
+		try
+		{
+			int value = Integer.parseInt(settings.getProperty(name, String.valueOf(defaultValue)).trim());
+			return value > 0 ? value : defaultValue;
+		}
+		catch (NumberFormatException e)
+		{
+			Debug.warn("Invalid value for property " + name + ", using " + defaultValue);
+			return defaultValue;
+		}
+	}
+
 	private void addClientExtension(BundleContext context, ServiceReference<IPluginManager> reference) throws PluginException
 	{
 		//expose the servoy (smart) client (rmi) plugin
@@ -121,6 +141,7 @@ public class Activator implements BundleActivator
 	{
 		workflowPluginServiceRegistration.unregister();
 		server.close();
+		HeadlessClientPool.close();
 		serviceTracker.close();
 	}
 }
@@ -19,6 +19,7 @@ package com.servoy.extensions.plugins.workflow;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -38,10 +39,15 @@ import org.jbpm.api.NewDeployment;
 import org.jbpm.api.ProcessEngine;
 import org.jbpm.api.ProcessInstance;
 import org.jbpm.api.RepositoryService;
+import org.jbpm.api.TaskQuery;
 import org.jbpm.api.TaskService;
+import org.jbpm.api.cmd.Command;
+import org.jbpm.api.cmd.Environment;
 import org.jbpm.api.task.Task;
 import org.jbpm.pvm.internal.email.impl.MailTemplate;
 import org.jbpm.pvm.internal.email.impl.MailTemplateRegistry;
+import org.jbpm.pvm.internal.session.DbSession;
+import org.jbpm.pvm.internal.task.TaskImpl;
 
 import com.servoy.extensions.plugins.workflow.shared.Deployment;
 import com.servoy.extensions.plugins.workflow.shared.TaskData;
@@ -295,6 +301,111 @@ public class WorkflowServer implements IWorkflowPluginService
 		}
 	}
 
+	public TaskData[] getUserTasks(String username, String activityName, String orderBy, boolean ascending, int offset, int limit)
+	{
+		ClassLoader cl = Thread.currentThread().getContextClassLoader();
+		try
+		{
+			Thread.currentThread().setContextClassLoader(getClass().getClassLoader());
+
+			TaskQuery query = processEngine.getTaskService().createTaskQuery().assignee(username);
+			return getTasks(getPagedQuery(query, activityName, orderBy, ascending, offset, limit).list());
+		} 
+		catch (Exception e) 
+		{
+			Debug.error(e);
+			throw new RuntimeException(e.getMessage());
+		}
+		finally
+		{
+			Thread.currentThread().setContextClassLoader(cl);
+		}
+	}
+
+	public TaskData[] getGroupTasks(String username, String activityName, String orderBy, boolean ascending, int offset, int limit)
+	{
+		ClassLoader cl = Thread.currentThread().getContextClassLoader();
+		try
+		{
+			Thread.currentThread().setContextClassLoader(getClass().getClassLoader());
+
+			TaskQuery query = processEngine.getTaskService().createTaskQuery().candidate(username);
+			return getTasks(getPagedQuery(query, activityName, orderBy, ascending, offset, limit).list());
+		} 
+		catch (Exception e) 
+		{
+			Debug.error(e);
+			throw new RuntimeException(e.getMessage());
+		}
+		finally
+		{
+			Thread.currentThread().setContextClassLoader(cl);
+		}
+	}
+
+	public long getUserTaskCount(String username, String activityName)
+	{
+		ClassLoader cl = Thread.currentThread().getContextClassLoader();
+		try
+		{
+			Thread.currentThread().setContextClassLoader(getClass().getClassLoader());
+
+			TaskQuery query = processEngine.getTaskService().createTaskQuery().assignee(username);
+			if (activityName != null) query.activityName(activityName);
+			return query.count();
+		} 
+		catch (Exception e) 
+		{
+			Debug.error(e);
+			throw new RuntimeException(e.getMessage());
+		}
+		finally
+		{
+			Thread.currentThread().setContextClassLoader(cl);
+		}
+	}
+
+	public long getGroupTaskCount(String username, String activityName)
+	{
+		ClassLoader cl = Thread.currentThread().getContextClassLoader();
+		try
+		{
+			Thread.currentThread().setContextClassLoader(getClass().getClassLoader());
+
+			TaskQuery query = processEngine.getTaskService().createTaskQuery().candidate(username);
+			if (activityName != null) query.activityName(activityName);
+			return query.count();
+		} 
+		catch (Exception e) 
+		{
+			Debug.error(e);
+			throw new RuntimeException(e.getMessage());
+		}
+		finally
+		{
+			Thread.currentThread().setContextClassLoader(cl);
+		}
+	}
+
+	private TaskQuery getPagedQuery(TaskQuery query, String activityName, String orderBy, boolean ascending, int offset, int limit)
+	{
+		if (activityName != null) query.activityName(activityName);
+		//the order property is concatenated into the hql by jbpm, so only allow the known properties
+		String property = TaskQuery.PROPERTY_PRIORITY;
+		if (orderBy != null)
+		{
+			if (TaskQuery.PROPERTY_DUEDATE.equalsIgnoreCase(orderBy)) property = TaskQuery.PROPERTY_DUEDATE;
+			else if (TaskQuery.PROPERTY_CREATEDATE.equalsIgnoreCase(orderBy)) property = TaskQuery.PROPERTY_CREATEDATE;
+			else if (TaskQuery.PROPERTY_NAME.equalsIgnoreCase(orderBy)) property = TaskQuery.PROPERTY_NAME;
+			else if (TaskQuery.PROPERTY_PROGRESS.equalsIgnoreCase(orderBy)) property = TaskQuery.PROPERTY_PROGRESS;
+			else if (!TaskQuery.PROPERTY_PRIORITY.equalsIgnoreCase(orderBy)) throw new IllegalArgumentException("Cannot order tasks on "+orderBy);
+		}
+		if (ascending) query.orderAsc(property);
+		else query.orderDesc(property);
+		if (limit > 0) query.page(Math.max(offset, 0), limit);
+		return query;
+	}
+
 	public Map<String, Object> getTaskVariables(String tid)
 	{
 		ClassLoader cl = Thread.currentThread().getContextClassLoader();
@@ -316,6 +427,48 @@ public class WorkflowServer implements IWorkflowPluginService
 		}
 	}
 
+	public Map<String, Map<String, Object>> getTaskVariables(final String[] tids)
+	{
+		ClassLoader cl = Thread.currentThread().getContextClassLoader();
+		try
+		{
+			Thread.currentThread().setContextClassLoader(getClass().getClassLoader());
+
+			//load all in one command, so one transaction/session is used instead of two per task
+			return processEngine.execute(new Command<Map<String, Map<String, Object>>>()
+			{
+				private static final long serialVersionUID = 1L;
+
+				public Map<String, Map<String, Object>> execute(Environment environment) throws Exception
+				{
+					Map<String, Map<String, Object>> retval = new HashMap<String, Map<String, Object>>();
+					DbSession dbSession = environment.get(DbSession.class);
+					for (String tid : tids)
+					{
+						TaskImpl task = dbSession.get(TaskImpl.class, Long.valueOf(tid));
+						if (task == null) continue;
+						Map<String, Object> variables = new HashMap<String, Object>();
+						for (String name : task.getVariableKeys())
+						{
+							variables.put(name, task.getVariable(name));
+						}
+						retval.put(tid, variables);
+					}
+					return retval;
+				}
+			});
+		} 
+		catch (Exception e) 
+		{
+			Debug.error(e);
+			throw new RuntimeException(e.getMessage());
+		}
+		finally
+		{
+			Thread.currentThread().setContextClassLoader(cl);
+		}
+	}
+
 	public void takeTask(String tid,String uid)
 	{
 		ClassLoader cl = Thread.currentThread().getContextClassLoader();
@@ -62,9 +62,7 @@ public class JSTask
 		{
 			try 
 			{
-				Map<String,Object> variables = workflowService.getTaskVariables(td.taskId);
-				VariablesTypeHelper.convertToServoyTypes(variables);
-				variablesObject = MapSerializer.convertFromMap(variables);
+				setVariables(workflowService.getTaskVariables(td.taskId));
 			} 
 			catch (RemoteException e) 
 			{
@@ -74,6 +72,12 @@ public class JSTask
 		return variablesObject;
 	}
 	
+	void setVariables(Map<String,Object> variables)
+	{
+		VariablesTypeHelper.convertToServoyTypes(variables);
+		variablesObject = MapSerializer.convertFromMap(variables);
+	}
+	
 	public void save(Object jsVariablesObject)
 	{
 		try 
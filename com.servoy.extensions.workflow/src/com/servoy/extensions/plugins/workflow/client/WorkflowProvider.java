@@ -152,6 +152,105 @@ public class WorkflowProvider implements IScriptable, IReturnedTypesProvider
 		}
 	}
 
+	/**
+	 * Get a page of the tasks assigned to a user, ordered on priority, duedate, createTime, name or progress.
+	 * @param username the user
+	 * @param activityName only return the tasks of this activity, null for all
+	 * @param orderBy the task property to order on
+	 * @param ascending true for ascending order
+	 * @param offset the index of the first task to return
+	 * @param limit the max number of tasks to return
+	 */
+	public JSTask[] js_getUserTasks(String username, String activityName, String orderBy, boolean ascending, int offset, int limit)
+	{
+		try
+		{
+			TaskData[] tds = getWorkflowService().getUserTasks(username, activityName, orderBy, ascending, offset, limit);
+			return getTasks(tds);
+		} 
+		catch (RemoteException e) 
+		{
+			Debug.error(e);
+			return null;
+		}
+	}
+
+	/**
+	 * Get a page of the group tasks a user is a candidate for, ordered on priority, duedate, createTime, name or progress.
+	 * @param username the user
+	 * @param activityName only return the tasks of this activity, null for all
+	 * @param orderBy the task property to order on
+	 * @param ascending true for ascending order
+	 * @param offset the index of the first task to return
+	 * @param limit the max number of tasks to return
+	 */
+	public JSTask[] js_getGroupTasks(String username, String activityName, String orderBy, boolean ascending, int offset, int limit)
+	{
+		try
+		{
+			TaskData[] tds = getWorkflowService().getGroupTasks(username, activityName, orderBy, ascending, offset, limit);
+			return getTasks(tds);
+		} 
+		catch (RemoteException e) 
+		{
+			Debug.error(e);
+			return null;
+		}
+	}
+
+	public long js_getUserTaskCount(String username, String activityName)
+	{
+		try
+		{
+			return getWorkflowService().getUserTaskCount(username, activityName);
+		} 
+		catch (RemoteException e) 
+		{
+			Debug.error(e);
+			return -1;
+		}
+	}
+
+	public long js_getGroupTaskCount(String username, String activityName)
+	{
+		try
+		{
+			return getWorkflowService().getGroupTaskCount(username, activityName);
+		} 
+		catch (RemoteException e) 
+		{
+			Debug.error(e);
+			return -1;
+		}
+	}
+
+	/**
+	 * Loads the variables of all given tasks in one call to the server, instead of one call per task.getVariablesObject().
+	 * @param tasks the tasks to load the variables for
+	 */
+	public void js_loadTaskVariables(JSTask[] tasks)
+	{
+		if (tasks == null || tasks.length == 0) return;
+		try
+		{
+			String[] tids = new String[tasks.length];
+			for (int i = 0; i < tasks.length; i++) 
+			{
+				tids[i] = tasks[i].getID();
+			}
+			Map<String, Map<String, Object>> variables = getWorkflowService().getTaskVariables(tids);
+			for (JSTask task : tasks) 
+			{
+				Map<String, Object> taskVariables = variables.get(task.getID());
+				if (taskVariables != null) task.setVariables(taskVariables);
+			}
+		} 
+		catch (RemoteException e) 
+		{
+			Debug.error(e);
+		}
+	}
+
 	public boolean js_addMailTemplate(String templateName,String subject,String msgText)
 	{
 		try
@@ -23,13 +23,13 @@ import org.jbpm.api.activity.ActivityBehaviour;
 import org.jbpm.api.activity.ActivityExecution;
 
 import com.servoy.extensions.workflow.api.IWorkflowPluginService;
-import com.servoy.j2db.server.headlessclient.HeadlessClientFactory;
 import com.servoy.j2db.server.shared.IHeadlessClient;
 import com.servoy.j2db.util.Debug;
 import com.servoy.j2db.util.serialize.MapSerializer;
 
 /**
  * An activity node to execute a global method bpm_<node_name> with workflow variables as argument in a servoy headlessclient from within the workflow.
+ * The headless clients are taken from the {@link HeadlessClientPool}, so they are reused over activities of the same solution.
  * If the return value is a string from the servoy method that value is used as transition name otherwise default. 
  *
  * <custom name="printdots" class="com.servoy.extensions.plugins.worflow.impl.HeadlessClientActivity">
@@ -51,9 +51,24 @@ public class HeadlessClientActivity implements ActivityBehaviour
 			Debug.error(msg);
 			throw new IllegalStateException(msg);
 		}
-		IHeadlessClient client = HeadlessClientFactory.createHeadlessClient(solutionName.toString(), null);
-		Object jsObj = MapSerializer.convertFromMap(variables);
-		Object transition = client.getPluginAccess().executeMethod(null, "bpm_"+ae.getActivityName(), new Object[]{jsObj}, false);
+		String solution = solutionName.toString();
+		HeadlessClientPool pool = HeadlessClientPool.getInstance();
+		IHeadlessClient client = pool.borrowClient(solution);
+		Object transition;
+		boolean failed = true;
+		long start = System.nanoTime();
+		try
+		{
+			Object jsObj = MapSerializer.convertFromMap(variables);
+			transition = client.getPluginAccess().executeMethod(null, "bpm_"+ae.getActivityName(), new Object[]{jsObj}, false);
+			failed = false;
+		}
+		finally
+		{
+			pool.executed(System.nanoTime() - start);
+			pool.returnClient(solution, client, failed);
+		}
+		if (Debug.tracing()) Debug.trace("Executed workflow activity " + ae.getActivityName() + ", client pool " + pool.getStatistics());
 		//TODO investigate if we can get values from jsObj to store again
 		if (transition instanceof String)
 		{
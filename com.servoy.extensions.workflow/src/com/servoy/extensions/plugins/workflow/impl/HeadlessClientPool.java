@@ -0,0 +1,220 @@
+/*
+ This file belongs to the Servoy development and deployment environment, Copyright (C) 1997-2026 Servoy BV
+
+ This program is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Affero General Public License as published by the Free
+ Software Foundation; either version 3 of the License, or (at your option) any
+ later version.
+
+ This program is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more details.
+
+ You should have received a copy of the GNU Affero General Public License along
+ with this program; if not, see http://www.gnu.org/licenses or write to the Free
+ Software Foundation,Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301
+ */
+
+package com.servoy.extensions.plugins.workflow.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.pool2.BaseKeyedPooledObjectFactory;
+import org.apache.commons.pool2.PooledObject;
+import org.apache.commons.pool2.impl.DefaultPooledObject;
+import org.apache.commons.pool2.impl.GenericKeyedObjectPool;
+import org.apache.commons.pool2.impl.GenericKeyedObjectPoolConfig;
+
+import com.servoy.j2db.server.headlessclient.HeadlessClientFactory;
+import com.servoy.j2db.server.shared.IHeadlessClient;
+import com.servoy.j2db.util.Debug;
+
+/**
+ * Pool of headless clients keyed by solution name, used to execute the {@link HeadlessClientActivity} nodes.
+ * Clients are reused over activities, validated on borrow and shut down when idle for too long.
+ * A returned client closes (discarding unsaved edits) and reloads its solution, so the next activity doesn't see the globals, foundsets
+ * or edits of the previous one. Only when all the bpm_ methods are stateless the reload can be turned off.
+ */
+public class HeadlessClientPool
+{
+	public static final String CLIENT_POOL_SIZE_PROPERTY = "jbpm_client_pool_size";
+	public static final String CLIENT_POOL_IDLE_TIMEOUT_PROPERTY = "jbpm_client_pool_idle_timeout";
+	public static final String CLIENT_POOL_RELOAD_SOLUTION_PROPERTY = "jbpm_client_pool_reload_solution";
+
+	public static final int CLIENT_POOL_SIZE_DEFAULT = 5;
+	public static final int CLIENT_POOL_IDLE_TIMEOUT_DEFAULT = 300; //seconds
+	public static final boolean CLIENT_POOL_RELOAD_SOLUTION_DEFAULT = true;
+
+	private static volatile HeadlessClientPool instance;
+
+	private final GenericKeyedObjectPool<String, IHeadlessClient> pool;
+
+	private final AtomicLong executions = new AtomicLong();
+	private final AtomicLong acquireTime = new AtomicLong();
+	private final AtomicLong executionTime = new AtomicLong();
+
+	private HeadlessClientPool(int maxPerSolution, int idleTimeoutSeconds, final boolean reloadSolution)
+	{
+		GenericKeyedObjectPoolConfig<IHeadlessClient> config = new GenericKeyedObjectPoolConfig<IHeadlessClient>();
+		config.setMaxTotalPerKey(maxPerSolution);
+		config.setMaxIdlePerKey(maxPerSolution);
+		config.setBlockWhenExhausted(true);
+		config.setTestOnBorrow(true);
+		config.setMinEvictableIdleTimeMillis(idleTimeoutSeconds * 1000L);
+		config.setTimeBetweenEvictionRunsMillis(Math.max(idleTimeoutSeconds * 1000L / 2, 1000L));
+
+		pool = new GenericKeyedObjectPool<String, IHeadlessClient>(new BaseKeyedPooledObjectFactory<String, IHeadlessClient>()
+		{
+			@Override
+			public IHeadlessClient create(String solutionName) throws Exception
+			{
+				Debug.trace("Creating workflow headless client for solution " + solutionName);
+				return HeadlessClientFactory.createHeadlessClient(solutionName, null);
+			}
+
+			@Override
+			public PooledObject<IHeadlessClient> wrap(IHeadlessClient client)
+			{
+				return new DefaultPooledObject<IHeadlessClient>(client);
+			}
+
+			@Override
+			public boolean validateObject(String solutionName, PooledObject<IHeadlessClient> pooledObject)
+			{
+				return pooledObject.getObject().isValid();
+			}
+
+			@Override
+			public void passivateObject(String solutionName, PooledObject<IHeadlessClient> pooledObject) throws Exception
+			{
+				// This is potentially dangerous, only reuse clients with loaded solution if you are very sure the bpm_ methods did not keep state!
+				if (!reloadSolution) return;
+				// a failure here destroys the client instead of returning it
+				IHeadlessClient client = pooledObject.getObject();
+				client.closeSolution(true);
+				client.loadSolution(solutionName);
+			}
+
+			@Override
+			public void destroyObject(String solutionName, PooledObject<IHeadlessClient> pooledObject) throws Exception
+			{
+				Debug.trace("Shutting down workflow headless client for solution " + solutionName);
+				try
+				{
+					pooledObject.getObject().shutDown(true);
+				}
+				catch (Exception e)
+				{
+					Debug.error(e);
+				}
+			}
+		}, config);
+	}
+
+	/**
+	 * Creates the shared pool, closing a previous one if present.
+	 * @param maxPerSolution max number of clients per solution
+	 * @param idleTimeoutSeconds number of seconds after which an idle client is shut down
+	 * @param reloadSolution true to reload the solution of a client when it is returned, false only when the bpm_ methods are stateless
+	 */
+	public static synchronized void init(int maxPerSolution, int idleTimeoutSeconds, boolean reloadSolution)
+	{
+		close();
+		instance = new HeadlessClientPool(maxPerSolution, idleTimeoutSeconds, reloadSolution);
+	}
+
+	public static HeadlessClientPool getInstance()
+	{
+		HeadlessClientPool pool = instance;
+		if (pool == null)
+		{
+			synchronized (HeadlessClientPool.class)
+			{
+				if (instance == null) instance = new HeadlessClientPool(CLIENT_POOL_SIZE_DEFAULT, CLIENT_POOL_IDLE_TIMEOUT_DEFAULT,
+						CLIENT_POOL_RELOAD_SOLUTION_DEFAULT);
+				pool = instance;
+			}
+		}
+		return pool;
+	}
+
+	public static synchronized void close()
+	{
+		if (instance != null)
+		{
+			Debug.log("Closing workflow headless client pool, " + instance.getStatistics());
+			instance.pool.close();
+			instance = null;
+		}
+	}
+
+	public IHeadlessClient borrowClient(String solutionName) throws Exception
+	{
+		long start = System.nanoTime();
+		try
+		{
+			return pool.borrowObject(solutionName);
+		}
+		finally
+		{
+			acquireTime.addAndGet(System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Returns a client to the pool, a client that failed executing the activity is destroyed instead of reused.
+	 * The solution of a returned client is reloaded before it is reused (unless turned off).
+	 */
+	public void returnClient(String solutionName, IHeadlessClient client, boolean failed)
+	{
+		try
+		{
+			if (failed || !client.isValid())
+			{
+				pool.invalidateObject(solutionName, client);
+			}
+			else
+			{
+				pool.returnObject(solutionName, client);
+			}
+		}
+		catch (Exception e)
+		{
+			Debug.error(e);
+		}
+	}
+
+	void executed(long nanos)
+	{
+		executions.incrementAndGet();
+		executionTime.addAndGet(nanos);
+	}
+
+	public long getExecutionCount()
+	{
+		return executions.get();
+	}
+
+	/**
+	 * @return total time in milliseconds spent waiting for (or creating) a client
+	 */
+	public long getTotalAcquireTime()
+	{
+		return acquireTime.get() / 1000000;
+	}
+
+	/**
+	 * @return total time in milliseconds spent executing activity methods
+	 */
+	public long getTotalExecutionTime()
+	{
+		return executionTime.get() / 1000000;
+	}
+
+	public String getStatistics()
+	{
+		long count = getExecutionCount();
+		return "executions=" + count + ", active=" + pool.getNumActive() + ", idle=" + pool.getNumIdle() + ", avgAcquireMs=" +
+			(count == 0 ? 0 : getTotalAcquireTime() / count) + ", avgExecutionMs=" + (count == 0 ? 0 : getTotalExecutionTime() / count);
+	}
+}
@@ -47,7 +47,18 @@ public interface IWorkflowPluginService extends Remote
 	public TaskData[] getUserTasks(String uid) throws RemoteException;
 	public TaskData[] getGroupTasks(String uid) throws RemoteException;
 
+	/**
+	 * Paged task queries, orderBy is one of the TaskQuery properties (priority, duedate, createTime, name, progress).
+	 * For large task tables make sure the jbpm database has indexes on JBPM4_TASK(ASSIGNEE_, PRIORITY_), JBPM4_TASK(ACTIVITY_NAME_),
+	 * JBPM4_PARTICIPATION(USERID_, TYPE_) and JBPM4_PARTICIPATION(GROUPID_, TYPE_), jbpm only creates the foreign key indexes itself.
+	 */
+	public TaskData[] getUserTasks(String uid, String activityName, String orderBy, boolean ascending, int offset, int limit) throws RemoteException;
+	public TaskData[] getGroupTasks(String uid, String activityName, String orderBy, boolean ascending, int offset, int limit) throws RemoteException;
+	public long getUserTaskCount(String uid, String activityName) throws RemoteException;
+	public long getGroupTaskCount(String uid, String activityName) throws RemoteException;
+
 	public Map<String, Object> getTaskVariables(String tid) throws RemoteException;
+	public Map<String, Map<String, Object>> getTaskVariables(String[] tids) throws RemoteException;
 	public void save(TaskData td,Map<String, Object> variables) throws RemoteException;
 
 	public void takeTask(String tid,String uid) throws RemoteException;
@@ -16,10 +16,6 @@
  */
 package com.servoy.extensions.plugins.amortization;
 
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 
@@ -30,7 +26,6 @@ import com.servoy.j2db.dataprocessing.IDataSet;
 import com.servoy.j2db.documentation.ServoyDocumented;
 import com.servoy.j2db.scripting.IConstantsObject;
 import com.servoy.j2db.scripting.IScriptable;
-import com.servoy.j2db.util.Debug;
 import com.servoy.j2db.util.SafeArrayList;
 
 /**
@@ -68,31 +63,25 @@ import com.servoy.j2db.util.SafeArrayList;
 public class AmortizationCalculation implements IScriptable, IConstantsObject
 {
 
-	/**
-	 * The date format used for debug logging.
-	 */
-	private static final DateFormat dateFormat = new SimpleDateFormat("yyyy.MM.dd"); //$NON-NLS-1$
-
-
 	/**
 	 * The string constant used to identify a loan event.
 	 */
-	private static final String EVENT_LOAN = "loan"; //$NON-NLS-1$
+	static final String EVENT_LOAN = "loan"; //$NON-NLS-1$
 
 	/**
 	 * The string constant used to identify a payment event.
 	 */
-	private static final String EVENT_PAYMENT = "payment"; //$NON-NLS-1$
+	static final String EVENT_PAYMENT = "payment"; //$NON-NLS-1$
 
 	/**
 	 * The string constant used to identify a rate change event.
 	 */
-	private static final String EVENT_RATE = "rate"; //$NON-NLS-1$
+	static final String EVENT_RATE = "rate"; //$NON-NLS-1$
 
 	/**
 	 * The string constant used to identify a compounding period change event.
 	 */
-	private static final String EVENT_PERIOD = "period"; //$NON-NLS-1$
+	static final String EVENT_PERIOD = "period"; //$NON-NLS-1$
 
 
 	/**
@@ -221,19 +210,14 @@ public class AmortizationCalculation implements IScriptable, IConstantsObject
 
 	// The list of events.
 	private final IDataSet events;
-	private CalendarEvent[] expandedEvents;
 
 	// The resulting amortization schedule.
 	private final IDataSet schedule;
 
-	// Balance and interest variables.
-	private Polynomial balancePolynomial;
-	private Polynomial interestPolynomial;
+	// The calculation itself, on primitives.
+	private final AmortizationEngine engine = new AmortizationEngine();
 	private double unknownValue = Double.NaN;
 	private double errorValue = 0;
-	private int unknownType;
-
-	private final double[] bni = new double[3];
 
 	public AmortizationCalculation()
 	{
@@ -623,78 +607,13 @@ public class AmortizationCalculation implements IScriptable, IConstantsObject
 
 	public boolean solveForUnknown()
 	{
-		expandEventList();
-
-		double rate = 0.0D;
-		int compoundingPeriod = PERIOD_NONE;
-		int compoundingStartDay = -1;
-		Calendar interestCalendar = null;
-
-		balancePolynomial = new Polynomial();
-		interestPolynomial = new Polynomial();
-
-		unknownType = UNKNOWN_NONE;
-		for (CalendarEvent expandedEvent : expandedEvents)
-		{
-			Calendar calendar = expandedEvent.calendar;
-			Object[] event = expandedEvent.event;
-
-			if (event[EI_EVENT] == EVENT_RATE)
-			{
-				rate = ((Double)event[EI_AMOUNT]).doubleValue();
-				if (rate < 0) // unknown
-				{
-					if (unknownType != UNKNOWN_NONE && unknownType != UNKNOWN_RATE) return false;
-					unknownType = UNKNOWN_RATE;
-				}
-				Debug.trace(dateFormat.format(calendar.getTime()) + ": New rate: " + rate); //$NON-NLS-1$
-			}
-			else if (event[EI_EVENT] == EVENT_PERIOD)
-			{
-				if (interestCalendar != null && compoundingStartDay != -1)
-				{
-					updateInterest(balancePolynomial, interestPolynomial, compoundingStartDay, compoundingPeriod, rate, interestCalendar, calendar);
-				}
-				compoundingPeriod = ((Integer)event[EI_PERIOD]).intValue();
-				interestCalendar = (Calendar)calendar.clone();
-				compoundingStartDay = interestCalendar.get(Calendar.DAY_OF_MONTH);
-
-				Debug.trace(dateFormat.format(calendar.getTime()) + ": New compounding period: " + compoundingPeriod); //$NON-NLS-1$
-			}
-			else if (event[EI_EVENT] == EVENT_LOAN)
-			{
-
-				updateInterest(balancePolynomial, interestPolynomial, compoundingStartDay, compoundingPeriod, rate, interestCalendar, calendar);
-				interestCalendar = (Calendar)calendar.clone();
-				balancePolynomial.addTerm(-((Double)event[EI_AMOUNT]).doubleValue(), 0);
-				Debug.trace(dateFormat.format(calendar.getTime()) + ": New loan: " + event[EI_AMOUNT]); //$NON-NLS-1$
-			}
-			else if (event[EI_EVENT] == EVENT_PAYMENT)
-			{
-				updateInterest(balancePolynomial, interestPolynomial, compoundingStartDay, compoundingPeriod, rate, interestCalendar, calendar);
-				interestCalendar = (Calendar)calendar.clone();
-				double amount = ((Double)event[EI_AMOUNT]).doubleValue();
-				if (amount < 0) // unknown
-				{
-					if (unknownType != UNKNOWN_NONE && unknownType != UNKNOWN_PAYMENT) return false;
-					unknownType = UNKNOWN_PAYMENT;
-					balancePolynomial.addTerm(1, 1);
-				}
-				else
-				{
-					balancePolynomial.addTerm(amount, 0);
-				}
-				Debug.trace(dateFormat.format(calendar.getTime()) + ": New payment: " + event[EI_AMOUNT]); //$NON-NLS-1$
-			}
-		}
-
-		if (unknownType != UNKNOWN_NONE)
+		loadEngine();
+		if (!engine.solveForUnknown()) return false;
+		if (engine.getUnknownType() != UNKNOWN_NONE)
 		{
-			balancePolynomial.addPolynomial(interestPolynomial);
-			unknownValue = balancePolynomial.findRoot(1, 5E-14, 100);
-			errorValue = Math.abs(balancePolynomial.getValue(unknownValue));
+			unknownValue = engine.getUnknown();
+			errorValue = engine.getError();
 		}
-
 		return true;
 	}
 
@@ -710,132 +629,31 @@ public class AmortizationCalculation implements IScriptable, IConstantsObject
 
 	public boolean calculateAmortizationSchedule()
 	{
-		expandEventList();
-
-		double rate = 0.0D;
-		int compoundingPeriod = PERIOD_NONE;
-		int compoundingStartDay = -1;
-		Calendar interestCalendar = null;
-
-		bni[0] = bni[1] = bni[2] = 0D;
+		loadEngine();
+		engine.calculateSchedule();
 
-		for (CalendarEvent expandedEvent : expandedEvents)
+		Calendar calendar = Calendar.getInstance();
+		for (int i = 0; i < engine.getScheduleCount(); i++)
 		{
-			Calendar calendar = expandedEvent.calendar;
-			Object[] event = expandedEvent.event;
-
-			if (event[EI_EVENT] == EVENT_RATE)
-			{
-				rate = ((Double)event[EI_AMOUNT]).doubleValue();
-				Debug.trace(dateFormat.format(calendar.getTime()) + ": New rate: " + rate); //$NON-NLS-1$
-			}
-			else if (event[EI_EVENT] == EVENT_PERIOD)
-			{
-				if (interestCalendar != null && compoundingStartDay != -1)
-				{
-					updateInterest(bni, compoundingStartDay, compoundingPeriod, rate, interestCalendar, calendar);
-				}
-				compoundingPeriod = ((Integer)event[EI_PERIOD]).intValue();
-				interestCalendar = (Calendar)calendar.clone();
-				compoundingStartDay = interestCalendar.get(Calendar.DAY_OF_MONTH);
-
-				Debug.trace(dateFormat.format(calendar.getTime()) + ": New compounding period: " + compoundingPeriod); //$NON-NLS-1$
-			}
-			else if (event[EI_EVENT] == EVENT_LOAN)
-			{
-				updateInterest(bni, compoundingStartDay, compoundingPeriod, rate, interestCalendar, calendar);
-				interestCalendar = (Calendar)calendar.clone();
-				double amount = ((Double)event[EI_AMOUNT]).doubleValue();
-				bni[0] -= amount;
-				double interest, balance, principal;
-				interest = -roundMoney(bni[2]);
-				balance = roundMoney(bni[0] + bni[1]);
-				principal = roundMoney(-amount - interest);
-				schedule.addRow(new Object[] { EVENT_LOAN, calendar.getTime(), new Double(-amount), new Double(interest), new Double(balance), new Double(
-					balance) }); // "event", "date", "payment", "interest", "principal", "balance"
-				Debug.trace(dateFormat.format(calendar.getTime()) + ": New loan: " + event[EI_AMOUNT]); //$NON-NLS-1$
-				bni[2] = 0;
-			}
-			else if (event[EI_EVENT] == EVENT_PAYMENT)
-			{
-				updateInterest(bni, compoundingStartDay, compoundingPeriod, rate, interestCalendar, calendar);
-				interestCalendar = (Calendar)calendar.clone();
-				double amount = ((Double)event[EI_AMOUNT]).doubleValue();
-				bni[0] += amount;
-				double interest, balance, principal;
-				interest = -roundMoney(bni[2]);
-				balance = roundMoney(bni[0] + bni[1]);
-				principal = roundMoney(amount - interest);
-				schedule.addRow(new Object[] { EVENT_PAYMENT, calendar.getTime(), event[EI_AMOUNT], new Double(interest), new Double(principal), new Double(
-					balance) }); // "event", "date", "payment", "interest", "principal", "balance"
-				Debug.trace(dateFormat.format(calendar.getTime()) + ": New payment: " + event[EI_AMOUNT]); //$NON-NLS-1$
-				bni[2] = 0;
-			}
+			// "event", "date", "payment", "interest", "principal", "balance"
+			schedule.addRow(new Object[] { engine.getScheduleEvent(i) == AmortizationEngine.EVENT_LOAN ? EVENT_LOAN : EVENT_PAYMENT, toDate(calendar,
+				engine.getScheduleDay(i), engine.getScheduleMillis(i)), Double.valueOf(engine.getSchedulePayment(i)), Double.valueOf(
+					engine.getScheduleInterest(i)), Double.valueOf(engine.getSchedulePrincipal(i)), Double.valueOf(engine.getScheduleBalance(i)) });
 		}
-
 		return true;
 	}
 
-	private void updateInterest(double[] bni, int startDay, int compoundingPeriod, double rate, Calendar from, Calendar to)
-	{
-		if (compoundingPeriod == PERIOD_NONE) return;
-
-		Calendar last = (Calendar)from.clone();
-		Calendar calendar = nextCalendar(last, startDay, compoundingPeriod);
-		rate = rate / 365D;
-		while (getDays(calendar, to) >= 0)
-		{
-			long days = getDays(last, calendar);
-			last = calendar;
-			double deltaInterest = days * rate * bni[0];
-			bni[1] += deltaInterest;
-			bni[2] += deltaInterest;
-			bni[0] += bni[1];
-			bni[1] = 0.0D;
-			calendar = nextCalendar(last, startDay, compoundingPeriod);
-		}
-
-		long days = getDays(last, to);
-		double deltaInterest = days * rate * bni[0];
-		bni[1] += deltaInterest;
-		bni[2] += deltaInterest;
-	}
-
-	private void updateInterest(Polynomial balancePolynomial, Polynomial interestPolynomial, int startDay, int compoundingPeriod, double rate, Calendar from,
-		Calendar to)
+	public double getRestBalance()
 	{
-		if (compoundingPeriod == PERIOD_NONE) return;
-
-		Calendar last = (Calendar)from.clone();
-		Calendar calendar = nextCalendar(last, startDay, compoundingPeriod);
-		while (getDays(calendar, to) >= 0)
-		{
-			double coefficient = (getDays(last, calendar)) / 365D; // Use 365 day year to determine daily interest rate!
-			last = calendar;
-			Polynomial deltaInterest = new Polynomial(balancePolynomial);
-			if (rate < 0) // unknown
-				deltaInterest.multiplyByTerm(coefficient, 1);
-			else deltaInterest.multiplyByTerm(coefficient * rate, 0);
-			interestPolynomial.addPolynomial(deltaInterest);
-			balancePolynomial.addPolynomial(interestPolynomial);
-			interestPolynomial.setToZero();
-			calendar = nextCalendar(last, startDay, compoundingPeriod);
-		}
-
-		double coefficient = (getDays(last, to)) / 365D; // Use 365 day year to determine daily interest rate!
-		Polynomial deltaInterest = new Polynomial(balancePolynomial);
-		if (rate < 0) // unknown
-			deltaInterest.multiplyByTerm(coefficient, 1);
-		else deltaInterest.multiplyByTerm(coefficient * rate, 0);
-		interestPolynomial.addPolynomial(deltaInterest);
+		return engine.getRestBalance();
 	}
 
-	public double getRestBalance()
+	public boolean isValidPeriod(int period)
 	{
-		return roundMoney(bni[0] + bni[1]);
+		return isSupportedPeriod(period);
 	}
 
-	public boolean isValidPeriod(int period)
+	static boolean isSupportedPeriod(int period)
 	{
 		return period == PERIOD_NONE || period == PERIOD_ANNUALY || period == PERIOD_BI_ANNUALLY || period == PERIOD_FOUR_MONTHLY ||
 			period == PERIOD_QUARTERLY || period == PERIOD_TWO_MONTHLY || period == PERIOD_MONTHLY || period == PERIOD_FOUR_WEEKLY ||
@@ -851,7 +669,7 @@ public class AmortizationCalculation implements IScriptable, IConstantsObject
 	 */
 	public double roundMoney(double amount)
 	{
-		return Math.round(amount * 100D) / 100D;
+		return AmortizationEngine.roundMoney(amount);
 	}
 
 	/**
@@ -868,79 +686,79 @@ public class AmortizationCalculation implements IScriptable, IConstantsObject
 	 * @return true if the event was added, false if there was an error adding the event
 	 */
 	private boolean addEvent(String event, double amount, Date firstDate, Date lastDate, int period, int number, int startDay)
+	{
+		int day = checkEvent(event, amount, firstDate, lastDate, period, number, startDay, Calendar.getInstance());
+		if (day == 0) return false;
+
+		// Add an event row to events list.
+		events.addRow(new Object[] { event.toLowerCase().intern(), Double.valueOf(amount), firstDate, lastDate, Integer.valueOf(period), Integer.valueOf(
+			number), Integer.valueOf(day) });
+
+		return true;
+	}
+
+	/**
+	 * Checks the parameters of an event.
+	 *
+	 * @param calendar the calendar used for the date calculations
+	 *
+	 * @return the start day of the event (the day of the month of the first date for {@link #STARTDAY_NORMAL}), 0 if the event is not valid
+	 */
+	static int checkEvent(String event, double amount, Date firstDate, Date lastDate, int period, int number, int startDay, Calendar calendar)
 	{
 		// The event must be given.
-		if (event == null) return false;
+		if (event == null) return 0;
 
 		// The first date must be given.
-		if (firstDate == null) return false;
+		if (firstDate == null) return 0;
 
 		// The last date must be after first date, if given.
-		if (lastDate != null && lastDate.compareTo(firstDate) < 0) return false;
+		if (lastDate != null && lastDate.compareTo(firstDate) < 0) return 0;
 
 		// The compounding period must be one of the supported periods.
-		if (!isValidPeriod(period)) return false;
+		if (!isSupportedPeriod(period)) return 0;
 
 		// Check the parameters for specific event types.
 		if (EVENT_LOAN.equalsIgnoreCase(event) || EVENT_PAYMENT.equalsIgnoreCase(event))
 		{
 			// The amount must be bigger than 0.0 or an unknown payment.
-			if (amount < 0D && !EVENT_PAYMENT.equalsIgnoreCase(event)) return false;
+			if (amount < 0D && !EVENT_PAYMENT.equalsIgnoreCase(event)) return 0;
 
 			// Check the period of a periodic event.
-			if (number > 1 && period == PERIOD_NONE) return false;
+			if (number > 1 && period == PERIOD_NONE) return 0;
 		}
 		else if (EVENT_RATE.equalsIgnoreCase(event))
 		{
 			// A rate event must not have last date or period other than 0 or number other than 1.
-			if (lastDate != null || period != PERIOD_NONE || number != 1) return false;
+			if (lastDate != null || period != PERIOD_NONE || number != 1) return 0;
 		}
 		else if (EVENT_PERIOD.equalsIgnoreCase(event))
 		{
 			// A period event must not have an amount or last date or number other than 1.
-			if (amount != 0D || lastDate != null || number != 1) return false;
+			if (amount != 0D || lastDate != null || number != 1) return 0;
 
 		}
 		else
 		{
 			// Unknown event.
-			return false;
+			return 0;
 		}
 
 		// The number must be positive, or unlimited.
-		if (!(number > 0 || (lastDate != null && number == NUMBER_UNLIMITED))) return false;
+		if (!(number > 0 || (lastDate != null && number == NUMBER_UNLIMITED))) return 0;
 
 		// The start day of the month of a periodic event may different from the day of the
 		// month of the first date. If it is not different, then it should be set to
 		// number should be set to -1 or the day of the month of the first date.. If it IS
 		// different, then the day of the month of the first date must be the last day of the
 		// month and the number must be greater than this day of the month and at most 31.
-		Calendar calendar = Calendar.getInstance();
 		calendar.setTime(firstDate);
 		int dayOfMonth = calendar.get(Calendar.DAY_OF_MONTH);
 		if (startDay == STARTDAY_NORMAL) startDay = dayOfMonth;
 		else if ((startDay != dayOfMonth) && (startDay <= dayOfMonth || startDay > 31 || dayOfMonth != calendar.getActualMaximum(Calendar.DAY_OF_MONTH)))
-			return false;
+			return 0;
 
-		// Add an event row to events list.
-		events
-			.addRow(new Object[] { event.toLowerCase().intern(), new Double(amount), firstDate, lastDate, new Integer(period), new Integer(number), new Integer(
-				startDay) });
-
-		return true;
-	}
-
-	/**
-	 * Get the exact number of days between two calendars.
-	 *
-	 * @param from the start calendar
-	 * @param to then end calendar
-	 *
-	 * @return the exact number of days between the start and end calendar
-	 */
-	private long getDays(Calendar from, Calendar to)
-	{
-		return (to.getTimeInMillis() - from.getTimeInMillis() + 12 * 60 * 60 * 1000) / (24 * 60 * 60 * 1000);
+		return startDay;
 	}
 
 	/**
@@ -958,126 +776,72 @@ public class AmortizationCalculation implements IScriptable, IConstantsObject
 	static Calendar nextCalendar(Calendar calendar, int startDay, int period)
 	{
 		Calendar next = (Calendar)calendar.clone();
-
-		// Get the next date in for the specified periodicity after the specified current date.
-		switch (period)
-		{
-			case PERIOD_ANNUALY :
-				next.roll(Calendar.YEAR, 1);
-				break;
-			case PERIOD_BI_ANNUALLY :
-			case PERIOD_FOUR_MONTHLY :
-			case PERIOD_QUARTERLY :
-			case PERIOD_TWO_MONTHLY :
-			case PERIOD_MONTHLY :
-				next.add(Calendar.MONTH, 12 / period);
-				if (next.get(Calendar.DAY_OF_MONTH) != startDay) next.set(Calendar.DAY_OF_MONTH,
-					Math.min(next.getActualMaximum(Calendar.DAY_OF_MONTH), startDay));
-				break;
-			case PERIOD_FOUR_WEEKLY :
-			case PERIOD_TWO_WEEKLY :
-			case PERIOD_WEEKLY :
-				next.add(Calendar.WEEK_OF_YEAR, 52 / period);
-				break;
-			case PERIOD_DAILY :
-				next.add(Calendar.DAY_OF_YEAR, 1);
-				break;
-			case PERIOD_NONE :
-				break;
-			default :
-				throw new IllegalArgumentException("unsupported period (" + period + ")"); //$NON-NLS-1$ //$NON-NLS-2$
-		}
-
+		int day = AmortizationEngine.nextDay(toEpochDay(calendar), startDay, period);
+		int ymd = AmortizationEngine.toYearMonthDay(day);
+		next.set(ymd >> 9, ((ymd >> 5) & 15) - 1, ymd & 31);
 		return next;
 	}
 
 	/**
-	 * Expand the event list to get a list of calendar events. Repeated events are expanded so that each occurrence is
-	 * in the list. The list is sorted but relative order of events at the same time is kept as it is.
+	 * Loads the events in the engine, the dates are converted to epoch days once per event (not per occurrence).
 	 */
-	private void expandEventList()
+	private void loadEngine()
 	{
-		// Expand the events to a list.
-		ArrayList<CalendarEvent> expandedList = new ArrayList<CalendarEvent>();
+		engine.clear();
+		Calendar calendar = Calendar.getInstance();
+		engine.setTimeZone(calendar.getTimeZone());
 		for (int i = 0; i < events.getRowCount(); i++)
 		{
-			// Get the next event.
 			Object[] event = events.getRow(i);
-
-			// Get the start calendar.
-			Date startDate = (Date)event[EI_START];
-			Calendar startCalendar = Calendar.getInstance();
-			startCalendar.setTime(startDate);
-
-			// Get the end calendar.
-			Date endDate = (Date)event[EI_END];
-			Calendar endCalendar = null;
-			if (endDate != null)
-			{
-				endCalendar = Calendar.getInstance();
-				endCalendar.setTime(endDate);
-			}
-
-			// Expand the event.
-			int number = ((Integer)event[EI_NUMBER]).intValue();
-			int period = ((Integer)event[EI_PERIOD]).intValue();
-			int startDay = ((Integer)event[EI_STARTDAY]).intValue();
-
-			Calendar calendar = startCalendar;
-			while (number > 0 || (number == NUMBER_UNLIMITED && endCalendar != null && !calendar.after(endCalendar)))
-			{
-				// Create a new event for this date.
-				expandedList.add(new CalendarEvent(calendar, event));
-
-				// Update the number of times this event has occurred.
-				if (number != NUMBER_UNLIMITED) number--;
-
-				// Find the date of the next event.
-				if (number > 0) calendar = nextCalendar(calendar, startDay, period);
-			}
+			byte type;
+			if (event[EI_EVENT] == EVENT_LOAN) type = AmortizationEngine.EVENT_LOAN;
+			else if (event[EI_EVENT] == EVENT_PAYMENT) type = AmortizationEngine.EVENT_PAYMENT;
+			else if (event[EI_EVENT] == EVENT_RATE) type = AmortizationEngine.EVENT_RATE;
+			else if (event[EI_EVENT] == EVENT_PERIOD) type = AmortizationEngine.EVENT_PERIOD;
+			else continue;
+
+			loadEvent(engine, calendar, type, ((Number)event[EI_AMOUNT]).doubleValue(), (Date)event[EI_START], (Date)event[EI_END],
+				((Number)event[EI_PERIOD]).intValue(), ((Number)event[EI_NUMBER]).intValue(), ((Number)event[EI_STARTDAY]).intValue());
 		}
-
-		// Convert the list to an array and sort it.
-		expandedEvents = new CalendarEvent[expandedList.size()];
-		expandedList.toArray(expandedEvents);
-		Arrays.sort(expandedEvents);
 	}
 
 	/**
-	 * This class tags an event with a calendar, and allows these events to be
-	 * compared by their date.
+	 * Adds a checked event (see {@link #checkEvent}) to the engine.
 	 */
-	private class CalendarEvent implements Comparable
+	static void loadEvent(AmortizationEngine engine, Calendar calendar, byte type, double amount, Date startDate, Date endDate, int period, int number,
+		int startDay)
 	{
-		/**
-		 * The calendar of this event.
-		 */
-		private final Calendar calendar;
-
-		/**
-		 * The event itself.
-		 */
-		private final Object[] event;
-
-		/**
-		 * Create a new calendar event.
-		 *
-		 * @param calendar the calendar of the calendar event
-		 * @param event the event of the calendar event
-		 */
-		private CalendarEvent(Calendar calendar, Object[] event)
+		calendar.setTime(startDate);
+		int start = toEpochDay(calendar);
+		int startMillis = getMillisOfDay(calendar);
+		int end = AmortizationEngine.NO_DAY;
+		int endMillis = 0;
+		if (endDate != null)
 		{
-			this.calendar = calendar;
-			this.event = event;
+			calendar.setTime(endDate);
+			end = toEpochDay(calendar);
+			endMillis = getMillisOfDay(calendar);
 		}
+		engine.addEvent(type, amount, start, startMillis, end, endMillis, period, number, startDay);
+	}
 
-		/**
-		 * Compare to calendar events by their date.
-		 */
-		public int compareTo(Object other)
-		{
-			return calendar.getTime().compareTo(((CalendarEvent)other).calendar.getTime());
-		}
+	private static int toEpochDay(Calendar calendar)
+	{
+		return AmortizationEngine.toEpochDay(calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH) + 1, calendar.get(Calendar.DAY_OF_MONTH));
+	}
+
+	private static int getMillisOfDay(Calendar calendar)
+	{
+		return ((calendar.get(Calendar.HOUR_OF_DAY) * 60 + calendar.get(Calendar.MINUTE)) * 60 + calendar.get(Calendar.SECOND)) * 1000 +
+			calendar.get(Calendar.MILLISECOND);
 	}
 
+	static Date toDate(Calendar calendar, int epochDay, int millisOfDay)
+	{
+		int ymd = AmortizationEngine.toYearMonthDay(epochDay);
+		calendar.clear();
+		calendar.set(ymd >> 9, ((ymd >> 5) & 15) - 1, ymd & 31, millisOfDay / 3600000, (millisOfDay / 60000) % 60, (millisOfDay / 1000) % 60);
+		calendar.set(Calendar.MILLISECOND, millisOfDay % 1000);
+		return calendar.getTime();
+	}
 }
@@ -0,0 +1,765 @@
+/*
+ This file belongs to the Servoy development and deployment environment, Copyright (C) 1997-2026 Servoy BV
+
+ This program is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Affero General Public License as published by the Free
+ Software Foundation; either version 3 of the License, or (at your option) any
+ later version.
+
+ This program is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more details.
+
+ You should have received a copy of the GNU Affero General Public License along
+ with this program; if not, see http://www.gnu.org/licenses or write to the Free
+ Software Foundation,Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301
+ */
+package com.servoy.extensions.plugins.amortization;
+
+import java.util.Arrays;
+import java.util.TimeZone;
+
+import com.servoy.j2db.util.Debug;
+
+/**
+ * The amortization calculation on primitives, dates are epoch days (days since 1970-01-01) plus the milliseconds in that day.
+ * The interest days are counted between the instants of those local dates in the time zone of the calculation, rounded like the calendar
+ * based calculation did, so the amounts are the same as before.
+ * <p>
+ * The events, the expanded occurrences of the events, the schedule and the polynomials used when solving for the unknown are all kept
+ * in primitive arrays that are reused (only grown) by the next calculation, so an engine that is reused for many loans doesn't allocate
+ * anything in the steady state. An engine is not thread safe, use one engine per thread.
+ */
+final class AmortizationEngine
+{
+	static final byte EVENT_LOAN = 0;
+	static final byte EVENT_PAYMENT = 1;
+	static final byte EVENT_RATE = 2;
+	static final byte EVENT_PERIOD = 3;
+
+	/**
+	 * The value used for no end date.
+	 */
+	static final int NO_DAY = Integer.MIN_VALUE;
+
+	static final int UNKNOWN_NONE = AmortizationCalculation.UNKNOWN_NONE;
+	static final int UNKNOWN_RATE = AmortizationCalculation.UNKNOWN_RATE;
+	static final int UNKNOWN_PAYMENT = AmortizationCalculation.UNKNOWN_PAYMENT;
+
+	private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000;
+
+	// the events
+	private int eventCount;
+	private byte[] evType = new byte[8];
+	private double[] evAmount = new double[8];
+	private int[] evStart = new int[8];
+	private int[] evStartMillis = new int[8];
+	private int[] evEnd = new int[8];
+	private int[] evEndMillis = new int[8];
+	private int[] evPeriod = new int[8];
+	private int[] evNumber = new int[8];
+	private int[] evStartDay = new int[8];
+
+	// the expanded events, sorted by order
+	private int occurrenceCount;
+	private int[] occDay = new int[64];
+	private int[] occMillis = new int[64];
+	private int[] occEvent = new int[64];
+	private int[] order = new int[64];
+	private int[] sortBuffer = new int[64];
+
+	// the schedule
+	private int scheduleCount;
+	private byte[] scEvent = new byte[64];
+	private int[] scDay = new int[64];
+	private int[] scMillis = new int[64];
+	private double[] scPayment = new double[64];
+	private double[] scInterest = new double[64];
+	private double[] scPrincipal = new double[64];
+	private double[] scBalance = new double[64];
+
+	// balance, interest not yet added to the balance and interest since the last loan or payment
+	private double balance;
+	private double pendingInterest;
+	private double accruedInterest;
+
+	// the polynomials of the balance and the interest in the unknown, coefficient i is of x^i
+	private double[] balancePolynomial = new double[8];
+	private double[] interestPolynomial = new double[8];
+	private int balanceDegree;
+	private int interestDegree;
+
+	private int unknownType = UNKNOWN_NONE;
+	private double unknownValue = Double.NaN;
+	private double errorValue = 0;
+
+	// the time zone of the dates, the interest days are counted between instants like the calendar based calculation did
+	private TimeZone zone;
+
+	void clear()
+	{
+		eventCount = 0;
+		scheduleCount = 0;
+		balance = pendingInterest = accruedInterest = 0D;
+		unknownType = UNKNOWN_NONE;
+		unknownValue = Double.NaN;
+		errorValue = 0;
+	}
+
+	/**
+	 * Sets the time zone of the local dates of the events, null to count the days between the local dates and times.
+	 */
+	void setTimeZone(TimeZone zone)
+	{
+		this.zone = zone;
+	}
+
+	/**
+	 * Adds an event, the event must be valid (see {@link AmortizationCalculation#addEvent}).
+	 *
+	 * @param endDay the end epoch day, {@link #NO_DAY} for no end date
+	 * @param startDay the day of the month the event occurs on
+	 */
+	void addEvent(byte type, double amount, int start, int startMillis, int end, int endMillis, int period, int number, int startDay)
+	{
+		if (eventCount == evType.length)
+		{
+			int size = eventCount * 2;
+			evType = Arrays.copyOf(evType, size);
+			evAmount = Arrays.copyOf(evAmount, size);
+			evStart = Arrays.copyOf(evStart, size);
+			evStartMillis = Arrays.copyOf(evStartMillis, size);
+			evEnd = Arrays.copyOf(evEnd, size);
+			evEndMillis = Arrays.copyOf(evEndMillis, size);
+			evPeriod = Arrays.copyOf(evPeriod, size);
+			evNumber = Arrays.copyOf(evNumber, size);
+			evStartDay = Arrays.copyOf(evStartDay, size);
+		}
+		evType[eventCount] = type;
+		evAmount[eventCount] = amount;
+		evStart[eventCount] = start;
+		evStartMillis[eventCount] = startMillis;
+		evEnd[eventCount] = end;
+		evEndMillis[eventCount] = endMillis;
+		evPeriod[eventCount] = period;
+		evNumber[eventCount] = number;
+		evStartDay[eventCount] = startDay;
+		eventCount++;
+	}
+
+	int getEventCount()
+	{
+		return eventCount;
+	}
+
+	/**
+	 * Calculates the amortization schedule of the events, the previous schedule is cleared.
+	 */
+	void calculateSchedule()
+	{
+		expandEvents();
+		scheduleCount = 0;
+
+		final boolean trace = Debug.tracing();
+		double rate = 0.0D;
+		int compoundingPeriod = AmortizationCalculation.PERIOD_NONE;
+		int compoundingStartDay = -1;
+		int interestDay = NO_DAY;
+		int interestMillis = 0;
+
+		balance = pendingInterest = accruedInterest = 0D;
+
+		for (int o = 0; o < occurrenceCount; o++)
+		{
+			int occurrence = order[o];
+			int day = occDay[occurrence];
+			int e = occEvent[occurrence];
+			switch (evType[e])
+			{
+				case EVENT_RATE :
+					rate = evAmount[e];
+					if (trace) Debug.trace(formatDay(day) + ": New rate: " + rate); //$NON-NLS-1$
+					break;
+				case EVENT_PERIOD :
+					if (interestDay != NO_DAY && compoundingStartDay != -1)
+					{
+						updateInterest(compoundingStartDay, compoundingPeriod, rate, interestDay, interestMillis, day, occMillis[occurrence]);
+					}
+					compoundingPeriod = evPeriod[e];
+					interestDay = day;
+					interestMillis = occMillis[occurrence];
+					compoundingStartDay = getDayOfMonth(day);
+					if (trace) Debug.trace(formatDay(day) + ": New compounding period: " + compoundingPeriod); //$NON-NLS-1$
+					break;
+				case EVENT_LOAN :
+				{
+					updateInterest(compoundingStartDay, compoundingPeriod, rate, interestDay, interestMillis, day, occMillis[occurrence]);
+					interestDay = day;
+					interestMillis = occMillis[occurrence];
+					double amount = evAmount[e];
+					balance -= amount;
+					double interest = -roundMoney(accruedInterest);
+					double rowBalance = roundMoney(balance + pendingInterest);
+					// "event", "date", "payment", "interest", "principal", "balance"
+					addScheduleRow(EVENT_LOAN, day, occMillis[occurrence], -amount, interest, rowBalance, rowBalance);
+					if (trace) Debug.trace(formatDay(day) + ": New loan: " + amount); //$NON-NLS-1$
+					accruedInterest = 0;
+					break;
+				}
+				case EVENT_PAYMENT :
+				{
+					updateInterest(compoundingStartDay, compoundingPeriod, rate, interestDay, interestMillis, day, occMillis[occurrence]);
+					interestDay = day;
+					interestMillis = occMillis[occurrence];
+					double amount = evAmount[e];
+					balance += amount;
+					double interest = -roundMoney(accruedInterest);
+					double rowBalance = roundMoney(balance + pendingInterest);
+					double principal = roundMoney(amount - interest);
+					addScheduleRow(EVENT_PAYMENT, day, occMillis[occurrence], amount, interest, principal, rowBalance);
+					if (trace) Debug.trace(formatDay(day) + ": New payment: " + amount); //$NON-NLS-1$
+					accruedInterest = 0;
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Solves the balance at the end of the events for the unknown (a rate or a payment amount that is negative).
+	 *
+	 * @return false if there is an unknown rate and an unknown payment
+	 */
+	boolean solveForUnknown()
+	{
+		expandEvents();
+
+		final boolean trace = Debug.tracing();
+		double rate = 0.0D;
+		int compoundingPeriod = AmortizationCalculation.PERIOD_NONE;
+		int compoundingStartDay = -1;
+		int interestDay = NO_DAY;
+		int interestMillis = 0;
+
+		Arrays.fill(balancePolynomial, 0D);
+		Arrays.fill(interestPolynomial, 0D);
+		balanceDegree = interestDegree = 0;
+
+		unknownType = UNKNOWN_NONE;
+		for (int o = 0; o < occurrenceCount; o++)
+		{
+			int occurrence = order[o];
+			int day = occDay[occurrence];
+			int e = occEvent[occurrence];
+			switch (evType[e])
+			{
+				case EVENT_RATE :
+					rate = evAmount[e];
+					if (rate < 0) // unknown
+					{
+						if (unknownType != UNKNOWN_NONE && unknownType != UNKNOWN_RATE) return false;
+						unknownType = UNKNOWN_RATE;
+					}
+					if (trace) Debug.trace(formatDay(day) + ": New rate: " + rate); //$NON-NLS-1$
+					break;
+				case EVENT_PERIOD :
+					if (interestDay != NO_DAY && compoundingStartDay != -1)
+					{
+						updateInterestPolynomial(compoundingStartDay, compoundingPeriod, rate, interestDay, interestMillis, day, occMillis[occurrence]);
+					}
+					compoundingPeriod = evPeriod[e];
+					interestDay = day;
+					interestMillis = occMillis[occurrence];
+					compoundingStartDay = getDayOfMonth(day);
+					if (trace) Debug.trace(formatDay(day) + ": New compounding period: " + compoundingPeriod); //$NON-NLS-1$
+					break;
+				case EVENT_LOAN :
+					updateInterestPolynomial(compoundingStartDay, compoundingPeriod, rate, interestDay, interestMillis, day, occMillis[occurrence]);
+					interestDay = day;
+					interestMillis = occMillis[occurrence];
+					balancePolynomial[0] -= evAmount[e];
+					if (trace) Debug.trace(formatDay(day) + ": New loan: " + evAmount[e]); //$NON-NLS-1$
+					break;
+				case EVENT_PAYMENT :
+					updateInterestPolynomial(compoundingStartDay, compoundingPeriod, rate, interestDay, interestMillis, day, occMillis[occurrence]);
+					interestDay = day;
+					interestMillis = occMillis[occurrence];
+					double amount = evAmount[e];
+					if (amount < 0) // unknown
+					{
+						if (unknownType != UNKNOWN_NONE && unknownType != UNKNOWN_PAYMENT) return false;
+						unknownType = UNKNOWN_PAYMENT;
+						ensurePolynomialDegree(1);
+						balancePolynomial[1] += 1;
+						if (balanceDegree < 1) balanceDegree = 1;
+					}
+					else
+					{
+						balancePolynomial[0] += amount;
+					}
+					if (trace) Debug.trace(formatDay(day) + ": New payment: " + amount); //$NON-NLS-1$
+					break;
+			}
+		}
+
+		if (unknownType != UNKNOWN_NONE)
+		{
+			addInterestToBalance();
+			unknownValue = findRoot(1, 5E-14, 100);
+			errorValue = Math.abs(getBalanceValue(unknownValue));
+		}
+		return true;
+	}
+
+	int getUnknownType()
+	{
+		return unknownType;
+	}
+
+	double getUnknown()
+	{
+		return unknownValue;
+	}
+
+	double getError()
+	{
+		return errorValue;
+	}
+
+	/**
+	 * Replaces the unknown rates or payment amounts of the events by the solved unknown, so the schedule of the solution can be calculated.
+	 */
+	void applyUnknown()
+	{
+		if (unknownType == UNKNOWN_NONE) return;
+		byte type = unknownType == UNKNOWN_RATE ? EVENT_RATE : EVENT_PAYMENT;
+		for (int e = 0; e < eventCount; e++)
+		{
+			if (evType[e] == type && evAmount[e] < 0) evAmount[e] = unknownValue;
+		}
+	}
+
+	double getRestBalance()
+	{
+		return roundMoney(balance + pendingInterest);
+	}
+
+	int getScheduleCount()
+	{
+		return scheduleCount;
+	}
+
+	byte getScheduleEvent(int row)
+	{
+		return scEvent[row];
+	}
+
+	int getScheduleDay(int row)
+	{
+		return scDay[row];
+	}
+
+	int getScheduleMillis(int row)
+	{
+		return scMillis[row];
+	}
+
+	double getSchedulePayment(int row)
+	{
+		return scPayment[row];
+	}
+
+	double getScheduleInterest(int row)
+	{
+		return scInterest[row];
+	}
+
+	double getSchedulePrincipal(int row)
+	{
+		return scPrincipal[row];
+	}
+
+	double getScheduleBalance(int row)
+	{
+		return scBalance[row];
+	}
+
+	static double roundMoney(double amount)
+	{
+		return Math.round(amount * 100D) / 100D;
+	}
+
+	/**
+	 * Adds the interest from the last event to the next, compounded on the dates of the compounding period. The compounding dates have the time of day
+	 * of the last event.
+	 */
+	private void updateInterest(int startDay, int compoundingPeriod, double rate, int fromDay, int fromMillis, int toDay, int toMillis)
+	{
+		if (compoundingPeriod == AmortizationCalculation.PERIOD_NONE) return;
+
+		long to = getInstant(toDay, toMillis);
+		long last = getInstant(fromDay, fromMillis);
+		int nextDay = nextDay(fromDay, startDay, compoundingPeriod);
+		long next = getInstant(nextDay, fromMillis);
+		rate = rate / 365D;
+		while (getDays(next, to) >= 0)
+		{
+			double deltaInterest = getDays(last, next) * rate * balance;
+			last = next;
+			pendingInterest += deltaInterest;
+			accruedInterest += deltaInterest;
+			balance += pendingInterest;
+			pendingInterest = 0.0D;
+			nextDay = nextDay(nextDay, startDay, compoundingPeriod);
+			next = getInstant(nextDay, fromMillis);
+		}
+
+		double deltaInterest = getDays(last, to) * rate * balance;
+		pendingInterest += deltaInterest;
+		accruedInterest += deltaInterest;
+	}
+
+	private void updateInterestPolynomial(int startDay, int compoundingPeriod, double rate, int fromDay, int fromMillis, int toDay, int toMillis)
+	{
+		if (compoundingPeriod == AmortizationCalculation.PERIOD_NONE) return;
+
+		long to = getInstant(toDay, toMillis);
+		long last = getInstant(fromDay, fromMillis);
+		int nextDay = nextDay(fromDay, startDay, compoundingPeriod);
+		long next = getInstant(nextDay, fromMillis);
+		while (getDays(next, to) >= 0)
+		{
+			double coefficient = getDays(last, next) / 365D; // Use 365 day year to determine daily interest rate!
+			last = next;
+			addBalanceInterest(coefficient, rate);
+			addInterestToBalance();
+			nextDay = nextDay(nextDay, startDay, compoundingPeriod);
+			next = getInstant(nextDay, fromMillis);
+		}
+
+		double coefficient = getDays(last, to) / 365D; // Use 365 day year to determine daily interest rate!
+		addBalanceInterest(coefficient, rate);
+	}
+
+	/**
+	 * Get the number of days between two instants, rounded to the nearest day like {@link AmortizationCalculation} always did.
+	 * The division truncates toward zero, so an instant up to one and a half day after the end still gives 0 days: a compounding date
+	 * the day after a payment is compounded before that payment.
+	 */
+	private static long getDays(long from, long to)
+	{
+		return (to - from + MILLIS_PER_DAY / 2) / MILLIS_PER_DAY;
+	}
+
+	/**
+	 * @return the instant of the local date and time in the time zone, like a lenient calendar
+	 */
+	private long getInstant(int day, int millis)
+	{
+		long local = day * MILLIS_PER_DAY + millis;
+		if (zone == null) return local;
+		int offset = zone.getOffset(local - zone.getRawOffset());
+		long instant = local - offset;
+		// around a daylight saving time transition the offset of the instant can be different
+		int instantOffset = zone.getOffset(instant);
+		return instantOffset == offset ? instant : local - instantOffset;
+	}
+
+	/**
+	 * interest += balance * coefficient * rate, where the rate is the unknown x when it is negative
+	 */
+	private void addBalanceInterest(double coefficient, double rate)
+	{
+		if (rate < 0) // unknown
+		{
+			ensurePolynomialDegree(balanceDegree + 1);
+			for (int i = balanceDegree; i >= 0; i--)
+			{
+				interestPolynomial[i + 1] += balancePolynomial[i] * coefficient;
+			}
+			interestDegree = Math.max(interestDegree, balanceDegree + 1);
+		}
+		else
+		{
+			double factor = coefficient * rate;
+			for (int i = 0; i <= balanceDegree; i++)
+			{
+				interestPolynomial[i] += balancePolynomial[i] * factor;
+			}
+			interestDegree = Math.max(interestDegree, balanceDegree);
+		}
+	}
+
+	/**
+	 * balance += interest, interest = 0
+	 */
+	private void addInterestToBalance()
+	{
+		for (int i = 0; i <= interestDegree; i++)
+		{
+			balancePolynomial[i] += interestPolynomial[i];
+			interestPolynomial[i] = 0D;
+		}
+		balanceDegree = Math.max(balanceDegree, interestDegree);
+		interestDegree = 0;
+	}
+
+	private void ensurePolynomialDegree(int degree)
+	{
+		if (degree >= balancePolynomial.length)
+		{
+			int size = Math.max(degree + 1, balancePolynomial.length * 2);
+			balancePolynomial = Arrays.copyOf(balancePolynomial, size);
+			interestPolynomial = Arrays.copyOf(interestPolynomial, size);
+		}
+	}
+
+	private double getBalanceValue(double x)
+	{
+		double value = 0D;
+		for (int i = balanceDegree; i >= 0; i--)
+		{
+			value = value * x + balancePolynomial[i];
+		}
+		return value;
+	}
+
+	private double getBalanceDerivativeValue(double x)
+	{
+		double value = 0D;
+		for (int i = balanceDegree; i >= 1; i--)
+		{
+			value = value * x + i * balancePolynomial[i];
+		}
+		return value;
+	}
+
+	/**
+	 * Newton's method, like {@link Polynomial#findRoot(double, double, int)}.
+	 */
+	private double findRoot(double root, double error, int iterations)
+	{
+		double value = getBalanceValue(root);
+		while (Math.abs(value) > error && iterations > 0)
+		{
+			double derivative = getBalanceDerivativeValue(root);
+			if (derivative == 0D) return Double.NaN;
+			root = root - value / derivative;
+			value = getBalanceValue(root);
+			iterations--;
+		}
+		return root;
+	}
+
+	private void addScheduleRow(byte event, int day, int millis, double payment, double interest, double principal, double rowBalance)
+	{
+		if (scheduleCount == scEvent.length)
+		{
+			int size = scheduleCount * 2;
+			scEvent = Arrays.copyOf(scEvent, size);
+			scDay = Arrays.copyOf(scDay, size);
+			scMillis = Arrays.copyOf(scMillis, size);
+			scPayment = Arrays.copyOf(scPayment, size);
+			scInterest = Arrays.copyOf(scInterest, size);
+			scPrincipal = Arrays.copyOf(scPrincipal, size);
+			scBalance = Arrays.copyOf(scBalance, size);
+		}
+		scEvent[scheduleCount] = event;
+		scDay[scheduleCount] = day;
+		scMillis[scheduleCount] = millis;
+		scPayment[scheduleCount] = payment;
+		scInterest[scheduleCount] = interest;
+		scPrincipal[scheduleCount] = principal;
+		scBalance[scheduleCount] = rowBalance;
+		scheduleCount++;
+	}
+
+	/**
+	 * Expands the events to their occurrences, sorted by date. Occurrences at the same time keep the order of their events.
+	 */
+	private void expandEvents()
+	{
+		occurrenceCount = 0;
+		for (int e = 0; e < eventCount; e++)
+		{
+			int day = evStart[e];
+			int millis = evStartMillis[e];
+			int number = evNumber[e];
+			int period = evPeriod[e];
+			int end = evEnd[e];
+			while (number > 0 || (number == AmortizationCalculation.NUMBER_UNLIMITED && end != NO_DAY &&
+				(day < end || (day == end && millis <= evEndMillis[e]))))
+			{
+				addOccurrence(day, millis, e);
+
+				// Update the number of times this event has occurred.
+				if (number != AmortizationCalculation.NUMBER_UNLIMITED) number--;
+				// An event without a period can't repeat.
+				else if (period == AmortizationCalculation.PERIOD_NONE) break;
+
+				// Find the date of the next event.
+				if (number != 0) day = nextDay(day, evStartDay[e], period);
+			}
+		}
+		sortOccurrences();
+	}
+
+	private void addOccurrence(int day, int millis, int event)
+	{
+		if (occurrenceCount == occDay.length)
+		{
+			int size = occurrenceCount * 2;
+			occDay = Arrays.copyOf(occDay, size);
+			occMillis = Arrays.copyOf(occMillis, size);
+			occEvent = Arrays.copyOf(occEvent, size);
+			order = new int[size];
+			sortBuffer = new int[size];
+		}
+		occDay[occurrenceCount] = day;
+		occMillis[occurrenceCount] = millis;
+		occEvent[occurrenceCount] = event;
+		occurrenceCount++;
+	}
+
+	/**
+	 * Stable merge sort of the occurrence indexes by their time.
+	 */
+	private void sortOccurrences()
+	{
+		for (int i = 0; i < occurrenceCount; i++)
+		{
+			order[i] = i;
+		}
+		int[] from = order;
+		int[] to = sortBuffer;
+		for (int width = 1; width < occurrenceCount; width *= 2)
+		{
+			for (int left = 0; left < occurrenceCount; left += 2 * width)
+			{
+				int middle = Math.min(left + width, occurrenceCount);
+				int right = Math.min(left + 2 * width, occurrenceCount);
+				int i = left, j = middle, k = left;
+				while (i < middle && j < right)
+				{
+					to[k++] = getTime(from[j]) < getTime(from[i]) ? from[j++] : from[i++];
+				}
+				while (i < middle)
+					to[k++] = from[i++];
+				while (j < right)
+					to[k++] = from[j++];
+			}
+			int[] swap = from;
+			from = to;
+			to = swap;
+		}
+		if (from != order)
+		{
+			System.arraycopy(from, 0, order, 0, occurrenceCount);
+		}
+	}
+
+	private long getTime(int occurrence)
+	{
+		return occDay[occurrence] * MILLIS_PER_DAY + occMillis[occurrence];
+	}
+
+	/**
+	 * Finds the next epoch day for the given epoch day which is the specified period after it, see {@link AmortizationCalculation#nextCalendar}.
+	 */
+	static int nextDay(int day, int startDay, int period)
+	{
+		switch (period)
+		{
+			case AmortizationCalculation.PERIOD_ANNUALY :
+			{
+				// like a lenient calendar, the 29th of february becomes the 1st of march in a year that is not a leap year
+				int ymd = toYearMonthDay(day);
+				return toEpochDay((ymd >> 9) + 1, (ymd >> 5) & 15, 1) + (ymd & 31) - 1;
+			}
+			case AmortizationCalculation.PERIOD_BI_ANNUALLY :
+			case AmortizationCalculation.PERIOD_FOUR_MONTHLY :
+			case AmortizationCalculation.PERIOD_QUARTERLY :
+			case AmortizationCalculation.PERIOD_TWO_MONTHLY :
+			case AmortizationCalculation.PERIOD_MONTHLY :
+			{
+				int ymd = toYearMonthDay(day);
+				int months = (ymd >> 9) * 12 + ((ymd >> 5) & 15) - 1 + 12 / period;
+				int year = Math.floorDiv(months, 12);
+				int month = Math.floorMod(months, 12) + 1;
+				// the start day can be a day that doesn't exist in every month (or be out of the month, like a lenient calendar)
+				return toEpochDay(year, month, 1) + Math.min(lengthOfMonth(year, month), startDay) - 1;
+			}
+			case AmortizationCalculation.PERIOD_FOUR_WEEKLY :
+			case AmortizationCalculation.PERIOD_TWO_WEEKLY :
+			case AmortizationCalculation.PERIOD_WEEKLY :
+				return day + 7 * (52 / period);
+			case AmortizationCalculation.PERIOD_DAILY :
+				return day + 1;
+			case AmortizationCalculation.PERIOD_NONE :
+				return day;
+			default :
+				throw new IllegalArgumentException("unsupported period (" + period + ")"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	/**
+	 * @return the days since 1970-01-01 of the date (proleptic gregorian)
+	 */
+	static int toEpochDay(int year, int month, int day)
+	{
+		int y = month <= 2 ? year - 1 : year;
+		int era = (y >= 0 ? y : y - 399) / 400;
+		int yoe = y - era * 400;
+		int doy = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+		int doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+		return era * 146097 + doe - 719468;
+	}
+
+	/**
+	 * @return the date of the epoch day packed as year << 9 | month << 5 | day
+	 */
+	static int toYearMonthDay(int epochDay)
+	{
+		int z = epochDay + 719468;
+		int era = (z >= 0 ? z : z - 146096) / 146097;
+		int doe = z - era * 146097;
+		int yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+		int year = yoe + era * 400;
+		int doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+		int mp = (5 * doy + 2) / 153;
+		int day = doy - (153 * mp + 2) / 5 + 1;
+		int month = mp < 10 ? mp + 3 : mp - 9;
+		if (month <= 2) year++;
+		return year << 9 | month << 5 | day;
+	}
+
+	static int getDayOfMonth(int epochDay)
+	{
+		return toYearMonthDay(epochDay) & 31;
+	}
+
+	private static int lengthOfMonth(int year, int month)
+	{
+		switch (month)
+		{
+			case 2 :
+				return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+			case 4 :
+			case 6 :
+			case 9 :
+			case 11 :
+				return 30;
+			default :
+				return 31;
+		}
+	}
+
+	@SuppressWarnings("nls")
+	private static String formatDay(int epochDay)
+	{
+		int ymd = toYearMonthDay(epochDay);
+		int month = (ymd >> 5) & 15;
+		int day = ymd & 31;
+		return (ymd >> 9) + (month < 10 ? ".0" : ".") + month + (day < 10 ? ".0" : ".") + day;
+	}
+}
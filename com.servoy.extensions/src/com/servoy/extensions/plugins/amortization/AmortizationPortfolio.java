@@ -0,0 +1,334 @@
+/*
+ This file belongs to the Servoy development and deployment environment, Copyright (C) 1997-2026 Servoy BV
+
+ This program is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Affero General Public License as published by the Free
+ Software Foundation; either version 3 of the License, or (at your option) any
+ later version.
+
+ This program is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more details.
+
+ You should have received a copy of the GNU Affero General Public License along
+ with this program; if not, see http://www.gnu.org/licenses or write to the Free
+ Software Foundation,Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301
+ */
+package com.servoy.extensions.plugins.amortization;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import com.servoy.j2db.dataprocessing.BufferedDataSet;
+import com.servoy.j2db.dataprocessing.IDataSet;
+import com.servoy.j2db.util.SafeArrayList;
+
+/**
+ * Calculates the amortization of a portfolio of loans in parallel.
+ * <p>
+ * Every loan is one row of the loans dataset, with a loan, a rate and a compounding period at the loan date and periodic payments.
+ * The loans are cut in chunks that are calculated by the workers of a {@link ForkJoinPool}, every worker thread has its own
+ * {@link AmortizationEngine} that is reused for all the loans it calculates. Only a limited number of chunks is in progress at the same
+ * time and the results of the chunks are handed over in the order of the loans as soon as they are ready, so a file can be written while the
+ * rest of the portfolio is still calculated.
+ */
+final class AmortizationPortfolio
+{
+	// the columns of the loans dataset
+	static final int LI_ID = 0;
+	static final int LI_AMOUNT = 1;
+	static final int LI_LOAN_DATE = 2;
+	static final int LI_RATE = 3;
+	static final int LI_COMPOUND_PERIOD = 4;
+	static final int LI_PAYMENT = 5;
+	static final int LI_FIRST_PAYMENT_DATE = 6;
+	static final int LI_LAST_PAYMENT_DATE = 7;
+	static final int LI_PAYMENT_PERIOD = 8;
+	static final int LI_NUMBER = 9;
+	static final int LI_STARTDAY = 10;
+
+	static final String STATUS_OK = "ok"; //$NON-NLS-1$
+	static final String STATUS_INVALID = "invalid"; //$NON-NLS-1$
+	static final String STATUS_NOT_SOLVED = "not_solved"; //$NON-NLS-1$
+
+	private static final String[] SUMMARY_COLUMNS = { "loan_id", "status", "rate", "payment", "error", "total_interest", "rest_balance" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$
+	private static final String[] SCHEDULE_COLUMNS = { "loan_id", "event", "date", "payment", "interest", "principal", "balance" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$
+
+	private static final int PARALLELISM = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+	// the number of loans calculated by one task, and the maximum number of tasks in progress
+	private static final int CHUNK_SIZE = 64;
+	private static final int MAX_CHUNKS = 4 * PARALLELISM;
+
+	// the maximum error of a solved unknown, see AmortizationCalculation.js_getError()
+	private static final double MAX_ERROR = 1E-8;
+	// the error is a balance, the floating point residual of large loans grows with the loan amount, so it is also allowed relative to the amount
+	private static final double MAX_RELATIVE_ERROR = 1E-12;
+
+	private final IDataSet loans;
+	private final boolean schedules;
+	private final ThreadLocal<Worker> workers = ThreadLocal.withInitial(Worker::new);
+
+	/**
+	 * @param schedules true for the rows of the amortization schedules of the loans, false for one summary row per loan
+	 */
+	AmortizationPortfolio(IDataSet loans, boolean schedules)
+	{
+		this.loans = loans;
+		this.schedules = schedules;
+	}
+
+	/**
+	 * @return the results of all the loans
+	 */
+	IDataSet calculate()
+	{
+		final IDataSet result = new BufferedDataSet(getColumns(), new SafeArrayList<Object[]>());
+		try
+		{
+			run(rows -> {
+				for (Object[] row : rows)
+				{
+					result.addRow(row);
+				}
+			});
+		}
+		catch (IOException e)
+		{
+			// can't happen, nothing is written
+			throw new RuntimeException(e);
+		}
+		return result;
+	}
+
+	/**
+	 * Writes the results to a csv file (utf-8, with a header line), the dates are written as yyyy-MM-dd HH:mm:ss.
+	 *
+	 * @return the number of rows written, without the header
+	 */
+	int write(File file) throws IOException
+	{
+		final SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss"); //$NON-NLS-1$
+		final int[] count = new int[1];
+		try (final Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)))
+		{
+			writeLine(writer, getColumns(), format);
+			run(rows -> {
+				for (Object[] row : rows)
+				{
+					writeLine(writer, row, format);
+				}
+				count[0] += rows.size();
+			});
+		}
+		return count[0];
+	}
+
+	private String[] getColumns()
+	{
+		return schedules ? SCHEDULE_COLUMNS : SUMMARY_COLUMNS;
+	}
+
+	/**
+	 * Calculates the chunks of loans in the pool and gives the results to the consumer in the order of the loans, on the calling thread.
+	 */
+	private void run(ChunkConsumer consumer) throws IOException
+	{
+		int count = loans.getRowCount();
+		if (count <= CHUNK_SIZE)
+		{
+			consumer.accept(calculate(0, count));
+			return;
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(Math.min(PARALLELISM, (count + CHUNK_SIZE - 1) / CHUNK_SIZE));
+		try
+		{
+			ArrayDeque<ForkJoinTask<List<Object[]>>> inProgress = new ArrayDeque<ForkJoinTask<List<Object[]>>>();
+			int next = 0;
+			while (next < count || !inProgress.isEmpty())
+			{
+				while (next < count && inProgress.size() < MAX_CHUNKS)
+				{
+					final int from = next;
+					final int to = Math.min(count, from + CHUNK_SIZE);
+					inProgress.add(pool.submit(() -> calculate(from, to)));
+					next = to;
+				}
+				consumer.accept(inProgress.poll().join());
+			}
+		}
+		finally
+		{
+			pool.shutdownNow();
+		}
+	}
+
+	private List<Object[]> calculate(int from, int to)
+	{
+		Worker worker = workers.get();
+		List<Object[]> rows = new ArrayList<Object[]>(schedules ? (to - from) * 16 : to - from);
+		for (int i = from; i < to; i++)
+		{
+			worker.calculate(loans.getRow(i), rows);
+		}
+		return rows;
+	}
+
+	private static void writeLine(Writer writer, Object[] row, SimpleDateFormat format) throws IOException
+	{
+		for (int i = 0; i < row.length; i++)
+		{
+			if (i > 0) writer.write(',');
+			Object value = row[i];
+			if (value instanceof Date)
+			{
+				writer.write(format.format((Date)value));
+			}
+			else if (value != null)
+			{
+				String s = value.toString();
+				if (s.indexOf(',') != -1 || s.indexOf('"') != -1 || s.indexOf('\n') != -1 || s.indexOf('\r') != -1)
+				{
+					writer.write('"');
+					writer.write(s.replace("\"", "\"\"")); //$NON-NLS-1$ //$NON-NLS-2$
+					writer.write('"');
+				}
+				else
+				{
+					writer.write(s);
+				}
+			}
+		}
+		writer.write('\n');
+	}
+
+	private static Object getValue(Object[] loan, int index)
+	{
+		return index < loan.length ? loan[index] : null;
+	}
+
+	private static Date getDate(Object[] loan, int index)
+	{
+		Object value = getValue(loan, index);
+		return value instanceof Date ? (Date)value : null;
+	}
+
+	private static double getDouble(Object[] loan, int index, double defaultValue)
+	{
+		Object value = getValue(loan, index);
+		return value instanceof Number ? ((Number)value).doubleValue() : defaultValue;
+	}
+
+	private static int getInt(Object[] loan, int index, int defaultValue)
+	{
+		Object value = getValue(loan, index);
+		return value instanceof Number ? ((Number)value).intValue() : defaultValue;
+	}
+
+	private interface ChunkConsumer
+	{
+		void accept(List<Object[]> rows) throws IOException;
+	}
+
+	/**
+	 * The engine and calendar of one worker thread.
+	 */
+	private final class Worker
+	{
+		private final AmortizationEngine engine = new AmortizationEngine();
+		private final Calendar calendar = Calendar.getInstance();
+
+		void calculate(Object[] loan, List<Object[]> rows)
+		{
+			Object id = getValue(loan, LI_ID);
+			double rate = getDouble(loan, LI_RATE, Double.NaN);
+			double payment = getDouble(loan, LI_PAYMENT, -1);
+			engine.clear();
+			engine.setTimeZone(calendar.getTimeZone());
+			if (Double.isNaN(rate) || (rate < 0 && payment < 0) || !load(loan, rate, payment))
+			{
+				if (!schedules) rows.add(new Object[] { id, STATUS_INVALID, null, null, null, null, null });
+				return;
+			}
+
+			double error = 0;
+			if (rate < 0 || payment < 0)
+			{
+				engine.solveForUnknown();
+				error = engine.getError();
+				if (Double.isNaN(engine.getUnknown()) || !(error <= Math.max(MAX_ERROR, Math.abs(getDouble(loan, LI_AMOUNT, 0)) * MAX_RELATIVE_ERROR)))
+				{
+					if (!schedules) rows.add(new Object[] { id, STATUS_NOT_SOLVED, null, null, Double.valueOf(error), null, null });
+					return;
+				}
+				if (rate < 0) rate = engine.getUnknown();
+				else payment = engine.getUnknown();
+				engine.applyUnknown();
+			}
+			engine.calculateSchedule();
+
+			if (schedules)
+			{
+				for (int i = 0; i < engine.getScheduleCount(); i++)
+				{
+					rows.add(new Object[] { id, engine.getScheduleEvent(i) == AmortizationEngine.EVENT_LOAN ? AmortizationCalculation.EVENT_LOAN
+						: AmortizationCalculation.EVENT_PAYMENT, AmortizationCalculation.toDate(calendar, engine.getScheduleDay(i), engine.getScheduleMillis(
+							i)), Double.valueOf(engine.getSchedulePayment(i)), Double.valueOf(engine.getScheduleInterest(i)), Double.valueOf(
+								engine.getSchedulePrincipal(i)), Double.valueOf(engine.getScheduleBalance(i)) });
+				}
+			}
+			else
+			{
+				double interest = 0;
+				for (int i = 0; i < engine.getScheduleCount(); i++)
+				{
+					interest += engine.getScheduleInterest(i);
+				}
+				rows.add(new Object[] { id, STATUS_OK, Double.valueOf(rate), Double.valueOf(payment), Double.valueOf(error), Double.valueOf(
+					AmortizationEngine.roundMoney(interest)), Double.valueOf(engine.getRestBalance()) });
+			}
+		}
+
+		/**
+		 * Loads the events of the loan in the engine, the events are checked like the events of an {@link AmortizationCalculation}.
+		 *
+		 * @return false if the loan is not valid
+		 */
+		private boolean load(Object[] loan, double rate, double payment)
+		{
+			Date loanDate = getDate(loan, LI_LOAN_DATE);
+			int paymentPeriod = getInt(loan, LI_PAYMENT_PERIOD, AmortizationCalculation.PERIOD_MONTHLY);
+			return add(AmortizationCalculation.EVENT_RATE, AmortizationEngine.EVENT_RATE, rate, loanDate, null, AmortizationCalculation.PERIOD_NONE, 1,
+				AmortizationCalculation.STARTDAY_NORMAL) &&
+				add(AmortizationCalculation.EVENT_PERIOD, AmortizationEngine.EVENT_PERIOD, 0D, loanDate, null,
+					getInt(loan, LI_COMPOUND_PERIOD, paymentPeriod), 1, AmortizationCalculation.STARTDAY_NORMAL) &&
+				add(AmortizationCalculation.EVENT_LOAN, AmortizationEngine.EVENT_LOAN, getDouble(loan, LI_AMOUNT, -1), loanDate, null,
+					AmortizationCalculation.PERIOD_NONE, 1, AmortizationCalculation.STARTDAY_NORMAL) &&
+				add(AmortizationCalculation.EVENT_PAYMENT, AmortizationEngine.EVENT_PAYMENT, payment, getDate(loan, LI_FIRST_PAYMENT_DATE),
+					getDate(loan, LI_LAST_PAYMENT_DATE), paymentPeriod, getInt(loan, LI_NUMBER, AmortizationCalculation.NUMBER_UNLIMITED),
+					getInt(loan, LI_STARTDAY, AmortizationCalculation.STARTDAY_NORMAL));
+		}
+
+		private boolean add(String event, byte type, double amount, Date firstDate, Date lastDate, int period, int number, int startDay)
+		{
+			int day = AmortizationCalculation.checkEvent(event, amount, firstDate, lastDate, period, number, startDay, calendar);
+			if (day == 0) return false;
+			AmortizationCalculation.loadEvent(engine, calendar, type, amount, firstDate, lastDate, period, number, day);
+			return true;
+		}
+	}
+}
@@ -16,12 +16,16 @@
  */
 package com.servoy.extensions.plugins.amortization;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.Calendar;
 import java.util.Date;
 
+import com.servoy.j2db.dataprocessing.IDataSet;
 import com.servoy.j2db.documentation.ServoyDocumented;
 import com.servoy.j2db.scripting.IReturnedTypesProvider;
 import com.servoy.j2db.scripting.IScriptable;
+import com.servoy.j2db.util.Debug;
 
 /**
  * <p>The <code>amortization</code> plugin in Servoy provides a scripting object for calculating
@@ -128,6 +132,92 @@ public class AmortizationProvider implements IScriptable, IReturnedTypesProvider
 		return new AmortizationCalculation();
 	}
 
+	/**
+	 * Calculates the amortization of a portfolio of loans in parallel, using all the processors.
+	 * Every row of the loans dataset is one loan, with these columns (in this order):
+	 * loan id, loan amount, loan date, rate (-1 for unknown), compounding period (null for the payment period), payment amount (-1 for unknown),
+	 * first payment date, last payment date (can be null), payment period, number of payments (-1 for unlimited, until the last payment date)
+	 * and the start day of the payments (optional, -1 for the day of the first payment date).
+	 * An unknown rate or payment amount is solved so that nothing is left at the end of the schedule.
+	 *
+	 * The result has one row per loan, in the order of the loans, with the columns:
+	 * loan_id, status ('ok', 'invalid' or 'not_solved'), rate, payment, error, total_interest and rest_balance.
+	 * The error is the balance that is left with the solved rate or payment, a loan is 'not_solved' when it is more than 1E-8
+	 * and more than 1E-12 times the loan amount (the floating point error of a large loan grows with its amount).
+	 *
+	 * @sample
+	 * var loans = databaseManager.createEmptyDataSet(0, ['id', 'amount', 'loan_date', 'rate', 'compound_period', 'payment',
+	 * 	'first_payment_date', 'last_payment_date', 'payment_period', 'number', 'start_day']);
+	 * // a 30 year monthly mortgage of 200000 at 5%, solve the payment
+	 * loans.addRow([1, 200000, new Date(2020, 0, 1), 0.05, 12, -1, new Date(2020, 1, 1), null, 12, 360, -1]);
+	 * // a loan of 2000 with 5 monthly payments of 500 on the last day of the month, solve the rate
+	 * loans.addRow([2, 2000, new Date(2005, 0, 1), -1, 12, 500, new Date(2005, 1, 28), null, 12, 5, 31]);
+	 *
+	 * // one row per loan with the solved rate or payment
+	 * var summary = plugins.amortization.calculatePortfolio(loans);
+	 * for (var i = 1; i <= summary.getMaxRowIndex(); i++) {
+	 * 	application.output(summary.getValue(i, 1) + ': ' + summary.getValue(i, 2) + ' rate ' + summary.getValue(i, 3) + ' payment ' + summary.getValue(i, 4));
+	 * }
+	 *
+	 * // all the amortization schedule rows of all the loans
+	 * var schedules = plugins.amortization.calculatePortfolio(loans, true);
+	 *
+	 * // or write the schedules of a large portfolio to a csv file while they are calculated
+	 * var rows = plugins.amortization.writePortfolio(loans, '/data/portfolio_schedules.csv', true);
+	 *
+	 * @param loans the dataset with one loan per row
+	 *
+	 * @return A dataset with one summary row per loan.
+	 */
+	public IDataSet js_calculatePortfolio(IDataSet loans)
+	{
+		return js_calculatePortfolio(loans, false);
+	}
+
+	/**
+	 * Calculates the amortization of a portfolio of loans in parallel, see calculatePortfolio(loans) for the columns of the loans dataset.
+	 * When schedules is true the result has the amortization schedule rows of all the loans, in the order of the loans, with the columns:
+	 * loan_id, event, date, payment, interest, principal and balance; loans that are invalid or can't be solved have no rows.
+	 *
+	 * @sampleas js_calculatePortfolio(IDataSet)
+	 *
+	 * @param loans the dataset with one loan per row
+	 * @param schedules true for the schedule rows of the loans, false for one summary row per loan
+	 *
+	 * @return A dataset with the schedule rows or the summary rows of the loans.
+	 */
+	public IDataSet js_calculatePortfolio(IDataSet loans, boolean schedules)
+	{
+		if (loans == null) return null;
+		return new AmortizationPortfolio(loans, schedules).calculate();
+	}
+
+	/**
+	 * Calculates the amortization of a portfolio of loans in parallel and writes the result to a csv file, see calculatePortfolio(loans, schedules)
+	 * for the columns. The rows are written while the rest of the portfolio is calculated, so a large portfolio is never kept in memory.
+	 *
+	 * @sampleas js_calculatePortfolio(IDataSet)
+	 *
+	 * @param loans the dataset with one loan per row
+	 * @param filename the path of the csv file
+	 * @param schedules true for the schedule rows of the loans, false for one summary row per loan
+	 *
+	 * @return The number of rows written (without the header), -1 if the file could not be written.
+	 */
+	public int js_writePortfolio(IDataSet loans, String filename, boolean schedules)
+	{
+		if (loans == null || filename == null) return -1;
+		try
+		{
+			return new AmortizationPortfolio(loans, schedules).write(new File(filename));
+		}
+		catch (IOException e)
+		{
+			Debug.error("Can't write the portfolio to " + filename, e); //$NON-NLS-1$
+			return -1;
+		}
+	}
+
 	/**
 	 *
 	 *
@@ -0,0 +1,213 @@
+/*
+ This file belongs to the Servoy development and deployment environment, Copyright (C) 1997-2026 Servoy BV
+
+ This program is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Affero General Public License as published by the Free
+ Software Foundation; either version 3 of the License, or (at your option) any
+ later version.
+
+ This program is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more details.
+
+ You should have received a copy of the GNU Affero General Public License along
+ with this program; if not, see http://www.gnu.org/licenses or write to the Free
+ Software Foundation,Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301
+*/
+
+package com.servoy.extensions.plugins.clientmanager;
+
+import java.rmi.ConnectException;
+import java.rmi.NoSuchObjectException;
+import java.rmi.RemoteException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.servoy.j2db.util.Debug;
+
+/**
+ * Bounded outbound message queue of one channel listener, drained in batches by the broadcast executor.
+ * A slow or disconnected listener only fills its own queue, it does not hold up the delivery to the other listeners.
+ */
+class BroadcastQueue implements Runnable
+{
+	static final String OVERFLOW_DROP_OLDEST = "drop_oldest"; //$NON-NLS-1$
+	static final String OVERFLOW_DROP_NEWEST = "drop_newest"; //$NON-NLS-1$
+	static final String OVERFLOW_EVICT = "evict"; //$NON-NLS-1$
+
+	private static final int MAX_CONSECUTIVE_FAILURES = 3;
+
+	private final BroadcastInfo listener;
+	private final ClientManagerServer server;
+	private final ChannelStatistics statistics;
+	private final Executor executor;
+	private final int capacity;
+	private final int batchSize;
+	private final String overflowAction;
+
+	private final ConcurrentLinkedQueue<QueuedMessage> queue = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger size = new AtomicInteger();
+	private final AtomicBoolean scheduled = new AtomicBoolean();
+	private volatile boolean closed;
+	private int failures;
+
+	BroadcastQueue(BroadcastInfo listener, ClientManagerServer server, ChannelStatistics statistics, Executor executor, int capacity, int batchSize,
+		String overflowAction)
+	{
+		this.listener = listener;
+		this.server = server;
+		this.statistics = statistics;
+		this.executor = executor;
+		this.capacity = capacity;
+		this.batchSize = batchSize;
+		this.overflowAction = overflowAction;
+	}
+
+	void offer(String name, String message)
+	{
+		if (closed) return;
+		if (size.incrementAndGet() > capacity)
+		{
+			if (OVERFLOW_EVICT.equals(overflowAction))
+			{
+				size.decrementAndGet();
+				statistics.dropped(1);
+				evict("outbound queue full"); //$NON-NLS-1$
+				return;
+			}
+			if (OVERFLOW_DROP_NEWEST.equals(overflowAction) || queue.poll() == null)
+			{
+				size.decrementAndGet();
+				statistics.dropped(1);
+				return;
+			}
+			// dropped the oldest
+			size.decrementAndGet();
+			statistics.dequeued(1);
+			statistics.dropped(1);
+		}
+		queue.add(new QueuedMessage(name, message));
+		statistics.enqueued();
+		schedule();
+	}
+
+	private void schedule()
+	{
+		if (!closed && scheduled.compareAndSet(false, true))
+		{
+			try
+			{
+				executor.execute(this);
+			}
+			catch (RejectedExecutionException e)
+			{
+				scheduled.set(false);
+			}
+		}
+	}
+
+	@Override
+	public void run()
+	{
+		try
+		{
+			QueuedMessage first;
+			while (!closed && (first = queue.poll()) != null)
+			{
+				int count = 1;
+				QueuedMessage[] batch = new QueuedMessage[Math.max(1, Math.min(batchSize, size.get() + 1))];
+				batch[0] = first;
+				QueuedMessage next;
+				while (count < batch.length && (next = queue.poll()) != null)
+				{
+					batch[count++] = next;
+				}
+				size.addAndGet(-count);
+				statistics.dequeued(count);
+				deliver(batch, count);
+			}
+		}
+		finally
+		{
+			scheduled.set(false);
+		}
+		// a message could be added after the last poll but before the scheduled flag was reset
+		if (!closed && !queue.isEmpty()) schedule();
+	}
+
+	private void deliver(QueuedMessage[] batch, int count)
+	{
+		try
+		{
+			if (count == 1)
+			{
+				listener.getBroadCaster().channelMessage(batch[0].name, batch[0].message);
+			}
+			else
+			{
+				String[] names = new String[count];
+				String[] messages = new String[count];
+				for (int i = 0; i < count; i++)
+				{
+					names[i] = batch[i].name;
+					messages[i] = batch[i].message;
+				}
+				listener.getBroadCaster().channelMessages(names, messages);
+			}
+			failures = 0;
+			long now = System.nanoTime();
+			for (int i = 0; i < count; i++)
+			{
+				statistics.delivered(now - batch[i].enqueueTime);
+			}
+		}
+		catch (RemoteException e)
+		{
+			statistics.dropped(count);
+			if (e instanceof NoSuchObjectException || e instanceof ConnectException || ++failures >= MAX_CONSECUTIVE_FAILURES)
+			{
+				evict(e.getMessage());
+			}
+			else
+			{
+				Debug.error(e);
+			}
+		}
+		catch (RuntimeException e)
+		{
+			statistics.dropped(count);
+			Debug.error(e);
+		}
+	}
+
+	private void evict(String reason)
+	{
+		Debug.warn("Removing listener '" + listener.getName() + "' from channel '" + listener.getChannelName() + "': " + reason); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		statistics.evicted();
+		server.removeChannelListener(listener);
+	}
+
+	void close()
+	{
+		closed = true;
+		int remaining = size.getAndSet(0);
+		queue.clear();
+		statistics.dequeued(remaining);
+	}
+
+	private static final class QueuedMessage
+	{
+		final String name;
+		final String message;
+		final long enqueueTime = System.nanoTime();
+
+		QueuedMessage(String name, String message)
+		{
+			this.name = name;
+			this.message = message;
+		}
+	}
+}
@@ -177,4 +177,13 @@ public class Broadcaster implements IBroadcaster, IJavaScriptType
 	{
 		fd.executeAsync(plugin.getClientPluginAccess(), new Object[] { name, message, bci.getChannelName() });
 	}
+
+	@Override
+	public void channelMessages(String[] names, String[] messages) throws RemoteException
+	{
+		for (int i = 0; i < names.length; i++)
+		{
+			channelMessage(names[i], messages[i]);
+		}
+	}
 }
@@ -0,0 +1,92 @@
+/*
+ This file belongs to the Servoy development and deployment environment, Copyright (C) 1997-2026 Servoy BV
+
+ This program is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Affero General Public License as published by the Free
+ Software Foundation; either version 3 of the License, or (at your option) any
+ later version.
+
+ This program is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more details.
+
+ You should have received a copy of the GNU Affero General Public License along
+ with this program; if not, see http://www.gnu.org/licenses or write to the Free
+ Software Foundation,Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301
+*/
+
+package com.servoy.extensions.plugins.clientmanager;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Delivery counters of a broadcast channel.
+ */
+class ChannelStatistics
+{
+	private final LongAdder delivered = new LongAdder();
+	private final LongAdder dropped = new LongAdder();
+	private final LongAdder evicted = new LongAdder();
+	private final LongAdder totalLatency = new LongAdder();
+	private final AtomicLong maxLatency = new AtomicLong();
+	private final AtomicLong backlog = new AtomicLong();
+
+	void enqueued()
+	{
+		backlog.incrementAndGet();
+	}
+
+	void dequeued(int count)
+	{
+		backlog.addAndGet(-count);
+	}
+
+	void delivered(long latencyNanos)
+	{
+		delivered.increment();
+		totalLatency.add(latencyNanos);
+		maxLatency.accumulateAndGet(latencyNanos, Math::max);
+	}
+
+	void dropped(int count)
+	{
+		dropped.add(count);
+	}
+
+	void evicted()
+	{
+		evicted.increment();
+	}
+
+	long getBacklog()
+	{
+		return backlog.get();
+	}
+
+	long getDelivered()
+	{
+		return delivered.sum();
+	}
+
+	long getDropped()
+	{
+		return dropped.sum();
+	}
+
+	long getEvicted()
+	{
+		return evicted.sum();
+	}
+
+	double getAverageLatencyMillis()
+	{
+		long count = delivered.sum();
+		return count == 0 ? 0 : totalLatency.sum() / (count * 1000000d);
+	}
+
+	double getMaxLatencyMillis()
+	{
+		return maxLatency.get() / 1000000d;
+	}
+}
@@ -1,10 +1,7 @@
 package com.servoy.extensions.plugins.clientmanager;
 
 import java.rmi.RemoteException;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Date;
-import java.util.List;
 
 import org.mozilla.javascript.Function;
 import org.mozilla.javascript.annotations.JSFunction;
@@ -13,6 +10,7 @@ import com.servoy.base.scripting.annotations.ServoyClientSupport;
 import com.servoy.j2db.dataprocessing.JSDataSet;
 import com.servoy.j2db.dataprocessing.RowManager;
 import com.servoy.j2db.documentation.ServoyDocumented;
+import com.servoy.j2db.plugins.ClientPluginAccessProvider;
 import com.servoy.j2db.scripting.FunctionDefinition;
 import com.servoy.j2db.scripting.IReturnedTypesProvider;
 import com.servoy.j2db.scripting.IScriptable;
@@ -228,6 +226,8 @@ public class ClientManagerProvider implements IScriptable, IReturnedTypesProvide
 	 * Returns an array of JSClientInformation elements describing the clients connected to the server filtered by the a client info string.
 	 * This way you can ask for a specific set of clients that have a specific information added to there client information.
 	 * Note this is snapshot information on connected clients, client information will not get updated.
+	 * The clients come from an index on the server that is refreshed at most every clientmanager.clientindex.refresh milliseconds (default 1000),
+	 * so the result can contain clients that disconnected, miss clients that connected or miss client information changes within that time.
 	 *
 	 * @sampleas js_getConnectedClients()
 	 *
@@ -236,17 +236,45 @@ public class ClientManagerProvider implements IScriptable, IReturnedTypesProvide
 	 *@return JSClientInformation[]
 	 */
 	public JSClientInformation[] js_getConnectedClients(String clientInfoFilter)
+	{
+		return js_getConnectedClients(clientInfoFilter, null, null, -1, 0, -1);
+	}
+
+	/**
+	 * Returns an array of JSClientInformation elements describing the clients connected to the server that match all the given criteria,
+	 * the filtering and paging is done on the server so only the requested clients are transfered.
+	 * Note this is snapshot information on connected clients, client information will not get updated.
+	 * The clients come from an index on the server that is refreshed at most every clientmanager.clientindex.refresh milliseconds (default 1000),
+	 * so the result can contain clients that disconnected, miss clients that connected or miss client information changes within that time.
+	 *
+	 * @sample
+	 * // get the first 50 web clients of the user 'admin' in the crm solution
+	 * var clients = plugins.clientmanager.getConnectedClients(null, "crm", "admin", APPLICATION_TYPES.NG_CLIENT, 0, 50);
+	 * for (var i = 0; i < clients.length; i++)
+	 * 	application.output("Client has clientId '" + clients[i].getClientID() + "' and has connected from host '" + clients[i].getHostAddress() + "'.");
+	 *
+	 * @param clientInfoFilter only clients having this client info, null for all
+	 * @param solutionName only clients that have this solution open, null for all
+	 * @param userName only clients that are logged in with this user name, null for all
+	 * @param applicationType only clients of this application type (see APPLICATION_TYPES), -1 for all
+	 * @param offset the number of matching clients to skip
+	 * @param limit the max number of clients to return, -1 for all
+	 *
+	 * @return JSClientInformation[]
+	 */
+	public JSClientInformation[] js_getConnectedClients(String clientInfoFilter, String solutionName, String userName, int applicationType, int offset,
+		int limit)
 	{
 		try
 		{
-			List<JSClientInformation> infos = new ArrayList<>();
-			IClientInformation[] connectedClients = plugin.getClientService().getConnectedClients();
-			for (IClientInformation connectedClient : connectedClients)
+			IClientInformation[] connectedClients = plugin.getClientService().getConnectedClients(clientInfoFilter, solutionName, userName, applicationType,
+				offset, limit);
+			JSClientInformation[] infos = new JSClientInformation[connectedClients.length];
+			for (int i = 0; i < connectedClients.length; i++)
 			{
-				if (clientInfoFilter == null || Arrays.asList(connectedClient.getClientInfos()).contains(clientInfoFilter))
-					infos.add(new JSClientInformation(connectedClient));
+				infos[i] = new JSClientInformation(connectedClients[i]);
 			}
-			return infos.toArray(new JSClientInformation[infos.size()]);
+			return infos;
 		}
 		catch (Exception e)
 		{
@@ -255,6 +283,34 @@ public class ClientManagerProvider implements IScriptable, IReturnedTypesProvide
 		}
 	}
 
+	/**
+	 * Returns the JSClientInformation of the connected client with the given id, or null if there is no such client.
+	 * Note this is snapshot information, client information will not get updated.
+	 * The clients come from an index on the server that is refreshed at most every clientmanager.clientindex.refresh milliseconds (default 1000),
+	 * so the result can contain clients that disconnected, miss clients that connected or miss client information changes within that time.
+	 *
+	 * @sample
+	 * var client = plugins.clientmanager.getConnectedClient(clientId);
+	 * if (client) application.output("Client is logged in as " + client.getUserName());
+	 *
+	 * @param clientId the id of the client
+	 *
+	 * @return A JSClientInformation object or null if the client is not connected.
+	 */
+	public JSClientInformation js_getConnectedClient(String clientId)
+	{
+		try
+		{
+			IClientInformation client = plugin.getClientService().getConnectedClient(clientId);
+			return client != null ? new JSClientInformation(client) : null;
+		}
+		catch (Exception e)
+		{
+			Debug.error("Exception while retrieving connected client information.", e); //$NON-NLS-1$
+			return null;
+		}
+	}
+
 	/**
 	 * Returns the current client JSClientInformation object. Note this is snapshot information, client information will not get updated.
 	 *
@@ -263,6 +319,7 @@ public class ClientManagerProvider implements IScriptable, IReturnedTypesProvide
 	@JSFunction
 	public JSClientInformation getClientInformation()
 	{
+		// not from the indexed lookup, the information of the current client (like the user name right after a login) must be up to date
 		String clientId = plugin.getClientPluginAccess().getClientID();
 		try
 		{
@@ -417,6 +474,32 @@ public class ClientManagerProvider implements IScriptable, IReturnedTypesProvide
 		return new JSDataSet();
 	}
 
+	/**
+	 * Get a dataset with the delivery statistics of the broadcaster channels on the server. The dataset has the columns:
+	 * channel, listeners, backlog (messages waiting to be delivered), delivered, dropped, evicted (listeners removed because they were too slow or disconnected),
+	 * avg_latency_ms and max_latency_ms (time between broadcasting and delivering a message).
+	 *
+	 * @sample
+	 * var stats = plugins.clientmanager.getChannelStatistics();
+	 * for (var i = 1; i <= stats.getMaxRowIndex(); i++) {
+	 * 	application.output(stats.getValue(i, 1) + " backlog: " + stats.getValue(i, 3));
+	 * }
+	 *
+	 * @return A dataset with one row per broadcaster channel.
+	 */
+	public JSDataSet js_getChannelStatistics()
+	{
+		try
+		{
+			return new JSDataSet(((ClientPluginAccessProvider)plugin.getClientPluginAccess()).getApplication(), plugin.getClientService().getChannelStatistics());
+		}
+		catch (Exception e)
+		{
+			Debug.error("Exception while getting the channel statistics.", e); //$NON-NLS-1$
+		}
+		return new JSDataSet();
+	}
+
 	/**
 	 * Get client that locked the record from a specific datasource or null if record is not locked.
 	 *
@@ -1,13 +1,20 @@
 package com.servoy.extensions.plugins.clientmanager;
 
 import java.rmi.RemoteException;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import com.servoy.j2db.dataprocessing.BufferedDataSet;
+import com.servoy.j2db.dataprocessing.IDataSet;
 import com.servoy.j2db.dataprocessing.JSDataSet;
 import com.servoy.j2db.plugins.IPostInitializeListener;
 import com.servoy.j2db.plugins.IServerAccess;
@@ -15,13 +22,26 @@ import com.servoy.j2db.plugins.IServerPlugin;
 import com.servoy.j2db.plugins.PluginException;
 import com.servoy.j2db.server.shared.IClientInformation;
 import com.servoy.j2db.server.shared.ServerDeployDate;
-import com.servoy.j2db.util.Debug;
+import com.servoy.j2db.util.Utils;
 
 public class ClientManagerServer implements IServerPlugin, IClientManagerService, IPostInitializeListener
 {
+	private static final String BROADCAST_THREADS_PROPERTY = "clientmanager.broadcast.threads"; //$NON-NLS-1$
+	private static final String BROADCAST_QUEUE_SIZE_PROPERTY = "clientmanager.broadcast.queuesize"; //$NON-NLS-1$
+	private static final String BROADCAST_BATCH_SIZE_PROPERTY = "clientmanager.broadcast.batchsize"; //$NON-NLS-1$
+	private static final String BROADCAST_OVERFLOW_ACTION_PROPERTY = "clientmanager.broadcast.overflowaction"; //$NON-NLS-1$
+	private static final String CLIENT_INDEX_REFRESH_PROPERTY = "clientmanager.clientindex.refresh"; //$NON-NLS-1$
+
 	private IServerAccess application;
 	private final ConcurrentHashMap<String, List<BroadcastInfo>> registeredClients = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<BroadcastInfo, BroadcastQueue> listenerQueues = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String, ChannelStatistics> channelStatistics = new ConcurrentHashMap<>();
 	private ClientManagerServerToBroadcasterBridge broadcasterBridge;
+	private ExecutorService broadcastExecutor;
+	private int queueSize;
+	private int batchSize;
+	private String overflowAction;
+	private ConnectedClientsIndex clientsIndex;
 
 	public ClientManagerServer()
 	{
@@ -30,13 +50,34 @@ public class ClientManagerServer implements IServerPlugin, IClientManagerService
 	@Override
 	public Map<String, String> getRequiredPropertyNames()
 	{
-		return null;
+		Map<String, String> req = new HashMap<String, String>();
+		req.put(BROADCAST_THREADS_PROPERTY, "Number of threads delivering broadcaster channel messages to the listeners, default 4"); //$NON-NLS-1$
+		req.put(BROADCAST_QUEUE_SIZE_PROPERTY, "Max number of undelivered channel messages kept per listener, default 1000"); //$NON-NLS-1$
+		req.put(BROADCAST_BATCH_SIZE_PROPERTY, "Max number of channel messages delivered to a listener in one call, default 100"); //$NON-NLS-1$
+		req.put(BROADCAST_OVERFLOW_ACTION_PROPERTY, "What to do when the queue of a listener is full: " + BroadcastQueue.OVERFLOW_DROP_OLDEST + //$NON-NLS-1$
+			" (default) drops the oldest message, " + BroadcastQueue.OVERFLOW_DROP_NEWEST + " drops the new message, " + BroadcastQueue.OVERFLOW_EVICT + //$NON-NLS-1$ //$NON-NLS-2$
+			" removes the listener from the channel"); //$NON-NLS-1$
+		req.put(CLIENT_INDEX_REFRESH_PROPERTY,
+			"Max age in milliseconds of the connected clients index used by the filtered getConnectedClients queries, default 1000"); //$NON-NLS-1$
+		return req;
 	}
 
 	@Override
 	public void initialize(IServerAccess app) throws PluginException
 	{
 		application = app;
+		int threads = Math.max(1, Utils.getAsInteger(app.getSettings().getProperty(BROADCAST_THREADS_PROPERTY, "4"))); //$NON-NLS-1$
+		queueSize = Math.max(1, Utils.getAsInteger(app.getSettings().getProperty(BROADCAST_QUEUE_SIZE_PROPERTY, "1000"))); //$NON-NLS-1$
+		batchSize = Math.max(1, Utils.getAsInteger(app.getSettings().getProperty(BROADCAST_BATCH_SIZE_PROPERTY, "100"))); //$NON-NLS-1$
+		overflowAction = app.getSettings().getProperty(BROADCAST_OVERFLOW_ACTION_PROPERTY, BroadcastQueue.OVERFLOW_DROP_OLDEST).trim().toLowerCase();
+		clientsIndex = new ConnectedClientsIndex(() -> application.getConnectedClients(),
+			Math.max(0, Utils.getAsInteger(app.getSettings().getProperty(CLIENT_INDEX_REFRESH_PROPERTY, "1000")))); //$NON-NLS-1$
+		AtomicInteger threadCounter = new AtomicInteger();
+		broadcastExecutor = Executors.newFixedThreadPool(threads, r -> {
+			Thread thread = new Thread(r, "clientmanager-broadcast-" + threadCounter.incrementAndGet()); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		});
 		try
 		{
 			app.registerRemoteService(IClientManagerService.class.getName(), this);
@@ -73,6 +114,12 @@ public class ClientManagerServer implements IServerPlugin, IClientManagerService
 	@Override
 	public void unload() throws PluginException
 	{
+		if (broadcastExecutor != null) broadcastExecutor.shutdownNow();
+		for (BroadcastQueue queue : listenerQueues.values())
+		{
+			queue.close();
+		}
+		listenerQueues.clear();
 	}
 
 	@Override
@@ -93,6 +140,26 @@ public class ClientManagerServer implements IServerPlugin, IClientManagerService
 		return copy;
 	}
 
+	@Override
+	public IClientInformation[] getConnectedClients(String clientInfoFilter, String solutionName, String userName, int applicationType, int offset,
+		int limit)
+	{
+		List<IClientInformation> clients = clientsIndex.getClients(clientInfoFilter, solutionName, userName, applicationType, offset, limit);
+		IClientInformation[] copy = new IClientInformation[clients.size()];
+		for (int i = 0; i < copy.length; i++)
+		{
+			copy[i] = new ClientInfoCopy(clients.get(i));
+		}
+		return copy;
+	}
+
+	@Override
+	public IClientInformation getConnectedClient(String clientId)
+	{
+		IClientInformation client = clientsIndex.getClient(clientId);
+		return client != null ? new ClientInfoCopy(client) : null;
+	}
+
 	@Override
 	public void sendMessageToAllClients(String message)
 	{
@@ -127,30 +194,46 @@ public class ClientManagerServer implements IServerPlugin, IClientManagerService
 	public void registerChannelListener(BroadcastInfo info) throws RemoteException
 	{
 		String channel = info.getChannelName();
-		List<BroadcastInfo> list = registeredClients.get(channel);
-		if (list == null)
+		// the lock makes sure the statistics and queues are not removed by a listener leaving while a new one registers
+		synchronized (registeredClients)
 		{
-			list = new CopyOnWriteArrayList<>();
-			List<BroadcastInfo> prev = registeredClients.putIfAbsent(channel, list);
-			if (prev != null) list = prev;
+			List<BroadcastInfo> list = registeredClients.get(channel);
+			if (list == null)
+			{
+				list = new CopyOnWriteArrayList<>();
+				registeredClients.put(channel, list);
+			}
+			ChannelStatistics statistics = channelStatistics.computeIfAbsent(channel, key -> new ChannelStatistics());
+			BroadcastQueue previous = listenerQueues.put(info,
+				new BroadcastQueue(info, this, statistics, broadcastExecutor, queueSize, batchSize, overflowAction));
+			if (previous != null) previous.close();
+			if (!list.contains(info)) list.add(info);
 		}
-		list.add(info);
 	}
 
 	@Override
 	public void deregisterChannelListener(BroadcastInfo info) throws RemoteException
+	{
+		removeChannelListener(info);
+	}
+
+	void removeChannelListener(BroadcastInfo info)
 	{
 		String channel = info.getChannelName();
-		List<BroadcastInfo> list = registeredClients.get(channel);
-		if (list != null)
+		synchronized (registeredClients)
 		{
-			list.remove(info);
-			if (list.size() == 0)
+			// under the registration lock, so a concurrent re-registration of the listener doesn't lose its new queue
+			BroadcastQueue queue = listenerQueues.remove(info);
+			if (queue != null) queue.close();
+			List<BroadcastInfo> list = registeredClients.get(channel);
+			if (list != null)
 			{
-				registeredClients.remove(channel, list);
-				if (list.size() > 0)
+				list.remove(info);
+				if (list.size() == 0)
 				{
-					registeredClients.putIfAbsent(channel, list);
+					// channel names can be dynamic, don't keep the channel after its last listener is gone
+					registeredClients.remove(channel);
+					channelStatistics.remove(channel);
 				}
 			}
 		}
@@ -173,18 +256,31 @@ public class ClientManagerServer implements IServerPlugin, IClientManagerService
 		{
 			for (BroadcastInfo bci : list)
 			{
-				if (!bci.equals(info)) try
-				{
-					bci.getBroadCaster().channelMessage(info.getName(), message);
-				}
-				catch (RemoteException e)
+				if (!bci.equals(info))
 				{
-					Debug.error(e);
+					BroadcastQueue queue = listenerQueues.get(bci);
+					if (queue != null) queue.offer(info.getName(), message);
 				}
 			}
 		}
 	}
 
+	@Override
+	public IDataSet getChannelStatistics()
+	{
+		List<Object[]> rows = new ArrayList<>();
+		for (Map.Entry<String, ChannelStatistics> entry : channelStatistics.entrySet())
+		{
+			List<BroadcastInfo> listeners = registeredClients.get(entry.getKey());
+			ChannelStatistics statistics = entry.getValue();
+			rows.add(new Object[] { entry.getKey(), Integer.valueOf(listeners != null ? listeners.size() : 0), Long.valueOf(statistics.getBacklog()), Long.valueOf(
+				statistics.getDelivered()), Long.valueOf(statistics.getDropped()), Long.valueOf(statistics.getEvicted()), Double.valueOf(
+					statistics.getAverageLatencyMillis()), Double.valueOf(statistics.getMaxLatencyMillis()) });
+		}
+		return new BufferedDataSet(new String[] { "channel", "listeners", "backlog", "delivered", "dropped", "evicted", "avg_latency_ms", "max_latency_ms" }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$
+			rows);
+	}
+
 	@Override
 	public JSDataSet getLocks() throws RemoteException
 	{
@@ -0,0 +1,171 @@
+/*
+ This file belongs to the Servoy development and deployment environment, Copyright (C) 1997-2026 Servoy BV
+
+ This program is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Affero General Public License as published by the Free
+ Software Foundation; either version 3 of the License, or (at your option) any
+ later version.
+
+ This program is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more details.
+
+ You should have received a copy of the GNU Affero General Public License along
+ with this program; if not, see http://www.gnu.org/licenses or write to the Free
+ Software Foundation,Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301
+*/
+
+package com.servoy.extensions.plugins.clientmanager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import com.servoy.j2db.server.shared.IClientInformation;
+
+/**
+ * Index of the connected clients by client id, solution, user, application type and client info.
+ * The index is a snapshot that is rebuilt when it is older than the refresh interval or when a client id is not found,
+ * so many (polling) queries share one scan of the connected clients. The results are taken from the snapshot, so they can contain clients that
+ * disconnected, or miss changes of the client information, since the snapshot was taken (at most the refresh interval ago).
+ */
+class ConnectedClientsIndex
+{
+	private final Supplier<IClientInformation[]> clientsSupplier;
+	private final long refreshInterval;
+
+	private volatile Snapshot snapshot;
+
+	ConnectedClientsIndex(Supplier<IClientInformation[]> clientsSupplier, long refreshInterval)
+	{
+		this.clientsSupplier = clientsSupplier;
+		this.refreshInterval = refreshInterval;
+	}
+
+	IClientInformation getClient(String clientId)
+	{
+		if (clientId == null) return null;
+		// an unknown id doesn't force a new scan, a client that connected after the snapshot was taken is found after the next refresh
+		return getSnapshot().byId.get(clientId);
+	}
+
+	/**
+	 * Returns the clients matching all the given (non null) criteria, applicationType -1 matches all types.
+	 * When limit is bigger then 0 only that page of the matching clients is returned.
+	 */
+	List<IClientInformation> getClients(String clientInfo, String solutionName, String userName, int applicationType, int offset, int limit)
+	{
+		Snapshot current = getSnapshot();
+
+		// start from the smallest candidate list
+		Collection<IClientInformation> candidates = current.byId.values();
+		if (solutionName != null) candidates = smallest(candidates, current.bySolution.get(solutionName));
+		if (userName != null) candidates = smallest(candidates, current.byUser.get(userName));
+		if (applicationType != -1) candidates = smallest(candidates, current.byApplicationType.get(Integer.valueOf(applicationType)));
+		if (clientInfo != null) candidates = smallest(candidates, current.byClientInfo.get(clientInfo));
+
+		List<IClientInformation> result = new ArrayList<>();
+		int skip = Math.max(offset, 0);
+		for (IClientInformation client : candidates)
+		{
+			if (matches(client, clientInfo, solutionName, userName, applicationType))
+			{
+				if (skip > 0)
+				{
+					skip--;
+				}
+				else
+				{
+					result.add(client);
+					if (limit > 0 && result.size() == limit) break;
+				}
+			}
+		}
+		return result;
+	}
+
+	private static Collection<IClientInformation> smallest(Collection<IClientInformation> current, List<IClientInformation> indexed)
+	{
+		if (indexed == null) return Collections.emptyList();
+		return indexed.size() < current.size() ? indexed : current;
+	}
+
+	private static boolean matches(IClientInformation client, String clientInfo, String solutionName, String userName, int applicationType)
+	{
+		if (solutionName != null && !solutionName.equals(client.getOpenSolutionName())) return false;
+		if (userName != null && !userName.equals(client.getUserName())) return false;
+		if (applicationType != -1 && applicationType != client.getApplicationType()) return false;
+		if (clientInfo != null)
+		{
+			String[] infos = client.getClientInfos();
+			if (infos == null) return false;
+			for (String info : infos)
+			{
+				if (clientInfo.equals(info)) return true;
+			}
+			return false;
+		}
+		return true;
+	}
+
+	private Snapshot getSnapshot()
+	{
+		Snapshot current = snapshot;
+		if (current == null || System.currentTimeMillis() - current.created > refreshInterval)
+		{
+			synchronized (this)
+			{
+				// another thread could have refreshed it in the meantime
+				if (snapshot == current)
+				{
+					snapshot = new Snapshot(clientsSupplier.get());
+				}
+				current = snapshot;
+			}
+		}
+		return current;
+	}
+
+	private static class Snapshot
+	{
+		final long created = System.currentTimeMillis();
+		final Map<String, IClientInformation> byId = new LinkedHashMap<>();
+		final Map<String, List<IClientInformation>> bySolution = new HashMap<>();
+		final Map<String, List<IClientInformation>> byUser = new HashMap<>();
+		final Map<Integer, List<IClientInformation>> byApplicationType = new HashMap<>();
+		final Map<String, List<IClientInformation>> byClientInfo = new HashMap<>();
+
+		Snapshot(IClientInformation[] clients)
+		{
+			if (clients == null) return;
+			for (IClientInformation client : clients)
+			{
+				byId.put(client.getClientID(), client);
+				if (client.getOpenSolutionName() != null) add(bySolution, client.getOpenSolutionName(), client);
+				if (client.getUserName() != null) add(byUser, client.getUserName(), client);
+				add(byApplicationType, Integer.valueOf(client.getApplicationType()), client);
+				String[] infos = client.getClientInfos();
+				if (infos != null)
+				{
+					for (String info : infos)
+					{
+						if (info == null) continue;
+						List<IClientInformation> list = byClientInfo.get(info);
+						// a client can have the same info more then once
+						if (list == null || list.get(list.size() - 1) != client) add(byClientInfo, info, client);
+					}
+				}
+			}
+		}
+
+		private static <K> void add(Map<K, List<IClientInformation>> index, K key, IClientInformation client)
+		{
+			index.computeIfAbsent(key, k -> new ArrayList<>()).add(client);
+		}
+	}
+}
@@ -33,4 +33,9 @@ public interface IBroadcaster extends Remote
 	 */
 	void channelMessage(String nickName, String message) throws RemoteException;
 
+	/**
+	 * Delivers multiple queued messages in one call, names and messages have the same length.
+	 */
+	void channelMessages(String[] nickNames, String[] messages) throws RemoteException;
+
 }
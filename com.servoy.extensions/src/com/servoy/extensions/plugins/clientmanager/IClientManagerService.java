@@ -4,6 +4,7 @@ import java.rmi.Remote;
 import java.rmi.RemoteException;
 import java.util.Date;
 
+import com.servoy.j2db.dataprocessing.IDataSet;
 import com.servoy.j2db.dataprocessing.JSDataSet;
 import com.servoy.j2db.server.shared.IClientInformation;
 
@@ -11,6 +12,11 @@ public interface IClientManagerService extends Remote
 {
 	IClientInformation[] getConnectedClients() throws RemoteException;
 
+	IClientInformation[] getConnectedClients(String clientInfoFilter, String solutionName, String userName, int applicationType, int offset, int limit)
+		throws RemoteException;
+
+	IClientInformation getConnectedClient(String clientId) throws RemoteException;
+
 	void sendMessageToAllClients(String message) throws RemoteException;
 
 	void sendMessageToClient(String clientId, String message) throws RemoteException;
@@ -29,6 +35,8 @@ public interface IClientManagerService extends Remote
 
 	JSDataSet getLocks() throws RemoteException;
 
+	IDataSet getChannelStatistics() throws RemoteException;
+
 	void releaseLocks(String client_id) throws RemoteException;
 
 	Date getServerBuildDate() throws RemoteException;
@@ -16,13 +16,18 @@
  */
 package com.servoy.extensions.plugins.excelxport;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 
 import javax.swing.JMenuItem;
 
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 
+import com.servoy.extensions.plugins.file.JSFile;
 import com.servoy.j2db.dataprocessing.IFoundSet;
 import com.servoy.j2db.documentation.ServoyDocumented;
 import com.servoy.j2db.scripting.IScriptable;
@@ -55,6 +60,7 @@ public class Enabler implements IScriptable
 {
 	private JMenuItem imp;
 	private JMenuItem exp;
+	private int xlsxRowWindow = XlsxExporter.DEFAULT_ROW_WINDOW;
 
 	Enabler()
 	{
@@ -292,4 +298,151 @@ public class Enabler implements IScriptable
 		return null;
 	}
 
+	/**
+	 * The number of rows the xlsx export keeps in memory, older rows are flushed to a compressed temp file (default 100).
+	 * A bigger window uses more memory but is needed when a bigger part of the sheet must stay accessible.
+	 *
+	 * @sample
+	 * plugins.excelxport.xlsxRowWindow = 500;
+	 *
+	 * @return the number of rows the xlsx export keeps in memory.
+	 */
+	public int js_getXlsxRowWindow()
+	{
+		return xlsxRowWindow;
+	}
+
+	public void js_setXlsxRowWindow(int rowWindow)
+	{
+		this.xlsxRowWindow = rowWindow > 0 ? rowWindow : XlsxExporter.DEFAULT_ROW_WINDOW;
+	}
+
+	/**
+	 * Export to Excel 2007+ (xlsx) data. The rows are streamed, only the last rows (see xlsxRowWindow) are kept in memory,
+	 * so this can be used for big foundsets and is not limited to the 65536 rows of the xls format.
+	 * When a template is given, the export in an existing sheet of that template must start below the last row of that sheet.
+	 *
+	 * @sample
+	 * //export in new byte array
+	 * var bytes = plugins.excelxport.excelExportXLSX(forms.form1.foundset, ['id','name']);
+	 * //export by adding to templateXLSX, in 'mySheet' worksheet, with column names 'ID' and 'Name', starting at 3rd row and 5th column
+	 * var bytes = plugins.excelxport.excelExportXLSX(forms.form1.foundset, ['id','name'], templateXLSX, 'mySheet', ['ID', 'Name'], 3, 5);
+	 *
+	 * @param foundSet the foundset on which to export
+	 * @param dataProviderIds the ids of the dataproviders
+	 *
+	 * @return A byte array representing the exported Excel data.
+	 */
+	public byte[] js_excelExportXLSX(IFoundSet foundSet, String[] dataProviderIds) throws IOException
+	{
+		return js_excelExportXLSX(foundSet, dataProviderIds, null, null, null, Integer.valueOf(1), Integer.valueOf(1));
+	}
+
+	/**
+	 * @clonedesc js_excelExportXLSX(IFoundSet, String[])
+	 * @sampleas js_excelExportXLSX(IFoundSet, String[])
+	 * @param foundSet the foundset on which to export
+	 * @param dataProviderIds the ids of the dataproviders
+	 * @param templateXLSX the xlsx template to export in
+	 * @param sheetName the name of the worksheet
+	 *
+	 * @return A byte array representing the exported Excel data.
+	 */
+	public byte[] js_excelExportXLSX(IFoundSet foundSet, String[] dataProviderIds, byte[] templateXLSX, String sheetName) throws IOException
+	{
+		return js_excelExportXLSX(foundSet, dataProviderIds, templateXLSX, sheetName, null, Integer.valueOf(1), Integer.valueOf(1));
+	}
+
+	/**
+	 * @clonedesc js_excelExportXLSX(IFoundSet, String[])
+	 * @sampleas js_excelExportXLSX(IFoundSet, String[])
+	 * @param foundSet the foundset on which to export
+	 * @param dataProviderIds the ids of the dataproviders
+	 * @param templateXLSX the xlsx template to export in
+	 * @param sheetName the name of the worksheet
+	 * @param outputColumnNames is used to set the column headers independently from the dataprovider names
+	 * @param startRow row in the foundset at which to start the export
+	 * @param startColumn column in the foundset at which to start the export
+	 *
+	 * @return A byte array representing the exported Excel data.
+	 */
+	public byte[] js_excelExportXLSX(IFoundSet foundSet, String[] dataProviderIds, byte[] templateXLSX, String sheetName, String[] outputColumnNames,
+		Number startRow, Number startColumn) throws IOException
+	{
+		if (foundSet != null && dataProviderIds != null && dataProviderIds.length > 0)
+		{
+			ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+			exportXLSX(foundSet, dataProviderIds, templateXLSX, sheetName, outputColumnNames, startRow, startColumn, buffer);
+			return buffer.toByteArray();
+		}
+		return null;
+	}
+
+	/**
+	 * Export to an Excel 2007+ (xlsx) file. The rows are streamed directly to the file, so neither the sheet nor the resulting file is kept in memory.
+	 * When a template is given, the export in an existing sheet of that template must start below the last row of that sheet.
+	 *
+	 * @sample
+	 * var file = plugins.file.createTempFile('export', '.xlsx');
+	 * plugins.excelxport.excelExportXLSXToFile(forms.form1.foundset, ['id','name'], file);
+	 * //export to a file by adding to templateXLSX, in 'mySheet' worksheet, with column names 'ID' and 'Name', starting at 3rd row and 5th column
+	 * plugins.excelxport.excelExportXLSXToFile(forms.form1.foundset, ['id','name'], '/tmp/export.xlsx', templateXLSX, 'mySheet', ['ID', 'Name'], 3, 5);
+	 *
+	 * @param foundSet the foundset on which to export
+	 * @param dataProviderIds the ids of the dataproviders
+	 * @param file the JSFile or file path to write to
+	 *
+	 * @return true if the file was written.
+	 */
+	public boolean js_excelExportXLSXToFile(IFoundSet foundSet, String[] dataProviderIds, Object file) throws IOException
+	{
+		return js_excelExportXLSXToFile(foundSet, dataProviderIds, file, null, null, null, Integer.valueOf(1), Integer.valueOf(1));
+	}
+
+	/**
+	 * @clonedesc js_excelExportXLSXToFile(IFoundSet, String[], Object)
+	 * @sampleas js_excelExportXLSXToFile(IFoundSet, String[], Object)
+	 * @param foundSet the foundset on which to export
+	 * @param dataProviderIds the ids of the dataproviders
+	 * @param file the JSFile or file path to write to
+	 * @param templateXLSX the xlsx template to export in
+	 * @param sheetName the name of the worksheet
+	 * @param outputColumnNames is used to set the column headers independently from the dataprovider names
+	 * @param startRow row in the foundset at which to start the export
+	 * @param startColumn column in the foundset at which to start the export
+	 *
+	 * @return true if the file was written.
+	 */
+	public boolean js_excelExportXLSXToFile(IFoundSet foundSet, String[] dataProviderIds, Object file, byte[] templateXLSX, String sheetName,
+		String[] outputColumnNames, Number startRow, Number startColumn) throws IOException
+	{
+		File f = null;
+		if (file instanceof JSFile)
+		{
+			f = ((JSFile)file).getFile();
+		}
+		else if (file instanceof File)
+		{
+			f = (File)file;
+		}
+		else if (file instanceof String)
+		{
+			f = new File((String)file);
+		}
+		if (f == null || foundSet == null || dataProviderIds == null || dataProviderIds.length == 0) return false;
+
+		try (OutputStream out = new BufferedOutputStream(new FileOutputStream(f)))
+		{
+			exportXLSX(foundSet, dataProviderIds, templateXLSX, sheetName, outputColumnNames, startRow, startColumn, out);
+		}
+		return true;
+	}
+
+	private void exportXLSX(IFoundSet foundSet, String[] dataProviderIds, byte[] templateXLSX, String sheetName, String[] outputColumnNames,
+		Number startRow, Number startColumn, OutputStream out) throws IOException
+	{
+		int _startRow = (startRow == null ? 1 : startRow.intValue());
+		int _startColumn = (startColumn == null ? 1 : startColumn.intValue());
+		XlsxExporter.export(foundSet, dataProviderIds, templateXLSX, outputColumnNames, sheetName, _startRow - 1, _startColumn - 1, xlsxRowWindow, out);
+	}
 }
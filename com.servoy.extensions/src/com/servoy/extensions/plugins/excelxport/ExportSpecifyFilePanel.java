@@ -38,11 +38,13 @@ import javax.swing.JPanel;
 import javax.swing.SwingConstants;
 import javax.swing.border.TitledBorder;
 
-import org.apache.poi.hssf.usermodel.HSSFCell;
-import org.apache.poi.hssf.usermodel.HSSFCellStyle;
-import org.apache.poi.hssf.usermodel.HSSFRow;
 import org.apache.poi.hssf.usermodel.HSSFSheet;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
 
 import com.servoy.extensions.plugins.excelxport.ExportSpecifyDestinationPanel.DataProviderWithLabel;
 import com.servoy.j2db.IApplication;
@@ -173,7 +175,8 @@ public class ExportSpecifyFilePanel extends JPanel implements ActionListener, IW
 					}
 					IFoundSet data = (IFoundSet)state.getProperty("foundset"); //$NON-NLS-1$
 					wb = populateWb(data, dataProviders, null, null, null, 0, 0);
-					rows = data.getSize();
+					// the header is the first row
+					rows = wb.getSheetAt(wb.getActiveSheetIndex()).getLastRowNum();
 				}
 				catch (Exception ex)
 				{
@@ -206,32 +209,46 @@ public class ExportSpecifyFilePanel extends JPanel implements ActionListener, IW
 		if (sheet == null) sheet = hwb.createSheet(sheetName);
 		sheet.setActive(true);
 
+		populateSheet(hwb, sheet, foundSet, dataProviders, outputColumnNames, startRow, startColumn);
+		return hwb;
+	}
+
+	/**
+	 * Writes the header and the records of the foundset in the sheet, shared by the xls and the (streaming) xlsx export.
+	 * The records are read in chunks with a {@link FoundSetExportIterator}.
+	 *
+	 * @return the number of records written
+	 */
+	static int populateSheet(Workbook wb, Sheet sheet, IFoundSet foundSet, String[] dataProviders, String[] outputColumnNames, int startRow,
+		int startColumn)
+	{
 		if (outputColumnNames != null && outputColumnNames.length != dataProviders.length)
 		{
 			throw new RuntimeException("The arrays 'output column names' and 'data provider ids' must have the same length."); //$NON-NLS-1$
 		}
 		String[] columnNames = outputColumnNames != null ? outputColumnNames : dataProviders;
-		HSSFRow header = sheet.createRow(startRow);
+		Row header = sheet.createRow(startRow);
 		for (int k = 0; k < columnNames.length; k++)
 		{
-			HSSFCell cell = header.createCell(k + startColumn);
+			Cell cell = header.createCell(k + startColumn);
 			cell.setCellValue(columnNames[k]);
 		}
-		HSSFCellStyle[] cellStyles = new HSSFCellStyle[dataProviders.length];
-		for (int i = 0; i < foundSet.getSize(); i++)
+		CellStyle[] cellStyles = new CellStyle[dataProviders.length];
+		int i = 0;
+		for (FoundSetExportIterator it = new FoundSetExportIterator(foundSet); it.hasNext(); i++)
 		{
-			HSSFRow row = sheet.createRow(i + 1 + startRow);
-			IRecord s = foundSet.getRecord(i);
+			Row row = sheet.createRow(i + 1 + startRow);
+			IRecord s = it.next();
 			for (int k = 0; k < dataProviders.length; k++)
 			{
-				HSSFCell cell = row.createCell(k + startColumn);
+				Cell cell = row.createCell(k + startColumn);
 
 				Object obj = s.getValue(dataProviders[k]);
 				if (obj instanceof Date)
 				{
 					if (cellStyles[k] == null)
 					{
-						HSSFCellStyle cellStyle = hwb.createCellStyle();
+						CellStyle cellStyle = wb.createCellStyle();
 						cellStyle.setDataFormat((short)16);
 						cellStyles[k] = cellStyle;
 					}
@@ -252,7 +269,6 @@ public class ExportSpecifyFilePanel extends JPanel implements ActionListener, IW
 				}
 			}
 		}
-
-		return hwb;
+		return i;
 	}
 }
@@ -0,0 +1,115 @@
+/*
+ This file belongs to the Servoy development and deployment environment, Copyright (C) 1997-2026 Servoy BV
+
+ This program is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Affero General Public License as published by the Free
+ Software Foundation; either version 3 of the License, or (at your option) any
+ later version.
+
+ This program is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more details.
+
+ You should have received a copy of the GNU Affero General Public License along
+ with this program; if not, see http://www.gnu.org/licenses or write to the Free
+ Software Foundation,Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301
+ */
+package com.servoy.extensions.plugins.excelxport;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.servoy.j2db.dataprocessing.FoundSet;
+import com.servoy.j2db.dataprocessing.IDataServer;
+import com.servoy.j2db.dataprocessing.IDataSet;
+import com.servoy.j2db.dataprocessing.IFoundSet;
+import com.servoy.j2db.dataprocessing.IFoundSetManagerInternal;
+import com.servoy.j2db.dataprocessing.IRecord;
+import com.servoy.j2db.query.AbstractBaseQuery;
+import com.servoy.j2db.query.QuerySelect;
+
+/**
+ * Iterates the records of a foundset for an export in chunks of {@value #CHUNK_SIZE} records.
+ * <p>
+ * The pks of a chunk are read with the query of the foundset (so with its conditions and sort), one page of the query at a time.
+ * The records of the chunk are loaded in a separate foundset that is loaded again with the pks of the next chunk,
+ * so only the records of one chunk are kept in memory and the exported foundset itself doesn't load (and cache) all its records.
+ * A record returned by {@link #next()} is only valid until the next chunk is read.
+ * <p>
+ * A foundset that can't be queried (in find mode, with unsaved records or not a table foundset) is iterated record by record.
+ */
+class FoundSetExportIterator implements Iterator<IRecord>
+{
+	static final int CHUNK_SIZE = 1000;
+
+	private final IFoundSet foundSet;
+	// the pk query of the foundset, null when the foundset itself is iterated
+	private final QuerySelect pkSelect;
+
+	private FoundSet chunk;
+	private int chunkStart;
+	private int chunkLength;
+	private int position;
+	private boolean lastChunk;
+
+	FoundSetExportIterator(IFoundSet foundSet)
+	{
+		this.foundSet = foundSet;
+		QuerySelect select = null;
+		if (foundSet instanceof FoundSet && !foundSet.isInFindMode())
+		{
+			FoundSet fs = (FoundSet)foundSet;
+			if (fs.getTable() != null && !fs.getFoundSetManager().getEditRecordList().hasEditedRecords(fs))
+			{
+				select = AbstractBaseQuery.deepClone(fs.getQuerySelectForReading());
+			}
+		}
+		this.pkSelect = select;
+	}
+
+	@Override
+	public boolean hasNext()
+	{
+		if (pkSelect == null) return position < foundSet.getSize();
+		if (position < chunkLength) return true;
+		return !lastChunk && readChunk();
+	}
+
+	@Override
+	public IRecord next()
+	{
+		if (!hasNext()) throw new NoSuchElementException();
+		if (pkSelect == null) return foundSet.getRecord(position++);
+		return chunk.getRecord(position++);
+	}
+
+	private boolean readChunk()
+	{
+		chunkStart += chunkLength;
+		chunkLength = 0;
+		position = 0;
+		FoundSet fs = (FoundSet)foundSet;
+		IFoundSetManagerInternal fsm = fs.getFoundSetManager();
+		String serverName = fs.getTable().getServerName();
+		try
+		{
+			IDataSet pks = fsm.getDataServer().performQuery(fsm.getApplication().getClientID(), serverName, fsm.getTransactionID(serverName), pkSelect,
+				null, fsm.getTableFilterParams(serverName, pkSelect), !pkSelect.isUnique(), chunkStart, CHUNK_SIZE, IDataServer.FOUNDSET_LOAD_QUERY);
+			lastChunk = pks.getRowCount() < CHUNK_SIZE;
+			if (pks.getRowCount() == 0)
+			{
+				chunk = null;
+				return false;
+			}
+			// loading the pks of the next chunk releases the records of the previous one
+			if (chunk == null) chunk = (FoundSet)fsm.getNewFoundSet(fs.getTable(), null, fs.getSortColumns());
+			chunk.loadExternalPKList(pks);
+			chunkLength = pks.getRowCount();
+			return true;
+		}
+		catch (Exception e)
+		{
+			throw new RuntimeException("Can't read the records to export of " + fs.getDataSource(), e); //$NON-NLS-1$
+		}
+	}
+}
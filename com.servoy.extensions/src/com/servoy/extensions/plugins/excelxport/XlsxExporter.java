@@ -0,0 +1,78 @@
+/*
+ This file belongs to the Servoy development and deployment environment, Copyright (C) 1997-2026 Servoy BV
+
+ This program is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Affero General Public License as published by the Free
+ Software Foundation; either version 3 of the License, or (at your option) any
+ later version.
+
+ This program is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more details.
+
+ You should have received a copy of the GNU Affero General Public License along
+ with this program; if not, see http://www.gnu.org/licenses or write to the Free
+ Software Foundation,Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301
+ */
+package com.servoy.extensions.plugins.excelxport;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import com.servoy.j2db.dataprocessing.IFoundSet;
+
+/**
+ * Streaming xlsx export, only a window of rows is kept in memory, the rows that fall out of the window are flushed to a (compressed) temp file.
+ * So the memory use does not grow with the size of the foundset and the 65536 rows limit of the xls format does not apply.
+ */
+class XlsxExporter
+{
+	static final int DEFAULT_ROW_WINDOW = 100;
+
+	private XlsxExporter()
+	{
+	}
+
+	/**
+	 * Exports the foundset to the output stream, the stream is not closed.
+	 *
+	 * @param rowWindow number of rows kept in memory
+	 */
+	static void export(IFoundSet foundSet, String[] dataProviders, byte[] templateXLSX, String[] outputColumnNames, String sheetName, int startRow,
+		int startColumn, int rowWindow, OutputStream out) throws IOException
+	{
+		XSSFWorkbook template = templateXLSX == null ? new XSSFWorkbook() : new XSSFWorkbook(new ByteArrayInputStream(templateXLSX));
+		if (sheetName == null) sheetName = "Servoy Data"; //$NON-NLS-1$
+
+		XSSFSheet templateSheet = template.getSheet(sheetName);
+		if (templateSheet != null && templateSheet.getPhysicalNumberOfRows() > 0 && startRow <= templateSheet.getLastRowNum())
+		{
+			// rows of the template are not streamed, they can't be (re)created by the streaming workbook
+			template.close();
+			throw new RuntimeException("The xlsx export into sheet '" + sheetName + "' must start below the last row of the template (" + //$NON-NLS-1$ //$NON-NLS-2$
+				(templateSheet.getLastRowNum() + 1) + ")."); //$NON-NLS-1$
+		}
+		if (templateSheet == null) template.createSheet(sheetName);
+
+		SXSSFWorkbook wb = new SXSSFWorkbook(template, rowWindow > 0 ? rowWindow : DEFAULT_ROW_WINDOW, true);
+		try
+		{
+			SXSSFSheet sheet = wb.getSheet(sheetName);
+			wb.setActiveSheet(wb.getSheetIndex(sheet));
+			ExportSpecifyFilePanel.populateSheet(wb, sheet, foundSet, dataProviders, outputColumnNames, startRow, startColumn);
+			wb.write(out);
+		}
+		finally
+		{
+			// removes the temp files
+			wb.dispose();
+			wb.close();
+		}
+	}
+}
@@ -21,10 +21,6 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 
-import com.servoy.j2db.util.Debug;
-import com.servoy.j2db.util.FileChooserUtils;
-import com.servoy.j2db.util.MimeTypes;
-
 /**
  * Defines the basic implementation of the {@link IAbstractFile} interface
  *
@@ -187,25 +183,16 @@ public abstract class AbstractFile implements IAbstractFile
 	}
 
 	/**
-	 * Returns the mime-type of a file, using byte reading and/or file extension recognition
+	 * Returns the mime-type of a file, using byte reading and/or file extension recognition.
+	 * The result is cached until the size or last modified time of the file changes.
 	 *
 	 * @param file the File to find the contentType of
 	 * @retun the mime-type or null if not recognized
 	 */
 	public static String getContentType(final File file)
 	{
-		if (file.exists() && file.canRead() && file.isFile() && file.length() > 0)
-		{
-			try
-			{
-				return MimeTypes.getContentType(FileChooserUtils.readFile(file, 32), file.getName());
-			}
-			catch (Exception e)
-			{
-				Debug.error("Error reading the file " + file.getName() + "for getting the content type", e); //$NON-NLS-1$ //$NON-NLS-2$
-			}
-		}
-		return null;
+		FileMetadataCache.FileMetadata metadata = FileMetadataCache.get(file);
+		return metadata == null ? null : metadata.contentType;
 	}
 
 	/*
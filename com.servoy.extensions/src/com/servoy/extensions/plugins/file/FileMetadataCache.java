@@ -0,0 +1,133 @@
+/*
+ This file belongs to the Servoy development and deployment environment, Copyright (C) 1997-2026 Servoy BV
+
+ This program is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Affero General Public License as published by the Free
+ Software Foundation; either version 3 of the License, or (at your option) any
+ later version.
+
+ This program is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more details.
+
+ You should have received a copy of the GNU Affero General Public License along
+ with this program; if not, see http://www.gnu.org/licenses or write to the Free
+ Software Foundation,Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301
+ */
+package com.servoy.extensions.plugins.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.servoy.j2db.util.Debug;
+import com.servoy.j2db.util.FileChooserUtils;
+import com.servoy.j2db.util.MimeTypes;
+
+/**
+ * Process wide cache of the sniffed content type, size and last modified time of files, keyed by path.
+ * <p>
+ * An entry is validated against the size and last modified time of the file (read with one attribute call),
+ * so the first bytes of a file are only read again when the file has changed.
+ */
+final class FileMetadataCache
+{
+	private static final int MAX_ENTRIES = 10000;
+
+	private static final Map<Path, FileMetadata> CACHE = new LinkedHashMap<Path, FileMetadata>(256, 0.75f, true)
+	{
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Path, FileMetadata> eldest)
+		{
+			return size() > MAX_ENTRIES;
+		}
+	};
+
+	private FileMetadataCache()
+	{
+	}
+
+	/**
+	 * @return the metadata of the file, null if it doesn't exist or isn't a regular file
+	 */
+	static FileMetadata get(File file)
+	{
+		Path path = file.toPath().toAbsolutePath();
+		BasicFileAttributes attributes;
+		try
+		{
+			attributes = Files.readAttributes(path, BasicFileAttributes.class);
+		}
+		catch (IOException e)
+		{
+			invalidate(path);
+			return null;
+		}
+		if (!attributes.isRegularFile())
+		{
+			invalidate(path);
+			return null;
+		}
+		long size = attributes.size();
+		long lastModified = attributes.lastModifiedTime().toMillis();
+		FileMetadata metadata;
+		synchronized (CACHE)
+		{
+			metadata = CACHE.get(path);
+		}
+		if (metadata != null && metadata.size == size && metadata.lastModified == lastModified) return metadata;
+
+		String contentType = null;
+		if (size > 0)
+		{
+			try
+			{
+				contentType = MimeTypes.getContentType(FileChooserUtils.readFile(file, 32), file.getName());
+			}
+			catch (Exception e)
+			{
+				Debug.error("Error reading the file " + file.getName() + "for getting the content type", e); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+		metadata = new FileMetadata(contentType, size, lastModified);
+		synchronized (CACHE)
+		{
+			CACHE.put(path, metadata);
+		}
+		return metadata;
+	}
+
+	static void invalidate(Path path)
+	{
+		synchronized (CACHE)
+		{
+			CACHE.remove(path);
+		}
+	}
+
+	static void clear()
+	{
+		synchronized (CACHE)
+		{
+			CACHE.clear();
+		}
+	}
+
+	static final class FileMetadata
+	{
+		final String contentType;
+		final long size;
+		final long lastModified;
+
+		FileMetadata(String contentType, long size, long lastModified)
+		{
+			this.contentType = contentType;
+			this.size = size;
+			this.lastModified = lastModified;
+		}
+	}
+}
@@ -21,7 +21,6 @@ import java.awt.Window;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileFilter;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
@@ -34,6 +33,8 @@ import java.net.URI;
 import java.net.URL;
 import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
@@ -43,6 +44,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.Timer;
 import java.util.UUID;
+import java.util.function.BiPredicate;
 
 import javax.swing.JFileChooser;
 import javax.swing.JOptionPane;
@@ -689,14 +691,31 @@ public class FileProvider implements IReturnedTypesProvider, IScriptable
 
 	private JSFile[] getFolderContents(Object targetFolder, Object fileFilter, final Number fileOption, final Number visibleOption, final Number lockedOption)
 	{
-		final int _fileOption = getNumberAsInt(fileOption, AbstractFile.ALL);
-		final int _visibleOption = getNumberAsInt(visibleOption, AbstractFile.ALL);
-		final int _lockedOption = getNumberAsInt(lockedOption, AbstractFile.ALL);
-
 		if (targetFolder == null) return EMPTY;
 
-		final String[] fileFilterOptions;
+		File file = convertToFile(targetFolder);
+		if (!file.isDirectory()) return EMPTY;
+		try
+		{
+			List<Path> paths = FolderOperations.list(file.toPath(), createFolderFilter(fileFilter, fileOption, visibleOption, lockedOption));
+			JSFile[] jsFiles = new JSFile[paths.size()];
+			for (int i = 0; i < jsFiles.length; i++)
+			{
+				jsFiles[i] = new JSFile(paths.get(i).toFile(), plugin.getClientPluginAccess());
+			}
+			return jsFiles;
+		}
+		catch (IOException e)
+		{
+			Debug.error(e);
+			return EMPTY;
+		}
+	}
 
+	private BiPredicate<Path, BasicFileAttributes> createFolderFilter(Object fileFilter, final Number fileOption, final Number visibleOption,
+		final Number lockedOption)
+	{
+		final String[] fileFilterOptions;
 		if (fileFilter != null)
 		{
 			if (fileFilter.getClass().isArray())
@@ -705,60 +724,104 @@ public class FileProvider implements IReturnedTypesProvider, IScriptable
 				fileFilterOptions = new String[tmp.length];
 				for (int i = 0; i < tmp.length; i++)
 				{
-					fileFilterOptions[i] = ((String)tmp[i]).toLowerCase();
+					fileFilterOptions[i] = (String)tmp[i];
 				}
 			}
 			else
 			{
-				fileFilterOptions = new String[] { ((String)fileFilter).toLowerCase() };
+				fileFilterOptions = new String[] { (String)fileFilter };
 			}
 		}
 		else
 		{
 			fileFilterOptions = null;
 		}
+		return FolderOperations.createFilter(fileFilterOptions, getNumberAsInt(fileOption, AbstractFile.ALL), getNumberAsInt(visibleOption, AbstractFile.ALL),
+			getNumberAsInt(lockedOption, AbstractFile.ALL));
+	}
 
-		File file = convertToFile(targetFolder);
-
-		FileFilter ff = new FileFilter()
+	/**
+	 * Returns an iterator over the contents of the specified folder, the contents are read while iterating so this can be used for folders with a lot of files.
+	 * The content can be filtered by name filter(s), by type, by visibility and by lock status, the filters are applied while walking the folder.
+	 * A name filter is a name ending (like '.txt') or a glob pattern (like 'report_*.pdf').
+	 *
+	 * @sample
+	 * // iterate over all the pdf files in the folder and its sub folders, 100 at a time
+	 * var it = plugins.file.getFolderIterator('/documents', '*.pdf', true, 1, 1, 0);
+	 * var page = it.nextPage(100);
+	 * while (page.length > 0)
+	 * {
+	 * 	for (var i = 0; i < page.length; i++)
+	 * 		application.output(page[i].getAbsolutePath());
+	 * 	page = it.nextPage(100);
+	 * }
+	 *
+	 * @param targetFolder the folder, a JSFile or a path
+	 * @param fileFilter Filter or array of filters for files in folder.
+	 * @param recursive true to include the contents of all the sub folders
+	 * @param fileOption 1=files, 2=dirs
+	 * @param visibleOption 1=visible, 2=nonvisible
+	 * @param lockedOption 1=locked, 2=nonlocked
+	 *
+	 * @return an iterator over the files, or null if the folder doesn't exist
+	 */
+	public JSFolderIterator js_getFolderIterator(Object targetFolder, Object fileFilter, boolean recursive, final Number fileOption, final Number visibleOption,
+		final Number lockedOption)
+	{
+		File folder = convertToFile(targetFolder);
+		if (folder == null || !folder.isDirectory()) return null;
+		try
 		{
-			public boolean accept(File pathname)
-			{
-				boolean retVal = true;
-				if (fileFilterOptions != null)
-				{
-					String name = pathname.getName().toLowerCase();
-					for (String element : fileFilterOptions)
-					{
-						retVal = name.endsWith(element);
-						if (retVal) break;
-					}
-				}
-				if (!retVal) return retVal;
+			return new JSFolderIterator(folder.toPath(), recursive, createFolderFilter(fileFilter, fileOption, visibleOption, lockedOption),
+				plugin.getClientPluginAccess());
+		}
+		catch (IOException e)
+		{
+			Debug.error(e);
+			return null;
+		}
+	}
 
-				// file or folder
-				if (_fileOption == AbstractFile.FILES)
-				{
-					retVal = pathname.isFile();
-				}
-				else if (_fileOption == AbstractFile.FOLDERS)
-				{
-					retVal = pathname.isDirectory();
-				}
-				if (!retVal) return false;
+	/**
+	 * @clonedesc js_getFolderIterator(Object,Object,boolean,Number,Number,Number)
+	 * @sampleas js_getFolderIterator(Object,Object,boolean,Number,Number,Number)
+	 *
+	 * @param targetFolder the folder, a JSFile or a path
+	 * @param fileFilter Filter or array of filters for files in folder.
+	 * @param recursive true to include the contents of all the sub folders
+	 *
+	 * @return an iterator over the files, or null if the folder doesn't exist
+	 */
+	public JSFolderIterator js_getFolderIterator(Object targetFolder, Object fileFilter, boolean recursive)
+	{
+		return js_getFolderIterator(targetFolder, fileFilter, recursive, null, null, null);
+	}
 
-				boolean hidden = pathname.isHidden();
-				if (_visibleOption == AbstractFile.VISIBLE) retVal = !hidden;
-				else if (_visibleOption == AbstractFile.NON_VISIBLE) retVal = hidden;
-				if (!retVal) return false;
+	/**
+	 * @clonedesc js_getFolderIterator(Object,Object,boolean,Number,Number,Number)
+	 * @sampleas js_getFolderIterator(Object,Object,boolean,Number,Number,Number)
+	 *
+	 * @param targetFolder the folder, a JSFile or a path
+	 * @param fileFilter Filter or array of filters for files in folder.
+	 *
+	 * @return an iterator over the files, or null if the folder doesn't exist
+	 */
+	public JSFolderIterator js_getFolderIterator(Object targetFolder, Object fileFilter)
+	{
+		return js_getFolderIterator(targetFolder, fileFilter, false, null, null, null);
+	}
 
-				boolean canWrite = pathname.canWrite();
-				if (_lockedOption == AbstractFile.LOCKED) retVal = !canWrite;
-				else if (_lockedOption == AbstractFile.NON_LOCKED) retVal = canWrite;
-				return retVal;
-			}
-		};
-		return convertToJSFiles(file.listFiles(ff));
+	/**
+	 * @clonedesc js_getFolderIterator(Object,Object,boolean,Number,Number,Number)
+	 * @sampleas js_getFolderIterator(Object,Object,boolean,Number,Number,Number)
+	 *
+	 * @param targetFolder the folder, a JSFile or a path
+	 *
+	 * @return an iterator over the files, or null if the folder doesn't exist
+	 */
+	public JSFolderIterator js_getFolderIterator(Object targetFolder)
+	{
+		return js_getFolderIterator(targetFolder, null, false, null, null, null);
 	}
 
 	/**
@@ -1000,6 +1063,26 @@ public class FileProvider implements IReturnedTypesProvider, IScriptable
 	 * @return true if the folder was copied successfully; false otherwise.
 	 */
 	public boolean js_copyFolder(Object source, Object destination)
+	{
+		return js_copyFolder(source, destination, false);
+	}
+
+	/**
+	 * Copies the sourcefolder to the destination folder, recursively. Returns true if the copy succeeds, false if any error occurs.
+	 * When parallel is true the sub folders are copied at the same time by multiple threads, this is faster for large folder trees
+	 * (especially on network or solid state storage).
+	 *
+	 * @sample
+	 * if (!plugins.file.copyFolder("documents", "documents_backup", true))
+	 * 	application.output("Folder copy failed.");
+	 *
+	 * @param source
+	 * @param destination
+	 * @param parallel true to copy the sub folders in parallel
+	 *
+	 * @return true if the folder was copied successfully; false otherwise.
+	 */
+	public boolean js_copyFolder(Object source, Object destination, boolean parallel)
 	{
 		File sourceDir = convertToFile(source);
 		File destDir = convertToFile(destination);
@@ -1025,29 +1108,7 @@ public class FileProvider implements IReturnedTypesProvider, IScriptable
 			return false;
 		}
 
-		boolean succes = true;
-		File[] files = sourceDir.listFiles();
-		if (files != null && files.length > 0)
-		{
-			for (File file : files)
-			{
-				File dest = new File(destDir, file.getName());
-				if (file.isDirectory())
-				{
-					if (!file.equals(destDir))
-					{
-						succes = (js_copyFolder(file, dest) && succes);
-						if (!succes) return false;
-					}
-				}
-				else
-				{
-					succes = (js_copyFile(file, dest) && succes);
-					if (!succes) return false;
-				}
-			}
-		}
-		return succes;
+		return FolderOperations.copyFolder(sourceDir.getAbsoluteFile().toPath(), destDir.getAbsoluteFile().toPath(), parallel);
 	}
 
 	/**
@@ -1217,6 +1278,25 @@ public class FileProvider implements IReturnedTypesProvider, IScriptable
 	 * @return true if the file was successfully deleted; false otherwise.
 	 */
 	public boolean js_deleteFolder(Object destination, boolean showWarning)
+	{
+		return js_deleteFolder(destination, showWarning, false);
+	}
+
+	/**
+	 * Deletes a folder from disk recursively. Returns true on success, false otherwise. If the second parameter is set to true, then a warning will be issued to the user before actually removing the folder.
+	 * When parallel is true the sub folders are deleted at the same time by multiple threads, this is faster for large folder trees.
+	 *
+	 * @sample
+	 * if (plugins.file.deleteFolder('documents_backup', false, true))
+	 * 	application.output('Folder deleted.');
+	 *
+	 * @param destination
+	 * @param showWarning
+	 * @param parallel true to delete the sub folders in parallel
+	 *
+	 * @return true if the file was successfully deleted; false otherwise.
+	 */
+	public boolean js_deleteFolder(Object destination, boolean showWarning, boolean parallel)
 	{
 		File destFile = convertToFile(destination);
 		if (destFile == null) return false;
@@ -1234,11 +1314,7 @@ public class FileProvider implements IReturnedTypesProvider, IScriptable
 					Messages.getString("servoy.plugin.file.folderDelete.title"), JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE); //$NON-NLS-1$
 				if (option != JOptionPane.YES_OPTION) return false;
 			}
-			File[] files = destFile.listFiles();
-			for (File element : files)
-			{
-				js_deleteFolder(element, false);
-			}
+			return FolderOperations.deleteFolder(destFile.toPath(), parallel);
 		}
 		return destFile.delete();
 	}
@@ -2347,7 +2423,7 @@ public class FileProvider implements IReturnedTypesProvider, IScriptable
 
 	public Class< ? >[] getAllReturnedTypes()
 	{
-		return new Class[] { JSFile.class, JSProgressMonitor.class };
+		return new Class[] { JSFile.class, JSProgressMonitor.class, JSFolderIterator.class };
 	}
 
 
@@ -2828,6 +2904,33 @@ public class FileProvider implements IReturnedTypesProvider, IScriptable
 	@Deprecated
 	public JSProgressMonitor js_streamFilesToServer(final Object files, final Object serverFiles, final Function callback)
 	{
+		return js_streamFilesToServer(files, serverFiles, callback, 1, null, false);
+	}
+
+	/**
+	 * Overloaded method, defines file(s) to be streamed, a callback function, file name(s) to use on the server and the transfer options.
+	 * With more than 1 parallel stream the files are transferred at the same time, each file by one stream.
+	 * When a checksum algorithm is given (CRC32C or a digest like SHA-256) the checksum of every file is calculated while transferring and verified
+	 * against the written file, the checksum can be retrieved from the progress monitor.
+	 * When resume is true a canceled or failed transfer leaves a .part file, a next transfer of the same (unchanged) file continues where that one stopped.
+	 *
+	 * @sample
+	 * // transfer with 4 parallel streams, verified with a CRC32C checksum and resumable
+	 * var monitor = plugins.file.streamFilesToServer(files, serverFiles, callbackFunction, 4, 'CRC32C', true);
+	 *
+	 * @param files file(s) to be streamed (can be a String path or a {@link JSFile}) or an Array of these)
+	 * @param serverFiles can be a JSFile or JSFile[], a String or String[], representing the file name(s) to use on the server
+	 * @param callback the {@link Function} to be called back at the end of the process (for every file); the callback function is invoked with argument the filename that was transfered; an extra second exception parameter can be given if an exception occured
+	 * @param parallelStreams the number of files that are transferred at the same time (default 1)
+	 * @param checksumAlgorithm the checksum algorithm (CRC32C, MD5, SHA-256, ...) or null for no checksum
+	 * @param resume true to keep and continue partial transfers
+	 * @return a {@link JSProgressMonitor} object to allow client to subscribe to progress notifications
+	 */
+	@Deprecated
+	public JSProgressMonitor js_streamFilesToServer(final Object files, final Object serverFiles, final Function callback, final int parallelStreams,
+		final String checksumAlgorithm, final boolean resume)
+	{
+		if (checksumAlgorithm != null) FileTransfer.checkAlgorithm(checksumAlgorithm);
 		if (files != null)
 		{
 			final Object[] fileObjects = unwrap(files);
@@ -2861,7 +2964,7 @@ public class FileProvider implements IReturnedTypesProvider, IScriptable
 				try
 				{
 					plugin.getClientPluginAccess().getExecutor().execute(
-						new ToServerWorker(filesToBeStreamed, serverObjects, function, progressMonitor));
+						new ToServerWorker(filesToBeStreamed, serverObjects, function, progressMonitor, parallelStreams, checksumAlgorithm, resume));
 
 					return progressMonitor;
 				}
@@ -2926,9 +3029,36 @@ public class FileProvider implements IReturnedTypesProvider, IScriptable
 	 * @return a {@link JSProgressMonitor} object to allow client to subscribe to progress notifications
 	 */
 	@Deprecated
-	@SuppressWarnings("nls")
 	public JSProgressMonitor js_streamFilesFromServer(final Object files, final Object serverFiles, final Function callback)
 	{
+		return js_streamFilesFromServer(files, serverFiles, callback, 1, null, false);
+	}
+
+	/**
+	 * Stream 1 or more files from the server to the client with the given transfer options, the callback method is invoked after every file.
+	 * With more than 1 parallel stream the files are transferred at the same time, each file by one stream.
+	 * When a checksum algorithm is given (CRC32C or a digest like SHA-256) the checksum of every file is calculated while transferring and verified
+	 * against the written file, the checksum can be retrieved from the progress monitor.
+	 * When resume is true a canceled or failed transfer leaves a .part file, a next transfer of the same (unchanged) file continues where that one stopped.
+	 *
+	 * @sample
+	 * // transfer with 4 parallel streams, verified with a SHA-256 checksum and resumable
+	 * var monitor = plugins.file.streamFilesFromServer(files, serverFiles, callbackFunction, 4, 'SHA-256', true);
+	 *
+	 * @param files file(s) to be streamed into (can be a String path or a {@link JSFile}) or an Array of these
+	 * @param serverFiles the files on the server that will be transfered to the client, can be a JSFile or JSFile[], a String or String[]
+	 * @param callback the {@link Function} to be called back at the end of the process (for every file); the callback function is invoked with argument the filename that was transfered; an extra second exception parameter can be given if an exception occured
+	 * @param parallelStreams the number of files that are transferred at the same time (default 1)
+	 * @param checksumAlgorithm the checksum algorithm (CRC32C, MD5, SHA-256, ...) or null for no checksum
+	 * @param resume true to keep and continue partial transfers
+	 * @return a {@link JSProgressMonitor} object to allow client to subscribe to progress notifications
+	 */
+	@Deprecated
+	@SuppressWarnings("nls")
+	public JSProgressMonitor js_streamFilesFromServer(final Object files, final Object serverFiles, final Function callback, final int parallelStreams,
+		final String checksumAlgorithm, final boolean resume)
+	{
+		if (checksumAlgorithm != null) FileTransfer.checkAlgorithm(checksumAlgorithm);
 		if (files != null && serverFiles != null)
 		{
 			final Object[] fileObjects = unwrap(files);
@@ -3000,7 +3130,7 @@ public class FileProvider implements IReturnedTypesProvider, IScriptable
 					}
 					JSProgressMonitor progressMonitor = new JSProgressMonitor(this, totalBytes, remoteFiles.length);
 					plugin.getClientPluginAccess().getExecutor().execute(
-						new FromServerWorker(filesToBeStreamed, remoteFiles, function, progressMonitor));
+						new FromServerWorker(filesToBeStreamed, remoteFiles, function, progressMonitor, parallelStreams, checksumAlgorithm, resume));
 					return progressMonitor;
 				}
 				catch (Exception ex)
@@ -3325,6 +3455,9 @@ public class FileProvider implements IReturnedTypesProvider, IScriptable
 		private final RemoteFile[] remoteFiles;
 		private final FunctionDefinition function;
 		private final JSProgressMonitor progressMonitor;
+		private final int parallelStreams;
+		private final String checksumAlgorithm;
+		private final boolean resume;
 
 		/**
 		 * @param files
@@ -3333,106 +3466,27 @@ public class FileProvider implements IReturnedTypesProvider, IScriptable
 		 * @param progressMonitor
 		 * @param service
 		 */
-		public FromServerWorker(final File[] files, RemoteFile[] remoteFiles, final FunctionDefinition function, final JSProgressMonitor progressMonitor)
+		public FromServerWorker(final File[] files, RemoteFile[] remoteFiles, final FunctionDefinition function, final JSProgressMonitor progressMonitor,
+			int parallelStreams, String checksumAlgorithm, boolean resume)
 		{
 			this.files = files;
 			this.remoteFiles = remoteFiles;
 			this.function = function;
 			this.progressMonitor = progressMonitor;
+			this.parallelStreams = parallelStreams;
+			this.checksumAlgorithm = checksumAlgorithm;
+			this.resume = resume;
 		}
 
 		public void run()
 		{
-			try
-			{
-				long totalTransfered = 0L;
-				for (int i = 0; i < files.length; i++)
-				{
-					OutputStream os = null;
-					InputStream is = null;
-					Exception ex = null;
-					File file = files[i];
-					if (file != null)
-					{
-						RemoteFile remote = remoteFiles[i];
-						try
-						{
-							if (file.exists() || file.createNewFile())
-							{
-								long currentTransferred = 0L;
-								progressMonitor.setCurrentFileName(remote.getAbsolutePath());
-								progressMonitor.setCurrentBytes(remote.size());
-								progressMonitor.setCurrentFileIndex(i + 1);
-								progressMonitor.setCurrentTransferred(0L);
-
-								os = new FileOutputStream(file);
-								is = remote.getInputStream();
-								if (is != null)
-								{
-									byte[] buffer = new byte[CHUNK_BUFFER_SIZE];
-									int read;
-									while (((read = is.read(buffer)) != -1) && !progressMonitor.js_isCanceled())
-									{
-										os.write(buffer);
-										totalTransfered += read;
-										currentTransferred += read;
-										progressMonitor.setTotalTransferred(totalTransfered);
-										progressMonitor.setCurrentTransferred(currentTransferred);
-										if (progressMonitor.getDelay() > 0)
-										{
-											Thread.sleep(progressMonitor.getDelay()); // to test the process
-										}
-									}
-								}
-							}
-						}
-						catch (final Exception e)
-						{
-							Debug.error(e);
-							ex = e;
-						}
-						finally
-						{
-							if (is != null)
-							{
-								try
-								{
-									is.close();
-								}
-								catch (final IOException e)
-								{
-								}
-							}
-							try
-							{
-								if (os != null) os.close();
-							}
-							catch (final IOException ignore)
-							{
-							}
-							if (function != null && !progressMonitor.js_isCanceled())
-							{
-								function.executeAsync(plugin.getClientPluginAccess(), new Object[] { new JSFile(file, plugin.getClientPluginAccess()), ex });
-							}
-							if (progressMonitor.js_isCanceled())
-							{
-								file.delete();
-								progressMonitor.run();
-								break;
-							}
-						}
-					}
-				}
-			}
-			finally
+			File[] sources = new File[files.length];
+			for (int i = 0; i < files.length; i++)
 			{
-				if (!progressMonitor.js_isCanceled())
-				{
-					progressMonitor.setFinished(true);
-					progressMonitor.run();
-				}
-				progressMonitor.cancel(); // stops the TimerTask
+				if (files[i] != null && i < remoteFiles.length && remoteFiles[i] != null) sources[i] = remoteFiles[i].getFile();
 			}
+			new FileTransfer(sources, files, i -> new JSFile(files[i], plugin.getClientPluginAccess()), function, progressMonitor,
+				plugin.getClientPluginAccess(), parallelStreams, checksumAlgorithm, resume).run();
 		}
 	}
 
@@ -3443,6 +3497,9 @@ public class FileProvider implements IReturnedTypesProvider, IScriptable
 		private final Object[] serverFiles;
 		private final FunctionDefinition function;
 		private final JSProgressMonitor progressMonitor;
+		private final int parallelStreams;
+		private final String checksumAlgorithm;
+		private final boolean resume;
 
 		/**
 		 * @param files
@@ -3451,139 +3508,68 @@ public class FileProvider implements IReturnedTypesProvider, IScriptable
 		 * @param progressMonitor
 		 * @param service
 		 */
-		public ToServerWorker(final File[] files, final Object[] serverFiles, final FunctionDefinition function, final JSProgressMonitor progressMonitor)
+		public ToServerWorker(final File[] files, final Object[] serverFiles, final FunctionDefinition function, final JSProgressMonitor progressMonitor,
+			int parallelStreams, String checksumAlgorithm, boolean resume)
 		{
 			this.files = files;
 			this.serverFiles = serverFiles;
 			this.function = function;
 			this.progressMonitor = progressMonitor;
+			this.parallelStreams = parallelStreams;
+			this.checksumAlgorithm = checksumAlgorithm;
+			this.resume = resume;
 		}
 
 		public void run()
 		{
+			File mainFolder = null;
 			try
 			{
-				long totalTransfered = 0L;
-				for (int i = 0; i < files.length; i++)
+				mainFolder = getDefaultFolder(plugin.getClientPluginAccess().getClientID());
+			}
+			catch (Exception e)
+			{
+				Debug.error(e);
+			}
+			final File folder = mainFolder;
+			File[] remoteFiles = new File[files.length];
+			for (int i = 0; i < files.length; i++)
+			{
+				final File file = files[i];
+				if (file != null)
 				{
-					final File file = files[i];
-					if (file != null)
+					// the serverName can be derived from an Array of String, at the same index as the file
+					String serverFileName = null;
+					if (serverFiles != null && i < serverFiles.length)
 					{
-						// the serverName can be derived from an Array of String, at the same index as the file
-						String serverFileName = null;
-						if (serverFiles != null && i < serverFiles.length)
+						if (serverFiles[i] instanceof JSFile)
 						{
-							if (serverFiles[i] instanceof JSFile)
+							JSFile jsFile = (JSFile)serverFiles[i];
+							IAbstractFile abstractFile = jsFile.getAbstractFile();
+							if (abstractFile instanceof RemoteFile)
 							{
-								JSFile jsFile = (JSFile)serverFiles[i];
-								IAbstractFile abstractFile = jsFile.getAbstractFile();
-								if (abstractFile instanceof RemoteFile)
-								{
-									serverFileName = ((RemoteFile)abstractFile).getAbsolutePath();
-								}
-								else
-								{
-									serverFileName = abstractFile.getName();
-								}
+								serverFileName = ((RemoteFile)abstractFile).getAbsolutePath();
 							}
 							else
 							{
-								serverFileName = serverFiles[i].toString();
+								serverFileName = abstractFile.getName();
 							}
 						}
 						else
 						{
-							serverFileName = "/" + file.getName(); //$NON-NLS-1$
-						}
-
-						long currentTransferred = 0L;
-						progressMonitor.setCurrentFileName(file.getAbsolutePath());
-						progressMonitor.setCurrentBytes(file.length());
-						progressMonitor.setCurrentFileIndex(i + 1);
-						progressMonitor.setCurrentTransferred(0L);
-
-						final String clientId = plugin.getClientPluginAccess().getClientID();
-						File mainFolder = null;
-						try
-						{
-							mainFolder = getDefaultFolder(plugin.getClientPluginAccess().getClientID());
-						}
-						catch (Exception e)
-						{
-							Debug.error(e);
-						}
-						File remoteFile = new File(mainFolder, serverFileName);
-						InputStream is = null;
-						OutputStream os = null;
-						Exception ex = null;
-						try
-						{
-							is = new FileInputStream(file);
-							os = new FileOutputStream(remoteFile);
-							byte[] buffer = new byte[CHUNK_BUFFER_SIZE];
-							int read = is.read(buffer);
-							while (read > -1 && !progressMonitor.js_isCanceled())
-							{
-								os.write(buffer);
-								totalTransfered += read;
-								currentTransferred += read;
-								progressMonitor.setTotalTransferred(totalTransfered);
-								progressMonitor.setCurrentTransferred(currentTransferred);
-
-								if (progressMonitor.getDelay() > 0)
-								{
-									Thread.sleep(progressMonitor.getDelay()); // to test the process
-								}
-
-								read = is.read(buffer);
-							}
-						}
-						catch (final Exception e)
-						{
-							Debug.error(e);
-							ex = e;
-						}
-						finally
-						{
-							try
-							{
-								if (os != null) os.close();
-							}
-							catch (final IOException ignore)
-							{
-							}
-							try
-							{
-								if (is != null) is.close();
-							}
-							catch (final IOException ignore)
-							{
-							}
-							if (function != null && !progressMonitor.js_isCanceled())
-							{
-								final JSFile returnedFile = (remoteFile == null) ? null
-									: new JSFile(new RemoteFile(remoteFile, mainFolder, plugin.getClientPluginAccess()), plugin.getClientPluginAccess());
-								function.executeAsync(plugin.getClientPluginAccess(), new Object[] { returnedFile, ex });
-							}
-							if (progressMonitor.js_isCanceled())
-							{
-								remoteFile.delete();
-								progressMonitor.run();
-								break;
-							}
+							serverFileName = serverFiles[i].toString();
 						}
 					}
+					else
+					{
+						serverFileName = "/" + file.getName(); //$NON-NLS-1$
+					}
+					remoteFiles[i] = new File(folder, serverFileName);
 				}
 			}
-			finally
-			{
-				if (!progressMonitor.js_isCanceled())
-				{
-					progressMonitor.setFinished(true);
-					progressMonitor.run();
-				}
-				progressMonitor.cancel(); // stops the TimerTask
-			}
+			new FileTransfer(files, remoteFiles,
+				i -> new JSFile(new RemoteFile(remoteFiles[i], folder, plugin.getClientPluginAccess()), plugin.getClientPluginAccess()), function,
+				progressMonitor, plugin.getClientPluginAccess(), parallelStreams, checksumAlgorithm, resume).run();
 		}
 	}
 
@@ -158,6 +158,7 @@ public class FileServerPlugin implements IServerPlugin, IFileService
 	 */
 	public void unload() throws PluginException
 	{
+		FileMetadataCache.clear();
 		defaultFolder = null;
 	}
 
@@ -69,15 +69,17 @@ public class FileServlet extends HttpServlet
 			{
 				file = new File(fileServerPlugin.getDefaultFolder(app.getServerLocalClientID()), filePath);
 			}
-			if (file != null && file.exists() && file.isFile())
+			// one attribute read for the existence, size and (cached) content type check
+			FileMetadataCache.FileMetadata metadata = file != null ? FileMetadataCache.get(file) : null;
+			if (metadata != null)
 			{
-				String contentType = AbstractFile.getContentType(file);
+				String contentType = metadata.contentType;
 				if (contentType == null)
 				{
 					contentType = req.getServletContext().getMimeType(file.getName());
 				}
 				if (contentType != null) resp.setContentType(contentType);
-				resp.setContentLengthLong(file.length());
+				resp.setContentLengthLong(metadata.size);
 				String contentDisposition = req.getParameter("c");
 				if (contentDisposition != null)
 				{
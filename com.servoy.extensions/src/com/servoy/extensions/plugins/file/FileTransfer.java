@@ -0,0 +1,334 @@
+/*
+ This file belongs to the Servoy development and deployment environment, Copyright (C) 1997-2026 Servoy BV
+
+ This program is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Affero General Public License as published by the Free
+ Software Foundation; either version 3 of the License, or (at your option) any
+ later version.
+
+ This program is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more details.
+
+ You should have received a copy of the GNU Affero General Public License along
+ with this program; if not, see http://www.gnu.org/licenses or write to the Free
+ Software Foundation,Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301
+ */
+package com.servoy.extensions.plugins.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+import java.util.zip.CRC32C;
+import java.util.zip.Checksum;
+
+import com.servoy.j2db.plugins.IClientPluginAccess;
+import com.servoy.j2db.scripting.FunctionDefinition;
+import com.servoy.j2db.util.Debug;
+
+/**
+ * Transfers a set of files with one or more parallel streams, used by the streamFilesToServer and streamFilesFromServer workers.
+ * <p>
+ * When a checksum algorithm is set, the checksum of the source is calculated while copying and compared with the checksum of the written file at the end.
+ * When resume is set, the data is written to a <code>.part</code> file next to the target that is kept when the transfer is canceled or fails,
+ * a next transfer of the same file continues at the end of that part file. The size and modification time of the source are kept in a
+ * <code>.part.source</code> file next to it, a part of a source that changed since is not resumed but written again.
+ * With a checksum or resume the target is only replaced when the transfer is complete.
+ */
+class FileTransfer implements Runnable
+{
+	static final String CHECKSUM_CRC32C = "CRC32C"; //$NON-NLS-1$
+	static final String PART_EXTENSION = ".part"; //$NON-NLS-1$
+	static final String PART_SOURCE_EXTENSION = ".part.source"; //$NON-NLS-1$
+
+	private static final int BUFFER_SIZE = 4 * FileProvider.CHUNK_BUFFER_SIZE;
+
+	private final File[] sources;
+	private final File[] targets;
+	private final IntFunction<JSFile> resultFile;
+	private final FunctionDefinition function;
+	private final JSProgressMonitor progressMonitor;
+	private final IClientPluginAccess access;
+	private final int parallelStreams;
+	private final String checksumAlgorithm;
+	private final boolean resume;
+
+	private final AtomicInteger nextFile = new AtomicInteger();
+	private final AtomicLong totalTransferred = new AtomicLong();
+
+	/**
+	 * @param resultFile creates the file that is given to the callback function for the file at the given index
+	 */
+	FileTransfer(File[] sources, File[] targets, IntFunction<JSFile> resultFile, FunctionDefinition function, JSProgressMonitor progressMonitor,
+		IClientPluginAccess access, int parallelStreams, String checksumAlgorithm, boolean resume)
+	{
+		this.sources = sources;
+		this.targets = targets;
+		this.resultFile = resultFile;
+		this.function = function;
+		this.progressMonitor = progressMonitor;
+		this.access = access;
+		this.parallelStreams = Math.max(1, Math.min(parallelStreams, sources.length));
+		this.checksumAlgorithm = checksumAlgorithm;
+		this.resume = resume;
+	}
+
+	static void checkAlgorithm(String checksumAlgorithm)
+	{
+		try
+		{
+			TransferChecksum.create(checksumAlgorithm);
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			throw new IllegalArgumentException("Unknown checksum algorithm " + checksumAlgorithm); //$NON-NLS-1$
+		}
+	}
+
+	public void run()
+	{
+		ExecutorService executor = null;
+		try
+		{
+			if (parallelStreams == 1)
+			{
+				transferFiles();
+			}
+			else
+			{
+				executor = Executors.newFixedThreadPool(parallelStreams - 1, r -> {
+					Thread thread = new Thread(r, "File transfer stream"); //$NON-NLS-1$
+					thread.setDaemon(true);
+					return thread;
+				});
+				List<Future< ? >> streams = new ArrayList<>();
+				for (int i = 1; i < parallelStreams; i++)
+				{
+					streams.add(executor.submit(this::transferFiles));
+				}
+				// this thread is one of the streams
+				transferFiles();
+				for (Future< ? > stream : streams)
+				{
+					stream.get();
+				}
+			}
+		}
+		catch (Exception e)
+		{
+			Debug.error(e);
+		}
+		finally
+		{
+			if (executor != null) executor.shutdownNow();
+			if (!progressMonitor.js_isCanceled())
+			{
+				progressMonitor.setFinished(true);
+				progressMonitor.run();
+			}
+			progressMonitor.cancel(); // stops the TimerTask
+		}
+	}
+
+	private void transferFiles()
+	{
+		int index;
+		while (!progressMonitor.js_isCanceled() && (index = nextFile.getAndIncrement()) < sources.length)
+		{
+			File source = sources[index];
+			File target = targets[index];
+			if (source == null || target == null) continue;
+
+			progressMonitor.setCurrentFileName(source.getAbsolutePath());
+			progressMonitor.setCurrentBytes(source.length());
+			progressMonitor.setCurrentFileIndex(index + 1);
+			progressMonitor.setCurrentTransferred(0L);
+
+			Exception ex = null;
+			try
+			{
+				String checksum = transfer(source, target);
+				progressMonitor.setChecksum(index, checksum);
+			}
+			catch (Exception e)
+			{
+				Debug.error(e);
+				ex = e;
+				// only a part that can be resumed is kept
+				if (!resume && checksumAlgorithm != null) new File(target.getPath() + PART_EXTENSION).delete();
+			}
+			if (function != null && !progressMonitor.js_isCanceled())
+			{
+				function.executeAsync(access, new Object[] { resultFile.apply(index), ex });
+			}
+			if (progressMonitor.js_isCanceled())
+			{
+				if (!resume)
+				{
+					// a replaced target is only removed when written directly
+					if (checksumAlgorithm == null) target.delete();
+					else new File(target.getPath() + PART_EXTENSION).delete();
+				}
+				progressMonitor.run();
+			}
+		}
+	}
+
+	/**
+	 * @return the checksum of the file, null when no checksum algorithm is set
+	 */
+	private String transfer(File source, File target) throws Exception
+	{
+		boolean usePart = resume || checksumAlgorithm != null;
+		File destination = usePart ? new File(target.getPath() + PART_EXTENSION) : target;
+		File partSource = new File(target.getPath() + PART_SOURCE_EXTENSION);
+		String sourceStamp = source.length() + ":" + source.lastModified(); //$NON-NLS-1$
+		long offset = 0;
+		if (resume)
+		{
+			if (destination.exists() && destination.length() <= source.length() && partSource.exists() &&
+				sourceStamp.equals(new String(Files.readAllBytes(partSource.toPath()), StandardCharsets.UTF_8)))
+			{
+				offset = destination.length();
+			}
+			else
+			{
+				// a new part, or the part of a source that changed since
+				Files.write(partSource.toPath(), sourceStamp.getBytes(StandardCharsets.UTF_8));
+			}
+		}
+
+		TransferChecksum checksum = TransferChecksum.create(checksumAlgorithm);
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		long currentTransferred = offset;
+		try (FileChannel in = FileChannel.open(source.toPath(), StandardOpenOption.READ);
+			FileChannel out = FileChannel.open(destination.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE))
+		{
+			out.truncate(offset);
+			if (checksum != null && offset > 0)
+			{
+				// the already transferred part is not copied again, but it is needed for the checksum
+				checksum.update(in, offset, buffer);
+			}
+			in.position(offset);
+			out.position(offset);
+			// the resumed part counts as transferred, but not in the transfer rate
+			progressMonitor.addResumedBytes(offset);
+			progressMonitor.setTotalTransferred(totalTransferred.addAndGet(offset));
+			progressMonitor.setCurrentTransferred(currentTransferred);
+
+			while (!progressMonitor.js_isCanceled() && in.read(buffer) != -1)
+			{
+				buffer.flip();
+				if (checksum != null) checksum.update(buffer.duplicate());
+				int read = buffer.remaining();
+				while (buffer.hasRemaining())
+				{
+					out.write(buffer);
+				}
+				buffer.clear();
+				currentTransferred += read;
+				progressMonitor.setTotalTransferred(totalTransferred.addAndGet(read));
+				progressMonitor.setCurrentTransferred(currentTransferred);
+				if (progressMonitor.getDelay() > 0)
+				{
+					Thread.sleep(progressMonitor.getDelay()); // to test the process
+				}
+			}
+		}
+		if (progressMonitor.js_isCanceled()) return null;
+
+		String value = null;
+		if (checksum != null)
+		{
+			value = checksum.getValue();
+			TransferChecksum written = TransferChecksum.create(checksumAlgorithm);
+			try (FileChannel in = FileChannel.open(destination.toPath(), StandardOpenOption.READ))
+			{
+				written.update(in, in.size(), buffer);
+			}
+			if (!value.equals(written.getValue()))
+			{
+				// the part can't be resumed, it is corrupt
+				destination.delete();
+				throw new IOException("Checksum mismatch after transferring " + source.getName() + " to " + target.getAbsolutePath()); //$NON-NLS-1$//$NON-NLS-2$
+			}
+		}
+		if (usePart)
+		{
+			Files.move(destination.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			if (resume) partSource.delete();
+		}
+		return value;
+	}
+
+	private static final class TransferChecksum
+	{
+		private final Checksum checksum;
+		private final MessageDigest digest;
+
+		private TransferChecksum(Checksum checksum, MessageDigest digest)
+		{
+			this.checksum = checksum;
+			this.digest = digest;
+		}
+
+		static TransferChecksum create(String algorithm) throws NoSuchAlgorithmException
+		{
+			if (algorithm == null) return null;
+			if (CHECKSUM_CRC32C.equalsIgnoreCase(algorithm)) return new TransferChecksum(new CRC32C(), null);
+			return new TransferChecksum(null, MessageDigest.getInstance(algorithm));
+		}
+
+		void update(ByteBuffer data)
+		{
+			if (checksum != null) checksum.update(data);
+			else digest.update(data);
+		}
+
+		/**
+		 * Reads the channel from its current position up to length bytes in the checksum.
+		 */
+		void update(FileChannel channel, long length, ByteBuffer buffer) throws IOException
+		{
+			long remaining = length;
+			buffer.clear();
+			while (remaining > 0)
+			{
+				if (remaining < buffer.capacity()) buffer.limit((int)remaining);
+				int read = channel.read(buffer);
+				if (read == -1) break;
+				buffer.flip();
+				update(buffer);
+				buffer.clear();
+				remaining -= read;
+			}
+		}
+
+		String getValue()
+		{
+			if (checksum != null) return Long.toHexString(checksum.getValue());
+			StringBuilder sb = new StringBuilder();
+			for (byte b : digest.digest())
+			{
+				sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			}
+			return sb.toString();
+		}
+	}
+}
@@ -0,0 +1,382 @@
+/*
+ This file belongs to the Servoy development and deployment environment, Copyright (C) 1997-2026 Servoy BV
+
+ This program is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Affero General Public License as published by the Free
+ Software Foundation; either version 3 of the License, or (at your option) any
+ later version.
+
+ This program is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more details.
+
+ You should have received a copy of the GNU Affero General Public License along
+ with this program; if not, see http://www.gnu.org/licenses or write to the Free
+ Software Foundation,Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301
+ */
+package com.servoy.extensions.plugins.file;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiPredicate;
+
+import com.servoy.j2db.util.Debug;
+
+/**
+ * Recursive folder operations (copy, delete, filtered listing) on top of nio, used by the {@link FileProvider}.
+ * <p>
+ * The sequential variants use {@link Files#walkFileTree}, the parallel variants fork a task per sub folder in a {@link ForkJoinPool}.
+ * Symbolic links are never followed, a link is copied or deleted as a link.
+ */
+class FolderOperations
+{
+	private static final int PARALLELISM = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+	private FolderOperations()
+	{
+	}
+
+	/**
+	 * Copies the source folder recursively into the destination folder, the destination itself is skipped when it is inside the source.
+	 *
+	 * @return true if everything was copied
+	 */
+	static boolean copyFolder(final Path source, final Path destination, boolean parallel)
+	{
+		if (parallel)
+		{
+			return invoke(new CopyTask(source, destination, destination));
+		}
+		try
+		{
+			Files.walkFileTree(source, new SimpleFileVisitor<Path>()
+			{
+				@Override
+				public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException
+				{
+					if (dir.equals(destination)) return FileVisitResult.SKIP_SUBTREE;
+					Files.createDirectories(destination.resolve(source.relativize(dir).toString()));
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException
+				{
+					copy(file, destination.resolve(source.relativize(file).toString()));
+					return FileVisitResult.CONTINUE;
+				}
+			});
+			return true;
+		}
+		catch (IOException e)
+		{
+			Debug.error(e);
+			return false;
+		}
+	}
+
+	/**
+	 * Deletes the folder with all its contents.
+	 *
+	 * @return true if everything was deleted
+	 */
+	static boolean deleteFolder(Path folder, boolean parallel)
+	{
+		if (parallel)
+		{
+			return invoke(new DeleteTask(folder));
+		}
+		try
+		{
+			Files.walkFileTree(folder, new SimpleFileVisitor<Path>()
+			{
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException
+				{
+					Files.delete(file);
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException
+				{
+					if (exc != null) throw exc;
+					Files.delete(dir);
+					return FileVisitResult.CONTINUE;
+				}
+			});
+			return true;
+		}
+		catch (IOException e)
+		{
+			Debug.error(e);
+			return false;
+		}
+	}
+
+	/**
+	 * Creates a filter that is tested on the attributes that are read anyway while walking, so that a file is only checked once.
+	 *
+	 * @param fileFilters lowercase name endings (like <code>.txt</code>) or glob patterns (like <code>report_*.pdf</code>), null for all names
+	 * @param fileOption {@link AbstractFile#FILES}, {@link AbstractFile#FOLDERS} or {@link AbstractFile#ALL}
+	 * @param visibleOption {@link AbstractFile#VISIBLE}, {@link AbstractFile#NON_VISIBLE} or {@link AbstractFile#ALL}
+	 * @param lockedOption {@link AbstractFile#LOCKED}, {@link AbstractFile#NON_LOCKED} or {@link AbstractFile#ALL}
+	 */
+	static BiPredicate<Path, BasicFileAttributes> createFilter(String[] fileFilters, final int fileOption, final int visibleOption, final int lockedOption)
+	{
+		final List<String> endings = new ArrayList<String>();
+		final List<PathMatcher> matchers = new ArrayList<PathMatcher>();
+		if (fileFilters != null)
+		{
+			for (String filter : fileFilters)
+			{
+				if (isGlob(filter)) matchers.add(FileSystems.getDefault().getPathMatcher("glob:" + filter)); //$NON-NLS-1$
+				else endings.add(filter.toLowerCase());
+			}
+		}
+		final boolean allNames = endings.isEmpty() && matchers.isEmpty();
+		return (path, attributes) -> {
+			Path fileName = path.getFileName();
+			if (fileName == null) return false;
+			if (!allNames && !matchesName(fileName, endings, matchers)) return false;
+
+			if (fileOption == AbstractFile.FILES && attributes.isDirectory()) return false;
+			if (fileOption == AbstractFile.FOLDERS && !attributes.isDirectory()) return false;
+
+			if (visibleOption != AbstractFile.ALL)
+			{
+				boolean hidden = isHidden(path);
+				if (visibleOption == AbstractFile.VISIBLE ? hidden : !hidden) return false;
+			}
+			if (lockedOption != AbstractFile.ALL)
+			{
+				boolean canWrite = Files.isWritable(path);
+				if (lockedOption == AbstractFile.LOCKED ? canWrite : !canWrite) return false;
+			}
+			return true;
+		};
+	}
+
+	/**
+	 * Lists the direct children of the folder that are accepted by the filter.
+	 */
+	static List<Path> list(Path folder, BiPredicate<Path, BasicFileAttributes> filter) throws IOException
+	{
+		List<Path> result = new ArrayList<Path>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(folder))
+		{
+			for (Path path : stream)
+			{
+				BasicFileAttributes attributes = readAttributes(path);
+				if (attributes != null && filter.test(path, attributes)) result.add(path);
+			}
+		}
+		return result;
+	}
+
+	static BasicFileAttributes readAttributes(Path path)
+	{
+		try
+		{
+			return Files.readAttributes(path, BasicFileAttributes.class);
+		}
+		catch (IOException e)
+		{
+			// deleted in the mean time or a broken link
+			return null;
+		}
+	}
+
+	private static boolean isGlob(String filter)
+	{
+		for (int i = 0; i < filter.length(); i++)
+		{
+			switch (filter.charAt(i))
+			{
+				case '*' :
+				case '?' :
+				case '[' :
+				case '{' :
+					return true;
+				default :
+			}
+		}
+		return false;
+	}
+
+	private static boolean matchesName(Path fileName, List<String> endings, List<PathMatcher> matchers)
+	{
+		if (!endings.isEmpty())
+		{
+			String name = fileName.toString().toLowerCase();
+			for (String ending : endings)
+			{
+				if (name.endsWith(ending)) return true;
+			}
+		}
+		for (PathMatcher matcher : matchers)
+		{
+			if (matcher.matches(fileName)) return true;
+		}
+		return false;
+	}
+
+	private static boolean isHidden(Path path)
+	{
+		try
+		{
+			return Files.isHidden(path);
+		}
+		catch (IOException e)
+		{
+			return false;
+		}
+	}
+
+	private static void copy(Path source, Path target) throws IOException
+	{
+		Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING, LinkOption.NOFOLLOW_LINKS);
+	}
+
+	private static boolean invoke(RecursiveTask<Boolean> task)
+	{
+		ForkJoinPool pool = new ForkJoinPool(PARALLELISM);
+		try
+		{
+			return pool.invoke(task).booleanValue();
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Copies the files of one folder and forks a task for every sub folder.
+	 */
+	private static final class CopyTask extends RecursiveTask<Boolean>
+	{
+		private final Path source;
+		private final Path destination;
+		private final Path skip;
+
+		CopyTask(Path source, Path destination, Path skip)
+		{
+			this.source = source;
+			this.destination = destination;
+			this.skip = skip;
+		}
+
+		@Override
+		protected Boolean compute()
+		{
+			boolean success = true;
+			List<CopyTask> subTasks = new ArrayList<CopyTask>();
+			try
+			{
+				Files.createDirectories(destination);
+				try (DirectoryStream<Path> stream = Files.newDirectoryStream(source))
+				{
+					for (Path path : stream)
+					{
+						Path target = destination.resolve(path.getFileName().toString());
+						if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS))
+						{
+							if (!path.equals(skip))
+							{
+								CopyTask task = new CopyTask(path, target, skip);
+								task.fork();
+								subTasks.add(task);
+							}
+						}
+						else
+						{
+							copy(path, target);
+						}
+					}
+				}
+			}
+			catch (IOException e)
+			{
+				Debug.error(e);
+				success = false;
+			}
+			for (CopyTask task : subTasks)
+			{
+				success = task.join().booleanValue() && success;
+			}
+			return Boolean.valueOf(success);
+		}
+	}
+
+	/**
+	 * Deletes the files of one folder and forks a task for every sub folder, the folder itself is deleted when all the sub tasks are done.
+	 */
+	private static final class DeleteTask extends RecursiveTask<Boolean>
+	{
+		private final Path folder;
+
+		DeleteTask(Path folder)
+		{
+			this.folder = folder;
+		}
+
+		@Override
+		protected Boolean compute()
+		{
+			boolean success = true;
+			List<DeleteTask> subTasks = new ArrayList<DeleteTask>();
+			try (DirectoryStream<Path> stream = Files.newDirectoryStream(folder))
+			{
+				for (Path path : stream)
+				{
+					if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS))
+					{
+						DeleteTask task = new DeleteTask(path);
+						task.fork();
+						subTasks.add(task);
+					}
+					else
+					{
+						Files.delete(path);
+					}
+				}
+			}
+			catch (IOException e)
+			{
+				Debug.error(e);
+				success = false;
+			}
+			for (DeleteTask task : subTasks)
+			{
+				success = task.join().booleanValue() && success;
+			}
+			if (success)
+			{
+				try
+				{
+					Files.delete(folder);
+				}
+				catch (IOException e)
+				{
+					Debug.error(e);
+					success = false;
+				}
+			}
+			return Boolean.valueOf(success);
+		}
+	}
+}
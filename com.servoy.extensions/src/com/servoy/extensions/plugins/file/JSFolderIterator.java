@@ -0,0 +1,162 @@
+/*
+ This file belongs to the Servoy development and deployment environment, Copyright (C) 1997-2026 Servoy BV
+
+ This program is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Affero General Public License as published by the Free
+ Software Foundation; either version 3 of the License, or (at your option) any
+ later version.
+
+ This program is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more details.
+
+ You should have received a copy of the GNU Affero General Public License along
+ with this program; if not, see http://www.gnu.org/licenses or write to the Free
+ Software Foundation,Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301
+ */
+package com.servoy.extensions.plugins.file;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.BiPredicate;
+import java.util.stream.Stream;
+
+import com.servoy.j2db.documentation.ServoyDocumented;
+import com.servoy.j2db.plugins.IClientPluginAccess;
+import com.servoy.j2db.scripting.IJavaScriptType;
+import com.servoy.j2db.scripting.IScriptable;
+import com.servoy.j2db.util.Debug;
+
+/**
+ * <p>The <code>JSFolderIterator</code> walks the contents of a folder lazily, the files are read from the disk while iterating
+ * so even folders with a huge number of files can be handled without creating all the <code>JSFile</code> objects up front.</p>
+ *
+ * <p>The files can be taken one at a time with <code>next()</code> or in pages with <code>nextPage(size)</code>.
+ * The iterator is closed when all the files are read, <code>close()</code> must be called when it is not read until the end.</p>
+ */
+@ServoyDocumented
+public class JSFolderIterator implements IScriptable, IJavaScriptType, Closeable
+{
+	private final IClientPluginAccess access;
+	private final Stream<Path> stream;
+	private final Iterator<Path> iterator;
+	private boolean closed;
+
+	/**
+	 * For developer scripting introspection only
+	 */
+	public JSFolderIterator()
+	{
+		this.access = null;
+		this.stream = null;
+		this.iterator = null;
+	}
+
+	JSFolderIterator(Path folder, boolean recursive, BiPredicate<Path, BasicFileAttributes> filter, IClientPluginAccess access) throws IOException
+	{
+		this.access = access;
+		// the filter is tested by the walk itself, on the attributes it already has read
+		this.stream = Files.find(folder, recursive ? Integer.MAX_VALUE : 1, (path, attributes) -> !path.equals(folder) && filter.test(path, attributes));
+		this.iterator = stream.iterator();
+	}
+
+	/**
+	 * Returns true when there are more files, the iterator is closed when there are no more files.
+	 *
+	 * @sample
+	 * var it = plugins.file.getFolderIterator('/documents', '*.pdf', true);
+	 * try
+	 * {
+	 * 	while (it.hasNext())
+	 * 	{
+	 * 		application.output(it.next().getAbsolutePath());
+	 * 	}
+	 * }
+	 * finally
+	 * {
+	 * 	it.close();
+	 * }
+	 *
+	 * @return true if there is a next file
+	 */
+	public boolean js_hasNext()
+	{
+		if (closed) return false;
+		boolean hasNext = false;
+		try
+		{
+			hasNext = iterator.hasNext();
+		}
+		catch (RuntimeException e)
+		{
+			// UncheckedIOException when a folder can't be read anymore
+			Debug.error(e);
+		}
+		if (!hasNext) close();
+		return hasNext;
+	}
+
+	/**
+	 * Returns the next file, or null when there are no more files.
+	 *
+	 * @sampleas js_hasNext()
+	 *
+	 * @return the next file
+	 */
+	public JSFile js_next()
+	{
+		if (!js_hasNext()) return null;
+		return new JSFile(iterator.next().toFile(), access);
+	}
+
+	/**
+	 * Returns the next page of files, an empty array when there are no more files.
+	 *
+	 * @sample
+	 * var it = plugins.file.getFolderIterator('/documents');
+	 * var page = it.nextPage(100);
+	 * while (page.length > 0)
+	 * {
+	 * 	for (var i = 0; i < page.length; i++)
+	 * 		application.output(page[i].getName());
+	 * 	page = it.nextPage(100);
+	 * }
+	 *
+	 * @param size the maximum number of files in the page
+	 *
+	 * @return an array with at most size files
+	 */
+	public JSFile[] js_nextPage(int size)
+	{
+		List<JSFile> page = new ArrayList<JSFile>(Math.max(0, Math.min(size, 1024)));
+		while (page.size() < size && js_hasNext())
+		{
+			page.add(new JSFile(iterator.next().toFile(), access));
+		}
+		return page.toArray(new JSFile[page.size()]);
+	}
+
+	/**
+	 * Closes the iterator, needed when not all the files are read.
+	 *
+	 * @sampleas js_hasNext()
+	 */
+	public void js_close()
+	{
+		close();
+	}
+
+	@Override
+	public void close()
+	{
+		if (closed) return;
+		closed = true;
+		if (stream != null) stream.close();
+	}
+}
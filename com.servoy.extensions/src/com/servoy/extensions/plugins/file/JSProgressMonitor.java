@@ -21,6 +21,7 @@ import java.util.TimerTask;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.mozilla.javascript.Function;
 
@@ -60,6 +61,7 @@ public class JSProgressMonitor extends TimerTask implements IScriptable, IJavaSc
 
 	private final AtomicLong totalBytes = new AtomicLong(0);
 	private final AtomicLong totalTransferred = new AtomicLong(0);
+	private final AtomicLong resumedBytes = new AtomicLong(0);
 	private final AtomicLong currentBytes = new AtomicLong(0);
 	private final AtomicLong currentTransferred = new AtomicLong(0);
 	private final AtomicInteger totalFiles = new AtomicInteger(0);
@@ -68,6 +70,9 @@ public class JSProgressMonitor extends TimerTask implements IScriptable, IJavaSc
 	private final AtomicBoolean finished = new AtomicBoolean(false);
 	private final AtomicBoolean canceled = new AtomicBoolean(false);
 	private String currentFileName;
+	private final AtomicReferenceArray<String> checksums;
+	private final long startTime = System.nanoTime();
+	private volatile long endTime;
 
 	/**
 	 * For developer scripting introspection only
@@ -75,6 +80,7 @@ public class JSProgressMonitor extends TimerTask implements IScriptable, IJavaSc
 	public JSProgressMonitor()
 	{
 		this.provider = null;
+		this.checksums = new AtomicReferenceArray<String>(0);
 	}
 
 	/**
@@ -89,6 +95,7 @@ public class JSProgressMonitor extends TimerTask implements IScriptable, IJavaSc
 		this.provider = provider;
 		this.totalBytes.set(totalBytes);
 		this.totalFiles.set(totalFiles);
+		this.checksums = new AtomicReferenceArray<String>(totalFiles);
 	}
 
 	/**
@@ -203,6 +210,38 @@ public class JSProgressMonitor extends TimerTask implements IScriptable, IJavaSc
 		return currentFileIndex.get();
 	}
 
+	/**
+	 * Returns the checksum of a transferred file, when a checksum algorithm is given to streamFilesToServer or streamFilesFromServer.
+	 *
+	 * @sample
+	 * var monitor = plugins.file.streamFilesToServer(files, serverFiles, callbackFunction, 4, 'SHA-256', true);
+	 * // when finished:
+	 * application.output(monitor.getChecksum(1));
+	 *
+	 * @param fileIndex the (1 based) index of the file
+	 *
+	 * @return the checksum of the file, or null if no checksum was calculated (yet)
+	 */
+	public String js_getChecksum(int fileIndex)
+	{
+		return fileIndex > 0 && fileIndex <= checksums.length() ? checksums.get(fileIndex - 1) : null;
+	}
+
+	/**
+	 * Returns the average number of bytes transferred per second (over all parallel streams) since the transfer started.
+	 * The bytes of resumed files that were already transferred before are not counted.
+	 *
+	 * @sampleas js_getCurrentBytesToTransfer()
+	 *
+	 * @return the transfer rate in bytes per second
+	 */
+	public long js_getBytesPerSecond()
+	{
+		long end = finished.get() ? endTime : System.nanoTime();
+		long elapsed = end - startTime;
+		return elapsed <= 0 ? 0 : (totalTransferred.get() - resumedBytes.get()) * 1000000000L / elapsed;
+	}
+
 	/**
 	 * Returns the name of the current file being transferred.
 	 *
@@ -258,6 +297,14 @@ public class JSProgressMonitor extends TimerTask implements IScriptable, IJavaSc
 		this.totalBytes.set(totalBytes);
 	}
 
+	/**
+	 * @param resumed the number of bytes that were already transferred before a resumed transfer of a file
+	 */
+	public void addResumedBytes(long resumed)
+	{
+		this.resumedBytes.addAndGet(resumed);
+	}
+
 	/**
 	 * @param totalTransferred the totalTransferred to set
 	 */
@@ -311,9 +358,15 @@ public class JSProgressMonitor extends TimerTask implements IScriptable, IJavaSc
 	 */
 	public void setFinished(boolean finished)
 	{
+		if (finished) endTime = System.nanoTime();
 		this.finished.set(finished);
 	}
 
+	public void setChecksum(int index, String checksum)
+	{
+		if (index >= 0 && index < checksums.length()) checksums.set(index, checksum);
+	}
+
 
 	/*
 	 * (non-Javadoc)
@@ -20,7 +20,6 @@ package com.servoy.extensions.plugins.file;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileFilter;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
@@ -29,6 +28,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.net.URL;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -351,48 +351,16 @@ public class RemoteFile extends AbstractFile
 		if (file.isDirectory())
 		{
 			final List<RemoteFile> list = new ArrayList<RemoteFile>();
-			final FileFilter ff = new FileFilter()
+			try
 			{
-				public boolean accept(File pathname)
+				for (Path path : FolderOperations.list(file.toPath(), FolderOperations.createFilter(fileFilter, filesOption, visibleOption, lockedOption)))
 				{
-					boolean retVal = true;
-					if (fileFilter != null)
-					{
-						String name = pathname.getName().toLowerCase();
-						for (String element : fileFilter)
-						{
-							retVal = name.endsWith(element);
-							if (retVal) break;
-						}
-					}
-					if (!retVal) return retVal;
-
-					// file or folder
-					if (filesOption == AbstractFile.FILES)
-					{
-						retVal = pathname.isFile();
-					}
-					else if (filesOption == AbstractFile.FOLDERS)
-					{
-						retVal = pathname.isDirectory();
-					}
-					if (!retVal) return false;
-
-					boolean hidden = pathname.isHidden();
-					if (visibleOption == AbstractFile.VISIBLE) retVal = !hidden;
-					else if (visibleOption == AbstractFile.NON_VISIBLE) retVal = hidden;
-					if (!retVal) return false;
-
-					boolean canWrite = pathname.canWrite();
-					if (lockedOption == AbstractFile.LOCKED) retVal = !canWrite;
-					else if (lockedOption == AbstractFile.NON_LOCKED) retVal = canWrite;
-					return retVal;
+					list.add(new RemoteFile(path.toFile(), mainFolder, application));
 				}
-			};
-			final File[] files = file.listFiles(ff);
-			for (final File file : files)
+			}
+			catch (IOException e)
 			{
-				list.add(new RemoteFile(file, mainFolder, application));
+				Debug.error(e);
 			}
 			return list.toArray(new RemoteFile[0]);
 		}
@@ -0,0 +1,73 @@
+/*
+ This file belongs to the Servoy development and deployment environment, Copyright (C) 1997-2026 Servoy BV
+
+ This program is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Affero General Public License as published by the Free
+ Software Foundation; either version 3 of the License, or (at your option) any
+ later version.
+
+ This program is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more details.
+
+ You should have received a copy of the GNU Affero General Public License along
+ with this program; if not, see http://www.gnu.org/licenses or write to the Free
+ Software Foundation,Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301
+ */
+package com.servoy.extensions.plugins.images;
+
+import java.awt.Dimension;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+
+import com.servoy.j2db.util.Debug;
+
+/**
+ * Reads the dimensions of an image file from its header only.
+ * <p>
+ * The file is read through a {@link FileChannel} and only the bytes the image reader asks for are read (and kept in memory),
+ * the image readers stop after the header when only the size is asked.
+ */
+final class ImageHeaderReader
+{
+	private ImageHeaderReader()
+	{
+	}
+
+	/**
+	 * @return the size of the image, null if the file is not an image that can be read
+	 */
+	static Dimension readSize(File file)
+	{
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+			ImageInputStream iis = new MemoryCacheImageInputStream(Channels.newInputStream(channel)))
+		{
+			Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+			if (!readers.hasNext()) return null;
+			ImageReader reader = readers.next();
+			try
+			{
+				reader.setInput(iis, true, true);
+				return new Dimension(reader.getWidth(0), reader.getHeight(0));
+			}
+			finally
+			{
+				reader.dispose();
+			}
+		}
+		catch (IOException e)
+		{
+			Debug.trace(e);
+			return null;
+		}
+	}
+}
@@ -65,7 +65,7 @@ public class ImageProvider implements IScriptable, IReturnedTypesProvider
 
 	public Class< ? >[] getAllReturnedTypes()
 	{
-		return new Class[] { JSImage.class };
+		return new Class[] { JSImage.class, JSImageTransform.class };
 	}
 
 	/**
@@ -155,4 +155,117 @@ public class ImageProvider implements IScriptable, IReturnedTypesProvider
 		if (runtimeWindow instanceof ISmartRuntimeWindow) currentWindow = ((ISmartRuntimeWindow)runtimeWindow).getWindow();
 		return new JSImage(SnapShot.createJPGImage(currentWindow, object, -1, -1));
 	}
+
+	/**
+	 * Get a thumbnail of the given image, that fits in the width/height given keeping aspect ratio.
+	 * Large images are read subsampled so creating a thumbnail is much faster than getImage(object).resize(width, height),
+	 * and the thumbnails are cached (in memory and on disk) by the content of the image and the size, so asking again for the same thumbnail is cheap.
+	 *
+	 * @sample
+	 * var thumbnail = plugins.images.getThumbnail(byteArray_or_file_or_filename, 200, 200);
+	 * var bytes = thumbnail.getData();
+	 *
+	 * var files = plugins.file.getFolderContents('/products/images', '.jpg');
+	 * var thumbnails = plugins.images.getThumbnails(files, 100, 100);//creates the thumbnails in parallel
+	 * application.output('thumbnail cache hit rate: ' + plugins.images.getThumbnailCacheHitRate());
+	 *
+	 * @param object file/byte_array/image
+	 * @param width the maximum width of the thumbnail
+	 * @param height the maximum height of the thumbnail
+	 *
+	 * @return a JSImage object with the thumbnail, or null if the image can't be read.
+	 */
+	public JSImage js_getThumbnail(Object object, int width, int height) throws Exception
+	{
+		Object image = getThumbnailSource(object);
+		if (image == null) return null;
+		byte[] thumbnail = ThumbnailService.getThumbnail(image, width, height);
+		return thumbnail != null ? new JSImage(thumbnail) : null;
+	}
+
+	/**
+	 * Get the thumbnails of the given images, that fit in the width/height given keeping aspect ratio. The thumbnails are created in parallel.
+	 *
+	 * @sampleas js_getThumbnail(Object, int, int)
+	 *
+	 * @param objects the files/byte_arrays/images
+	 * @param width the maximum width of the thumbnails
+	 * @param height the maximum height of the thumbnails
+	 *
+	 * @return an array of JSImage objects with the thumbnails, with null for the images that can't be read.
+	 */
+	public JSImage[] js_getThumbnails(Object[] objects, int width, int height) throws Exception
+	{
+		if (objects == null) return new JSImage[0];
+		Object[] images = new Object[objects.length];
+		for (int i = 0; i < objects.length; i++)
+		{
+			images[i] = getThumbnailSource(objects[i]);
+		}
+		byte[][] thumbnails = ThumbnailService.getThumbnails(images, width, height);
+		JSImage[] result = new JSImage[thumbnails.length];
+		for (int i = 0; i < thumbnails.length; i++)
+		{
+			if (thumbnails[i] != null) result[i] = new JSImage(thumbnails[i]);
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the hit rate of the thumbnail cache (memory and disk), between 0 and 1.
+	 *
+	 * @sampleas js_getThumbnail(Object, int, int)
+	 *
+	 * @return the part of the thumbnails that were taken from the cache.
+	 */
+	public double js_getThumbnailCacheHitRate()
+	{
+		long[] statistics = ThumbnailService.getStatistics();
+		long hits = statistics[0] + statistics[1];
+		long total = hits + statistics[2];
+		return total == 0 ? 0 : (double)hits / total;
+	}
+
+	/**
+	 * Gets the statistics of the thumbnail cache: the number of thumbnails taken from memory, from disk and the number that had to be created.
+	 *
+	 * @sample
+	 * var statistics = plugins.images.getThumbnailCacheStatistics();
+	 * application.output('memory hits: ' + statistics[0] + ', disk hits: ' + statistics[1] + ', misses: ' + statistics[2]);
+	 *
+	 * @return an array with the memory hits, the disk hits and the misses.
+	 */
+	public long[] js_getThumbnailCacheStatistics()
+	{
+		return ThumbnailService.getStatistics();
+	}
+
+	/**
+	 * Removes all the thumbnails from the cache (memory and disk) and resets the statistics.
+	 *
+	 * @sample
+	 * plugins.images.clearThumbnailCache();
+	 */
+	public void js_clearThumbnailCache()
+	{
+		ThumbnailService.clear();
+	}
+
+	private static Object getThumbnailSource(Object object)
+	{
+		if (object instanceof JSImage)
+		{
+			File file = ((JSImage)object).getFile();
+			return file != null ? file : ((JSImage)object).js_getData();
+		}
+		if (object instanceof JSFile) object = ((JSFile)object).getFile();
+		else if (object instanceof String) object = new File((String)object);
+		if (object instanceof File)
+		{
+			File file = (File)object;
+			return file.exists() && file.canRead() && file.length() > 0 ? file : null;
+		}
+		if (object instanceof byte[]) return object;
+		return null;
+	}
 }
@@ -16,11 +16,7 @@
  */
 package com.servoy.extensions.plugins.images;
 
-import java.awt.Color;
 import java.awt.Dimension;
-import java.awt.Graphics2D;
-import java.awt.geom.AffineTransform;
-import java.awt.image.AffineTransformOp;
 import java.awt.image.BufferedImage;
 import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
@@ -83,6 +79,8 @@ public class JSImage implements IScriptable, Wrapper
 
 	private Dimension dimension;
 
+	private String contentType;
+
 	private TreeMap metadataMap;
 
 	private final File file;
@@ -110,7 +108,8 @@ public class JSImage implements IScriptable, Wrapper
 	@Override
 	public String toString()
 	{
-		return "JSImage[dimensions:" + getSize() + ",size:" + imageData.length + ",contenttype:" + js_getContentType() + "]";
+		return "JSImage[dimensions:" + getSize() + ",size:" + (imageData != null ? imageData.length : file != null ? file.length() : 0) + ",contenttype:" +
+			js_getContentType() + "]";
 	}
 
 	private Dimension getSize()
@@ -121,14 +120,21 @@ public class JSImage implements IScriptable, Wrapper
 			{
 				dimension = ImageLoader.getSize(imageData);
 			}
-			else
+			else if (file != null)
 			{
-				dimension = ImageLoader.getSize(file);
+				// only read the header of the file, not the whole image
+				dimension = ImageHeaderReader.readSize(file);
+				if (dimension == null) dimension = ImageLoader.getSize(file);
 			}
 		}
 		return dimension;
 	}
 
+	File getFile()
+	{
+		return imageData == null ? file : null;
+	}
+
 	/**
 	 * Gets the height of this image.
 	 *
@@ -210,46 +216,8 @@ public class JSImage implements IScriptable, Wrapper
 	public JSImage js_rotate(final double degrees)
 	{
 		js_getData();
-		final double radians = Math.toRadians(degrees);
-
-		final int currentWidth = getSize().width;
-		final int currentHeight = getSize().height;
-
-		final int newWidth = (int)(Math.abs((currentWidth * Math.cos(radians) + currentHeight * Math.sin(radians))) + 0.5);
-		final int newHeight = (int)(Math.abs((currentWidth * Math.sin(radians) + currentHeight * Math.cos(radians))) + 0.5);
-
-		BufferedImage image = ImageLoader.getBufferedImage(imageData, currentWidth, currentHeight, true);
-
-		int type = image.getType();
-		if (type == 0) type = BufferedImage.TYPE_INT_ARGB_PRE;
-
-		BufferedImage bi = new BufferedImage(newWidth, newHeight, type);
-
-		Graphics2D g2d = (Graphics2D)bi.getGraphics();
-		if (image.getAlphaRaster() == null)
-		{
-			g2d.setColor(new Color(255, 255, 255, 255));
-		}
-		else
-		{
-			g2d.setColor(new Color(255, 255, 255, 0));
-		}
-		g2d.fillRect(0, 0, newWidth, newHeight);
-		AffineTransform origXform = g2d.getTransform();
-		AffineTransform newXform = (AffineTransform)(origXform.clone());
-		// center of rotation is center of the panel
-		int xRot = newWidth / 2;
-		int yRot = newHeight / 2;
-
-		newXform.rotate(radians, xRot, yRot);
-		g2d.setTransform(newXform);
-		// draw image centered in panel
-		int x = (newWidth - currentWidth) / 2;
-		int y = (newHeight - currentHeight) / 2;
-		g2d.drawImage(image, x, y, null);
-		g2d.setTransform(origXform);
-		g2d.dispose();
-
+		BufferedImage image = ImageLoader.getBufferedImage(imageData, getSize().width, getSize().height, true);
+		BufferedImage bi = JSImageTransform.rotate(image, degrees);
 		try
 		{
 			return new JSImage(ImageLoader.getByteArray(js_getContentType(), bi));
@@ -277,27 +245,8 @@ public class JSImage implements IScriptable, Wrapper
 	public JSImage js_flip(int type)
 	{
 		js_getData();
-		final int currentWidth = getSize().width;
-		final int currentHeight = getSize().height;
-
-		BufferedImage bufferedImage = ImageLoader.getBufferedImage(imageData, currentWidth, currentHeight, true);
-
-		if (type == 0)
-		{
-			//	 Flip the image vertically
-			AffineTransform tx = AffineTransform.getScaleInstance(1, -1);
-			tx.translate(0, -bufferedImage.getHeight(null));
-			AffineTransformOp op = new AffineTransformOp(tx, AffineTransformOp.TYPE_NEAREST_NEIGHBOR);
-			bufferedImage = op.filter(bufferedImage, null);
-		}
-		else
-		{
-			// Flip the image horizontally
-			AffineTransform tx = AffineTransform.getScaleInstance(-1, 1);
-			tx.translate(-bufferedImage.getWidth(null), 0);
-			AffineTransformOp op = new AffineTransformOp(tx, AffineTransformOp.TYPE_NEAREST_NEIGHBOR);
-			bufferedImage = op.filter(bufferedImage, null);
-		}
+		BufferedImage image = ImageLoader.getBufferedImage(imageData, getSize().width, getSize().height, true);
+		BufferedImage bufferedImage = JSImageTransform.flip(image, type);
 		try
 		{
 			return new JSImage(ImageLoader.getByteArray(js_getContentType(), bufferedImage));
@@ -308,6 +257,22 @@ public class JSImage implements IScriptable, Wrapper
 		}
 	}
 
+	/**
+	 * Starts a chain of operations (resize, rotate, flip) on this image that are all executed at once when the result is asked,
+	 * so the image is only decoded and encoded once. The format and quality of the result can be set on the transform.
+	 *
+	 * @sample
+	 * var image = plugins.images.getImage(byteArray_or_file_or_filename);//loads the image
+	 * var bytes = image.transform().rotate(90).resize(200,200).flip(0).setFormat('jpg').setQuality(0.8).getData();//decodes and encodes only once
+	 * plugins.file.writeFile('filename',bytes);//saves the image bytes
+	 *
+	 * @return A new transform for this image.
+	 */
+	public JSImageTransform js_transform()
+	{
+		return new JSImageTransform(this);
+	}
+
 	/**
 	 * Gets the contenttype (image/jpeg) of this image.
 	 *
@@ -327,11 +292,15 @@ public class JSImage implements IScriptable, Wrapper
 		}
 		else if (file != null)
 		{
-			byte[] bytes = Utils.readFile(file, 32);
-			if (bytes != null)
+			if (contentType == null)
 			{
-				return MimeTypes.getContentType(bytes, file.getName());
+				byte[] bytes = Utils.readFile(file, 32);
+				if (bytes != null)
+				{
+					contentType = MimeTypes.getContentType(bytes, file.getName());
+				}
 			}
+			return contentType;
 		}
 		return null;
 	}
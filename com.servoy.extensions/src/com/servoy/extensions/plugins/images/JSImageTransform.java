@@ -0,0 +1,360 @@
+/*
+ This file belongs to the Servoy development and deployment environment, Copyright (C) 1997-2026 Servoy BV
+
+ This program is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Affero General Public License as published by the Free
+ Software Foundation; either version 3 of the License, or (at your option) any
+ later version.
+
+ This program is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more details.
+
+ You should have received a copy of the GNU Affero General Public License along
+ with this program; if not, see http://www.gnu.org/licenses or write to the Free
+ Software Foundation,Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301
+ */
+package com.servoy.extensions.plugins.images;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.AffineTransformOp;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+import com.servoy.j2db.documentation.ServoyDocumented;
+import com.servoy.j2db.scripting.IScriptable;
+import com.servoy.j2db.util.ImageLoader;
+
+/**
+ * <p>A <code>JSImageTransform</code> records a chain of operations (resize, rotate, flip) on a <code>JSImage</code>
+ * and executes them all at once when the result is asked with <code>getData()</code> or <code>getImage()</code>.</p>
+ *
+ * <p>The image is decoded once, all the operations are done on the decoded image and the result is encoded once,
+ * in the format and with the quality that are set on the transform. Calling <code>resize()</code>, <code>rotate()</code> and
+ * <code>flip()</code> on the <code>JSImage</code> itself decodes and encodes the image for every call, which for jpg images
+ * also loses quality for every call.</p>
+ */
+@ServoyDocumented
+public class JSImageTransform implements IScriptable
+{
+	private final JSImage image;
+	private final List<UnaryOperator<BufferedImage>> operations = new ArrayList<UnaryOperator<BufferedImage>>();
+	private String format;
+	private float quality = -1;
+
+	// used by the javascript lib
+	public JSImageTransform()
+	{
+		this.image = null;
+	}
+
+	JSImageTransform(JSImage image)
+	{
+		this.image = image;
+	}
+
+	/**
+	 * Adds a resize to the width/height given, keeping aspect ratio.
+	 *
+	 * @sample
+	 * var image = plugins.images.getImage(byteArray_or_file_or_filename);//loads the image
+	 * var bytes = image.transform().rotate(90).resize(200,200).flip(0).setFormat('jpg').setQuality(0.8).getData();//decodes and encodes only once
+	 * plugins.file.writeFile('filename',bytes);//saves the image bytes
+	 *
+	 * @param width
+	 * @param height
+	 *
+	 * @return this transform
+	 */
+	public JSImageTransform js_resize(final int width, final int height)
+	{
+		operations.add(new Resize(width, height));
+		return this;
+	}
+
+	/**
+	 * Adds a rotation of the number of degrees that is given.
+	 *
+	 * @sampleas js_resize(int, int)
+	 *
+	 * @param degrees
+	 *
+	 * @return this transform
+	 */
+	public JSImageTransform js_rotate(final double degrees)
+	{
+		operations.add(img -> rotate(img, degrees));
+		return this;
+	}
+
+	/**
+	 * Adds a flip verticaly (type param=0) or horizontaly (type param=1).
+	 *
+	 * @sampleas js_resize(int, int)
+	 *
+	 * @param type
+	 *
+	 * @return this transform
+	 */
+	public JSImageTransform js_flip(final int type)
+	{
+		operations.add(img -> flip(img, type));
+		return this;
+	}
+
+	/**
+	 * Sets the format of the result, like 'png', 'jpg' or 'image/png'. By default the format of the original image is used.
+	 *
+	 * @sampleas js_resize(int, int)
+	 *
+	 * @param format the format name or content type
+	 *
+	 * @return this transform
+	 */
+	public JSImageTransform js_setFormat(String format)
+	{
+		this.format = format;
+		return this;
+	}
+
+	/**
+	 * Sets the compression quality of the result, between 0 (smallest) and 1 (best), for formats that support it like jpg.
+	 * By default the default quality of the format is used.
+	 *
+	 * @sampleas js_resize(int, int)
+	 *
+	 * @param quality the quality between 0 and 1
+	 *
+	 * @return this transform
+	 */
+	public JSImageTransform js_setQuality(float quality)
+	{
+		this.quality = Math.max(0, Math.min(1, quality));
+		return this;
+	}
+
+	/**
+	 * Executes all the operations and returns the bytes of the result.
+	 *
+	 * @sampleas js_resize(int, int)
+	 *
+	 * @return The image data of the result, or null if the image could not be read.
+	 */
+	public byte[] js_getData()
+	{
+		byte[] data = image.js_getData();
+		if (data == null) return null;
+		if (operations.isEmpty() && format == null && quality < 0) return data;
+
+		BufferedImage result;
+		int first = 0;
+		if (!operations.isEmpty() && operations.get(0) instanceof Resize)
+		{
+			// decode at the new size, this is what ImageLoader.resize() does for JSImage.resize()
+			Resize resize = (Resize)operations.get(0);
+			result = ImageLoader.getBufferedImage(data, resize.width, resize.height, true);
+			first = 1;
+		}
+		else
+		{
+			result = ImageLoader.getBufferedImage(data, image.js_getWidth(), image.js_getHeight(), true);
+		}
+		if (result == null) return null;
+		for (int i = first; i < operations.size(); i++)
+		{
+			BufferedImage next = operations.get(i).apply(result);
+			if (next != result) result.flush();
+			result = next;
+		}
+		try
+		{
+			return encode(result, format != null ? format : image.js_getContentType(), quality);
+		}
+		catch (IOException e)
+		{
+			throw new RuntimeException("Can't encode the image to " + format, e); //$NON-NLS-1$
+		}
+		finally
+		{
+			result.flush();
+		}
+	}
+
+	/**
+	 * Executes all the operations and returns the result as a new JSImage.
+	 *
+	 * @sampleas js_resize(int, int)
+	 *
+	 * @return A new JSImage instance with the result, or null if the image could not be read.
+	 */
+	public JSImage js_getImage()
+	{
+		byte[] data = js_getData();
+		return data != null ? new JSImage(data) : null;
+	}
+
+	/**
+	 * Resizes the image keeping the aspect ratio with the scaling of {@link ImageLoader}, so the result is the same as that of JSImage.resize().
+	 */
+	static BufferedImage resize(BufferedImage image, int width, int height)
+	{
+		try
+		{
+			// ImageLoader scales encoded images, png is lossless so the pixels of the decoded image are kept
+			BufferedImage resized = ImageLoader.getBufferedImage(encode(image, "image/png", -1), width, height, true); //$NON-NLS-1$
+			return resized != null ? resized : image;
+		}
+		catch (IOException e)
+		{
+			throw new RuntimeException("Can't resize the image", e); //$NON-NLS-1$
+		}
+	}
+
+	static BufferedImage rotate(BufferedImage image, double degrees)
+	{
+		final double radians = Math.toRadians(degrees);
+
+		final int currentWidth = image.getWidth();
+		final int currentHeight = image.getHeight();
+
+		final int newWidth = (int)(Math.abs((currentWidth * Math.cos(radians) + currentHeight * Math.sin(radians))) + 0.5);
+		final int newHeight = (int)(Math.abs((currentWidth * Math.sin(radians) + currentHeight * Math.cos(radians))) + 0.5);
+
+		int type = image.getType();
+		if (type == 0) type = BufferedImage.TYPE_INT_ARGB_PRE;
+
+		BufferedImage bi = new BufferedImage(newWidth, newHeight, type);
+
+		Graphics2D g2d = (Graphics2D)bi.getGraphics();
+		if (image.getAlphaRaster() == null)
+		{
+			g2d.setColor(new Color(255, 255, 255, 255));
+		}
+		else
+		{
+			g2d.setColor(new Color(255, 255, 255, 0));
+		}
+		g2d.fillRect(0, 0, newWidth, newHeight);
+		AffineTransform origXform = g2d.getTransform();
+		AffineTransform newXform = (AffineTransform)(origXform.clone());
+		// center of rotation is center of the panel
+		int xRot = newWidth / 2;
+		int yRot = newHeight / 2;
+
+		newXform.rotate(radians, xRot, yRot);
+		g2d.setTransform(newXform);
+		// draw image centered in panel
+		int x = (newWidth - currentWidth) / 2;
+		int y = (newHeight - currentHeight) / 2;
+		g2d.drawImage(image, x, y, null);
+		g2d.setTransform(origXform);
+		g2d.dispose();
+		return bi;
+	}
+
+	static BufferedImage flip(BufferedImage image, int type)
+	{
+		AffineTransform tx;
+		if (type == 0)
+		{
+			//	 Flip the image vertically
+			tx = AffineTransform.getScaleInstance(1, -1);
+			tx.translate(0, -image.getHeight(null));
+		}
+		else
+		{
+			// Flip the image horizontally
+			tx = AffineTransform.getScaleInstance(-1, 1);
+			tx.translate(-image.getWidth(null), 0);
+		}
+		AffineTransformOp op = new AffineTransformOp(tx, AffineTransformOp.TYPE_NEAREST_NEIGHBOR);
+		return op.filter(image, null);
+	}
+
+	/**
+	 * Encodes the image with the writer for the format (a format name or content type), with the given quality if it is not negative.
+	 */
+	@SuppressWarnings("nls")
+	static byte[] encode(BufferedImage image, String format, float quality) throws IOException
+	{
+		String contentType = format == null ? "image/png" : format;
+		Iterator<ImageWriter> writers = contentType.indexOf('/') != -1 ? ImageIO.getImageWritersByMIMEType(contentType)
+			: ImageIO.getImageWritersByFormatName(contentType);
+		if (!writers.hasNext())
+		{
+			// the original format can't be written (like gif in old jvms or bmp with alpha), fall back to png
+			contentType = "image/png";
+			writers = ImageIO.getImageWritersByMIMEType(contentType);
+		}
+		ImageWriter writer = writers.next();
+		BufferedImage toWrite = image;
+		String[] formatNames = writer.getOriginatingProvider().getFormatNames();
+		boolean jpeg = false;
+		for (String formatName : formatNames)
+		{
+			if ("jpeg".equalsIgnoreCase(formatName) || "jpg".equalsIgnoreCase(formatName)) jpeg = true;
+		}
+		if (jpeg && image.getColorModel().hasAlpha())
+		{
+			// jpg has no alpha channel, draw it on white
+			toWrite = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+			Graphics2D g2d = toWrite.createGraphics();
+			g2d.setColor(Color.WHITE);
+			g2d.fillRect(0, 0, image.getWidth(), image.getHeight());
+			g2d.drawImage(image, 0, 0, null);
+			g2d.dispose();
+		}
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		try (ImageOutputStream ios = ImageIO.createImageOutputStream(baos))
+		{
+			writer.setOutput(ios);
+			ImageWriteParam param = writer.getDefaultWriteParam();
+			if (quality >= 0 && param.canWriteCompressed())
+			{
+				param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+				if (param.getCompressionType() == null && param.getCompressionTypes() != null && param.getCompressionTypes().length > 0)
+				{
+					param.setCompressionType(param.getCompressionTypes()[0]);
+				}
+				param.setCompressionQuality(quality);
+			}
+			writer.write(null, new IIOImage(toWrite, null, null), param);
+		}
+		finally
+		{
+			writer.dispose();
+			if (toWrite != image) toWrite.flush();
+		}
+		return baos.toByteArray();
+	}
+
+	private static final class Resize implements UnaryOperator<BufferedImage>
+	{
+		final int width;
+		final int height;
+
+		Resize(int width, int height)
+		{
+			this.width = width;
+			this.height = height;
+		}
+
+		public BufferedImage apply(BufferedImage img)
+		{
+			return resize(img, width, height);
+		}
+	}
+}
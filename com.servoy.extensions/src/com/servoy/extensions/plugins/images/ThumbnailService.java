@@ -0,0 +1,389 @@
+/*
+ This file belongs to the Servoy development and deployment environment, Copyright (C) 1997-2026 Servoy BV
+
+ This program is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Affero General Public License as published by the Free
+ Software Foundation; either version 3 of the License, or (at your option) any
+ later version.
+
+ This program is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more details.
+
+ You should have received a copy of the GNU Affero General Public License along
+ with this program; if not, see http://www.gnu.org/licenses or write to the Free
+ Software Foundation,Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301
+ */
+package com.servoy.extensions.plugins.images;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import com.servoy.j2db.util.Debug;
+
+/**
+ * Creates thumbnails of images, with a process wide cache in memory and on disk.
+ * <p>
+ * Large images are decoded with source subsampling, so only about twice the pixels of the thumbnail are read from the image,
+ * the result is then scaled down to the exact size. The thumbnails are cached by the requested size and the hash of the image content
+ * (for a byte[]) or of the canonical path, size and last modified time (for a file, so a cache hit doesn't read the file),
+ * in memory (bounded by {@value #MAX_MEMORY_BYTES} bytes) and in a <code>thumbnails</code> folder of the application server or the user
+ * (bounded by {@value #MAX_DISK_BYTES} bytes), the least recently used thumbnails are removed first.
+ */
+final class ThumbnailService
+{
+	static final long MAX_MEMORY_BYTES = 16 * 1024 * 1024;
+	static final long MAX_DISK_BYTES = 256 * 1024 * 1024;
+
+	private static final int MAX_THREADS = Runtime.getRuntime().availableProcessors();
+
+	// shared by all the clients, the calling thread also creates thumbnails so this pool only helps
+	private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS, 30, TimeUnit.SECONDS,
+		new LinkedBlockingQueue<Runnable>(), r -> {
+			Thread thread = new Thread(r, "Image thumbnails"); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		});
+
+	static
+	{
+		EXECUTOR.allowCoreThreadTimeOut(true);
+	}
+
+	private static final LinkedHashMap<String, byte[]> MEMORY = new LinkedHashMap<String, byte[]>(64, 0.75f, true);
+	private static long memoryBytes;
+
+	private static LinkedHashMap<String, Long> disk;
+	private static long diskBytes;
+	private static File diskFolder;
+
+	private static final AtomicLong memoryHits = new AtomicLong();
+	private static final AtomicLong diskHits = new AtomicLong();
+	private static final AtomicLong misses = new AtomicLong();
+
+	private ThumbnailService()
+	{
+	}
+
+	/**
+	 * @param image a File or a byte[]
+	 * @return the thumbnail, null if the image can't be read
+	 */
+	static byte[] getThumbnail(Object image, int width, int height) throws IOException
+	{
+		String key = hash(image) + '_' + width + 'x' + height;
+		byte[] thumbnail = getFromMemory(key);
+		if (thumbnail != null)
+		{
+			memoryHits.incrementAndGet();
+			return thumbnail;
+		}
+		thumbnail = getFromDisk(key);
+		if (thumbnail != null)
+		{
+			diskHits.incrementAndGet();
+			putInMemory(key, thumbnail);
+			return thumbnail;
+		}
+		misses.incrementAndGet();
+		thumbnail = create(image, width, height);
+		if (thumbnail != null)
+		{
+			putInMemory(key, thumbnail);
+			putOnDisk(key, thumbnail);
+		}
+		return thumbnail;
+	}
+
+	/**
+	 * Creates the thumbnails of all the images in parallel, the calling thread is helped by the threads of a shared pool.
+	 */
+	static byte[][] getThumbnails(final Object[] images, final int width, final int height) throws Exception
+	{
+		final byte[][] thumbnails = new byte[images.length][];
+		final AtomicInteger next = new AtomicInteger();
+		int threads = Math.min(MAX_THREADS, images.length);
+		List<Future<Void>> futures = new ArrayList<Future<Void>>(Math.max(0, threads - 1));
+		for (int i = 1; i < threads; i++)
+		{
+			futures.add(EXECUTOR.submit(() -> {
+				createThumbnails(images, width, height, thumbnails, next);
+				return null;
+			}));
+		}
+		try
+		{
+			createThumbnails(images, width, height, thumbnails, next);
+		}
+		finally
+		{
+			// after an error the other threads stop at their next image
+			next.set(images.length);
+		}
+		for (Future<Void> future : futures)
+		{
+			future.get();
+		}
+		return thumbnails;
+	}
+
+	private static void createThumbnails(Object[] images, int width, int height, byte[][] thumbnails, AtomicInteger next) throws IOException
+	{
+		int index;
+		while ((index = next.getAndIncrement()) < images.length)
+		{
+			thumbnails[index] = images[index] != null ? getThumbnail(images[index], width, height) : null;
+		}
+	}
+
+	/**
+	 * @return the memory hits, disk hits and misses
+	 */
+	static long[] getStatistics()
+	{
+		return new long[] { memoryHits.get(), diskHits.get(), misses.get() };
+	}
+
+	static synchronized void clear()
+	{
+		MEMORY.clear();
+		memoryBytes = 0;
+		if (disk != null)
+		{
+			for (String key : disk.keySet())
+			{
+				new File(diskFolder, key).delete();
+			}
+			disk.clear();
+			diskBytes = 0;
+		}
+		memoryHits.set(0);
+		diskHits.set(0);
+		misses.set(0);
+	}
+
+	private static byte[] create(Object image, int width, int height) throws IOException
+	{
+		try (ImageInputStream iis = ImageIO.createImageInputStream(image instanceof File ? image : new ByteArrayInputStream((byte[])image)))
+		{
+			if (iis == null) return null;
+			Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+			if (!readers.hasNext()) return null;
+			ImageReader reader = readers.next();
+			try
+			{
+				reader.setInput(iis, true, true);
+				int sourceWidth = reader.getWidth(0);
+				int sourceHeight = reader.getHeight(0);
+				// read about twice the pixels that are needed, the last step is the same scaling as JSImage.resize()
+				int subsampling = Math.max(1, Math.min(sourceWidth / (2 * Math.max(1, width)), sourceHeight / (2 * Math.max(1, height))));
+				ImageReadParam param = reader.getDefaultReadParam();
+				if (subsampling > 1) param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+				BufferedImage decoded = reader.read(0, param);
+				BufferedImage thumbnail = decoded;
+				if (decoded.getWidth() > width || decoded.getHeight() > height)
+				{
+					thumbnail = JSImageTransform.resize(decoded, width, height);
+					if (thumbnail != decoded) decoded.flush();
+				}
+				try
+				{
+					return JSImageTransform.encode(thumbnail, reader.getOriginatingProvider().getMIMETypes()[0], -1);
+				}
+				finally
+				{
+					thumbnail.flush();
+				}
+			}
+			finally
+			{
+				reader.dispose();
+			}
+		}
+	}
+
+	private static synchronized byte[] getFromMemory(String key)
+	{
+		return MEMORY.get(key);
+	}
+
+	private static synchronized void putInMemory(String key, byte[] thumbnail)
+	{
+		if (thumbnail.length > MAX_MEMORY_BYTES) return;
+		byte[] previous = MEMORY.put(key, thumbnail);
+		if (previous != null) memoryBytes -= previous.length;
+		memoryBytes += thumbnail.length;
+		Iterator<byte[]> it = MEMORY.values().iterator();
+		while (memoryBytes > MAX_MEMORY_BYTES && it.hasNext())
+		{
+			memoryBytes -= it.next().length;
+			it.remove();
+		}
+	}
+
+	private static byte[] getFromDisk(String key)
+	{
+		synchronized (ThumbnailService.class)
+		{
+			if (!getDiskIndex().containsKey(key)) return null;
+		}
+		try
+		{
+			return Files.readAllBytes(new File(diskFolder, key).toPath());
+		}
+		catch (IOException e)
+		{
+			// removed by someone else
+			synchronized (ThumbnailService.class)
+			{
+				Long size = disk.remove(key);
+				if (size != null) diskBytes -= size.longValue();
+			}
+			return null;
+		}
+	}
+
+	private static void putOnDisk(String key, byte[] thumbnail)
+	{
+		if (thumbnail.length > MAX_DISK_BYTES) return;
+		File folder;
+		synchronized (ThumbnailService.class)
+		{
+			if (getDiskIndex().containsKey(key)) return;
+			folder = diskFolder;
+		}
+		try
+		{
+			// write to a temp file first, so a reader never sees a half written thumbnail
+			File tmp = File.createTempFile(key, ".tmp", folder); //$NON-NLS-1$
+			Files.write(tmp.toPath(), thumbnail);
+			Files.move(tmp.toPath(), new File(folder, key).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (IOException e)
+		{
+			Debug.warn("Can't write a thumbnail to the disk cache: " + e.getMessage()); //$NON-NLS-1$
+			return;
+		}
+		// only a thumbnail that is on disk is added to the index, so a reader that finds the key can read the file
+		List<String> evicted = new ArrayList<String>();
+		synchronized (ThumbnailService.class)
+		{
+			Map<String, Long> index = getDiskIndex();
+			if (index.containsKey(key)) return; // written at the same time by another thread, with the same content
+			index.put(key, Long.valueOf(thumbnail.length));
+			diskBytes += thumbnail.length;
+			Iterator<Map.Entry<String, Long>> it = index.entrySet().iterator();
+			while (diskBytes > MAX_DISK_BYTES && it.hasNext())
+			{
+				Map.Entry<String, Long> entry = it.next();
+				diskBytes -= entry.getValue().longValue();
+				evicted.add(entry.getKey());
+				it.remove();
+			}
+		}
+		for (String old : evicted)
+		{
+			new File(folder, old).delete();
+		}
+	}
+
+	/**
+	 * @return the index of the disk cache, the thumbnails of a previous run are loaded in the order of their last modified time
+	 */
+	private static Map<String, Long> getDiskIndex()
+	{
+		if (disk == null)
+		{
+			disk = new LinkedHashMap<String, Long>(256, 0.75f, true);
+			// not a shared folder, the thumbnails can be private and every server keeps its own size bound
+			if (System.getProperty("servoy.application_server.dir") != null) //$NON-NLS-1$
+			{
+				diskFolder = new File(System.getProperty("servoy.application_server.dir"), "thumbnails"); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			else
+			{
+				diskFolder = new File(System.getProperty("user.home") + File.separator + ".servoy" + File.separator + "thumbnails"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			}
+			if (diskFolder.mkdirs())
+			{
+				// only for the owner
+				diskFolder.setReadable(false, false);
+				diskFolder.setReadable(true, true);
+				diskFolder.setWritable(false, false);
+				diskFolder.setWritable(true, true);
+				diskFolder.setExecutable(false, false);
+				diskFolder.setExecutable(true, true);
+			}
+			File[] files = diskFolder.listFiles();
+			if (files != null)
+			{
+				Arrays.sort(files, (f1, f2) -> Long.compare(f1.lastModified(), f2.lastModified()));
+				for (File file : files)
+				{
+					if (file.getName().endsWith(".tmp")) //$NON-NLS-1$
+					{
+						file.delete();
+						continue;
+					}
+					disk.put(file.getName(), Long.valueOf(file.length()));
+					diskBytes += file.length();
+				}
+			}
+		}
+		return disk;
+	}
+
+	private static String hash(Object image) throws IOException
+	{
+		MessageDigest digest;
+		try
+		{
+			digest = MessageDigest.getInstance("SHA-256"); //$NON-NLS-1$
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			throw new IOException(e);
+		}
+		if (image instanceof File)
+		{
+			// reading the whole file would make a cache hit as expensive as reading the image
+			File file = (File)image;
+			digest.update(("file:" + file.getCanonicalPath() + ':' + file.length() + ':' + file.lastModified()).getBytes(StandardCharsets.UTF_8)); //$NON-NLS-1$
+		}
+		else
+		{
+			digest.update((byte[])image);
+		}
+		byte[] bytes = digest.digest();
+		StringBuilder sb = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes)
+		{
+			sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		return sb.toString();
+	}
+}
@@ -157,7 +157,9 @@ public class OAuthProvider implements IScriptable, IReturnedTypesProvider
 		builder.apiSecret(clientSecret);
 		if (scope != null) builder.defaultScope(scope);
 		if (deeplinkmethod != null) builder.callback(getRedirectURL(deeplinkmethod, false));
-		return new OAuthService(builder.build(getApiInstance(provider, null, null)), state);
+		OAuthService service = new OAuthService(builder.build(getApiInstance(provider, null, null)), state);
+		service.setAsyncExecution(getPluginAccess(), OAuthService.DEFAULT_MAX_CONCURRENT_REQUESTS);
+		return service;
 	}
 
 	String getRedirectURL(String callbackmethod, boolean responseModeFragment)
@@ -44,19 +44,39 @@ import com.servoy.j2db.scripting.IScriptable;
 public class OAuthResponse implements IJavaScriptType, IScriptable
 {
 	protected final Response response;
+	private final String exceptionMessage;
 
 	public OAuthResponse(Response response)
 	{
 		this.response = response;
+		this.exceptionMessage = null;
 	}
 
 	/**
-	 * @return The HTTP status code of the OAuth response.
+	 * Response of a request that could not be executed.
+	 */
+	OAuthResponse(String exceptionMessage)
+	{
+		this.response = null;
+		this.exceptionMessage = exceptionMessage;
+	}
+
+	/**
+	 * @return The HTTP status code of the OAuth response, 0 if the request could not be executed (see getException()).
 	 */
 	@JSFunction
 	public int getCode()
 	{
-		return response.getCode();
+		return response != null ? response.getCode() : 0;
+	}
+
+	/**
+	 * @return The message of the exception if the request could not be executed, null otherwise.
+	 */
+	@JSFunction
+	public String getException()
+	{
+		return exceptionMessage;
 	}
 
 	/**
@@ -67,7 +87,7 @@ public class OAuthResponse implements IJavaScriptType, IScriptable
 	@JSFunction
 	public String getHeader(String name)
 	{
-		return response.getHeader(name);
+		return response != null ? response.getHeader(name) : null;
 	}
 
 	/**
@@ -77,6 +97,7 @@ public class OAuthResponse implements IJavaScriptType, IScriptable
 	@JSFunction
 	public String[] getHeaders()
 	{
+		if (response == null) return new String[0];
 		Set<String> headers = response.getHeaders().keySet();
 		return headers.toArray(new String[headers.size()]);
 	}
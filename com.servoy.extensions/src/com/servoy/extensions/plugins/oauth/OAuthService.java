@@ -19,8 +19,13 @@ package com.servoy.extensions.plugins.oauth;
 
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.mozilla.javascript.NativePromise;
 import org.mozilla.javascript.Scriptable;
 import org.mozilla.javascript.annotations.JSFunction;
 import org.slf4j.Logger;
@@ -37,6 +42,8 @@ import com.github.scribejava.core.oauth.AuthorizationUrlBuilder;
 import com.github.scribejava.core.oauth.OAuth20Service;
 import com.servoy.base.scripting.annotations.ServoyClientSupport;
 import com.servoy.j2db.documentation.ServoyDocumented;
+import com.servoy.j2db.plugins.IClientPluginAccess;
+import com.servoy.j2db.scripting.Deferred;
 import com.servoy.j2db.scripting.IJavaScriptType;
 import com.servoy.j2db.scripting.IScriptable;
 import com.servoy.j2db.util.Utils;
@@ -71,12 +78,18 @@ public class OAuthService implements IScriptable, IJavaScriptType
 {
 	public static final Logger log = LoggerFactory.getLogger("plugin.oauth");
 
+	static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 4;
+
 	private final OAuth20Service service;
 	private OAuth2AccessToken accessToken;
 	private String _refreshToken;
 	private final String state;
 	private Long accessTokenExpire = null;
 	private String idToken;
+	private IClientPluginAccess access;
+	private int maxConcurrentRequests = DEFAULT_MAX_CONCURRENT_REQUESTS;
+	private final Queue<Runnable> pendingRequests = new ConcurrentLinkedQueue<Runnable>();
+	private final AtomicInteger runningRequests = new AtomicInteger();
 
 	public OAuthService(OAuth20Service service, String state)
 	{
@@ -84,6 +97,15 @@ public class OAuthService implements IScriptable, IJavaScriptType
 		this.state = state;
 	}
 
+	/**
+	 * Enables the asynchronous request methods, the requests are executed on the executor of the client, at most maxConcurrentRequests at the same time.
+	 */
+	void setAsyncExecution(IClientPluginAccess pluginAccess, int maxConcurrent)
+	{
+		this.access = pluginAccess;
+		this.maxConcurrentRequests = maxConcurrent > 0 ? maxConcurrent : DEFAULT_MAX_CONCURRENT_REQUESTS;
+	}
+
 	/**
 	 *
 	 * @return The authorization URL for initiating the OAuth flow.
@@ -510,6 +532,184 @@ public class OAuthService implements IScriptable, IJavaScriptType
 		return null;
 	}
 
+	/**
+	 * Executes a request asynchronously, the script thread is not blocked while waiting for the remote server.
+	 * Returns a Promise that resolves with the OAuthResponse object or rejects with the error message if the request could not be executed.
+	 * The number of requests of this service that run at the same time is limited, see serviceBuilder.maxConcurrentRequests().
+	 *
+	 * @sample
+	 * var request = service.createGetRequest("https://api.linkedin.com/v2/me");
+	 * request.addHeader("Accept", "application/json");
+	 *
+	 * service.executeRequestAsync(request).then(function(response) {
+	 * 	if (response.getCode() == 200) {
+	 * 		application.output("Name is " + response.getAsJSON().firstName);
+	 * 	}
+	 * 	else {
+	 * 		application.output("ERROR http status " + response.getCode());
+	 * 	}
+	 * }).catch(function(errorMessage) {
+	 * 	application.output("Request failed: " + errorMessage);
+	 * });
+	 *
+	 * @param request the JSOAuthRequest object that was created by {@link #createRequest(Verb, String)}
+	 *
+	 * @return {Promise<OAuthResponse>} A Promise that resolves with the OAuthResponse object or rejects with an error message if the request fails.
+	 */
+	@JSFunction
+	public NativePromise executeRequestAsync(JSOAuthRequest request)
+	{
+		Deferred deferred = new Deferred(getPluginAccess());
+		if (request == null)
+		{
+			deferred.reject("Cannot execute a null request");
+			return deferred.getPromise();
+		}
+		executeAsync(request.getRequest()).whenComplete((response, ex) -> {
+			if (ex != null)
+			{
+				deferred.reject(ex.getCause() != null ? ex.getCause().getMessage() : ex.getMessage());
+			}
+			else
+			{
+				deferred.resolve(response);
+			}
+		});
+		return deferred.getPromise();
+	}
+
+	/**
+	 * Executes multiple requests asynchronously, at most maxConcurrentRequests (see serviceBuilder.maxConcurrentRequests()) of them at the same time.
+	 * Returns a Promise that resolves with an array of OAuthResponse objects when all requests are complete, in the same order as the requests.
+	 * Because some requests can fail while others succeed, this promise always resolves; the response of a request that could not be executed
+	 * has code 0 and the error message in getException().
+	 *
+	 * @sample
+	 * var requests = [];
+	 * for (var page = 1; page <= 100; page++) {
+	 * 	requests.push(service.createGetRequest("https://api.example.com/items?page=" + page));
+	 * }
+	 * service.executeRequestsAsync(requests).then(function(responses) {
+	 * 	for (var i = 0; i < responses.length; i++) {
+	 * 		if (responses[i].getException()) {
+	 * 			application.output("Request " + i + " failed: " + responses[i].getException());
+	 * 		}
+	 * 		else if (responses[i].getCode() == 200) {
+	 * 			application.output(responses[i].getAsJSON());
+	 * 		}
+	 * 	}
+	 * });
+	 *
+	 * @param requests the JSOAuthRequest objects that were created by {@link #createRequest(Verb, String)}
+	 *
+	 * @return {Promise<Array<OAuthResponse>>} A Promise that resolves with an array of OAuthResponse objects in the same order as the requests.
+	 */
+	@JSFunction
+	public NativePromise executeRequestsAsync(JSOAuthRequest[] requests)
+	{
+		Deferred deferred = new Deferred(getPluginAccess());
+		if (requests == null || requests.length == 0)
+		{
+			deferred.resolve(new Object[0]);
+			return deferred.getPromise();
+		}
+
+		OAuthResponse[] results = new OAuthResponse[requests.length];
+		CompletableFuture< ? >[] futures = new CompletableFuture< ? >[requests.length];
+		for (int i = 0; i < requests.length; i++)
+		{
+			final int index = i;
+			CompletableFuture<OAuthResponse> future = requests[i] != null ? executeAsync(requests[i].getRequest())
+				: CompletableFuture.completedFuture(new OAuthResponse("Cannot execute a null request"));
+			futures[i] = future.handle((response, ex) -> {
+				if (ex != null)
+				{
+					Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+					results[index] = new OAuthResponse(cause.getMessage() != null ? cause.getMessage() : cause.toString());
+				}
+				else
+				{
+					results[index] = response;
+				}
+				return null;
+			});
+		}
+		CompletableFuture.allOf(futures).whenComplete((v, ex) -> deferred.resolve(results));
+		return deferred.getPromise();
+	}
+
+	private CompletableFuture<OAuthResponse> executeAsync(OAuthRequest req)
+	{
+		CompletableFuture<OAuthResponse> future = new CompletableFuture<>();
+		try
+		{
+			// refresh and sign on the calling thread, so that concurrent requests never refresh the token at the same time
+			checkAccessTokenExpired();
+			service.signRequest(accessToken, req);
+		}
+		catch (RuntimeException e)
+		{
+			future.completeExceptionally(e);
+			return future;
+		}
+
+		submitAsync(() -> {
+			try
+			{
+				Response response = service.execute(req);
+				future.complete(ResponseFactory.create(response));
+			}
+			catch (Exception e)
+			{
+				log.error("Could not execute request " + req.getUrl(), e);
+				future.completeExceptionally(e);
+			}
+		});
+		return future;
+	}
+
+	private IClientPluginAccess getPluginAccess()
+	{
+		if (access == null) throw new IllegalStateException("Asynchronous requests are not supported by this OAuth service.");
+		return access;
+	}
+
+	/**
+	 * Runs the request on the executor of the client, at most maxConcurrentRequests of this service at the same time; the others wait in the queue.
+	 */
+	private void submitAsync(Runnable request)
+	{
+		pendingRequests.add(request);
+		dispatchAsync();
+	}
+
+	private void dispatchAsync()
+	{
+		while (!pendingRequests.isEmpty())
+		{
+			int running = runningRequests.get();
+			if (running >= maxConcurrentRequests) return;
+			if (!runningRequests.compareAndSet(running, running + 1)) continue;
+			Runnable request = pendingRequests.poll();
+			if (request == null)
+			{
+				runningRequests.decrementAndGet();
+				continue;
+			}
+			getPluginAccess().getExecutor().execute(() -> {
+				try
+				{
+					request.run();
+				}
+				finally
+				{
+					runningRequests.decrementAndGet();
+					dispatchAsync();
+				}
+			});
+		}
+	}
+
 	/**
 	 * This is for the implicit grant flow, when we don't need to make a second request because the response already contains the access token.
 	 */
@@ -29,6 +29,7 @@ import org.mozilla.javascript.annotations.JSFunction;
 
 import com.github.scribejava.core.builder.ServiceBuilder;
 import com.github.scribejava.core.builder.api.DefaultApi20;
+import com.github.scribejava.core.httpclient.jdk.JDKHttpClientConfig;
 import com.github.scribejava.core.oauth.AccessTokenRequestParams;
 import com.github.scribejava.core.oauth.AuthorizationUrlBuilder;
 import com.github.scribejava.core.oauth.OAuth20Service;
@@ -86,6 +87,8 @@ public class OAuthServiceBuilder implements IScriptable, IJavaScriptType
 	private String refreshToken;
 	private String _scope;
 	private boolean withClientCredentials;
+	private int maxConcurrentRequests = OAuthService.DEFAULT_MAX_CONCURRENT_REQUESTS;
+	private JDKHttpClientConfig httpClientConfig;
 
 	private static final String GET_CODE_METHOD = "getSvyOAuthCode";
 	private static final String SVY_AUTH_CODE_VAR = "svy_authCode";
@@ -340,6 +343,69 @@ public class OAuthServiceBuilder implements IScriptable, IJavaScriptType
 		return this;
 	}
 
+	/**
+	 * Sets the maximum number of requests of the built service that are executed at the same time
+	 * by service.executeRequestAsync() and service.executeRequestsAsync(), the other requests are queued. Default is 4.
+	 *
+	 * @sample
+	 * var service = plugins.oauth.serviceBuilder(clientId)
+	 *          .clientSecret(clientSecret)
+	 *          .withClientCredentials()
+	 *          .maxConcurrentRequests(10)
+	 *          .build(plugins.oauth.OAuthProviders.MICROSOFT_AD);
+	 *
+	 * @param max the maximum number of concurrent asynchronous requests
+	 * @return the service builder for method chaining
+	 */
+	@JSFunction
+	public OAuthServiceBuilder maxConcurrentRequests(int max)
+	{
+		if (max < 1) throw new IllegalArgumentException("The maximum number of concurrent requests should be at least 1");
+		this.maxConcurrentRequests = max;
+		return this;
+	}
+
+	/**
+	 * Sets the connect timeout of the http connections used by the service.
+	 * @param timeout the connect timeout in milliseconds
+	 * @return the service builder for method chaining
+	 */
+	@JSFunction
+	public OAuthServiceBuilder connectTimeout(int timeout)
+	{
+		getHttpClientConfig().setConnectTimeout(Integer.valueOf(timeout));
+		return this;
+	}
+
+	/**
+	 * Sets the read timeout of the http connections used by the service.
+	 * @param timeout the read timeout in milliseconds
+	 * @return the service builder for method chaining
+	 */
+	@JSFunction
+	public OAuthServiceBuilder readTimeout(int timeout)
+	{
+		getHttpClientConfig().setReadTimeout(Integer.valueOf(timeout));
+		return this;
+	}
+
+	private JDKHttpClientConfig getHttpClientConfig()
+	{
+		if (httpClientConfig == null)
+		{
+			httpClientConfig = JDKHttpClientConfig.defaultConfig();
+			builder.httpClientConfig(httpClientConfig);
+		}
+		return httpClientConfig;
+	}
+
+	private OAuthService createService(OAuth20Service service)
+	{
+		OAuthService oauthService = new OAuthService(service, _state);
+		oauthService.setAsyncExecution(provider.getPluginAccess(), maxConcurrentRequests);
+		return oauthService;
+	}
+
 	/**
 	 * Get the authorization url. This is for DEBUGGING PURPOSES ONLY.
 	 * @param api an OAuth provider id, see plugins.oauth.OAuthProviders
@@ -368,7 +434,7 @@ public class OAuthServiceBuilder implements IScriptable, IJavaScriptType
 		String redirectURL = provider.getRedirectURL(deeplink_name, isFragmentResponse());
 		builder.callback(redirectURL);
 		OAuth20Service service = builder.build(api.build());
-		return getAuthUrlBuilder(new OAuthService(service, _state)).build();
+		return getAuthUrlBuilder(createService(service)).build();
 	}
 
 	/**
@@ -402,7 +468,7 @@ public class OAuthServiceBuilder implements IScriptable, IJavaScriptType
 			//first try to refresh the token if possible
 			try
 			{
-				OAuthService service = new OAuthService(builder.build(api), _state);
+				OAuthService service = createService(builder.build(api));
 				service.refreshToken(refreshToken, _scope);
 				if (_callback != null) executeCallback(service, null);
 				return service;
@@ -418,7 +484,7 @@ public class OAuthServiceBuilder implements IScriptable, IJavaScriptType
 
 		if (withClientCredentials)
 		{
-			OAuthService service = new OAuthService(builder.build(api), _state);
+			OAuthService service = createService(builder.build(api));
 			service.setAccessTokenClientCredentialsGrant();
 			if (_callback != null) executeCallback(service, null);
 			return service;
@@ -434,7 +500,7 @@ public class OAuthServiceBuilder implements IScriptable, IJavaScriptType
 		builder.callback(redirectURL);
 		if (OAuthService.log.isDebugEnabled()) OAuthService.log.debug("Redirect url " + redirectURL);
 
-		OAuthService service = new OAuthService(builder.build(api), _state);
+		OAuthService service = createService(builder.build(api));
 		return _callback != null ? buildWithCallback(generateGlobalMethods, deeplink_name, service) : service;
 	}
 
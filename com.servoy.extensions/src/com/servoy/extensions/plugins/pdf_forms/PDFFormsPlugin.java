@@ -21,6 +21,7 @@ import java.util.Map;
 import java.util.Properties;
 
 import com.servoy.extensions.plugins.pdf_forms.servlets.PDFServlet;
+import com.servoy.extensions.plugins.pdf_forms.servlets.PDFTemplateCache;
 import com.servoy.j2db.documentation.ServoyDocumented;
 import com.servoy.j2db.plugins.IServerAccess;
 import com.servoy.j2db.plugins.IServerPlugin;
@@ -48,9 +49,12 @@ import com.servoy.j2db.preference.PreferencePanel;
 @ServoyDocumented(publicName = "pdf_forms")
 public class PDFFormsPlugin implements IServerPlugin
 {
+	private PDFServlet servlet;
+
 	public void initialize(IServerAccess app) throws PluginException
 	{
-		app.registerWebService("pdf_forms", new PDFServlet(app)); //$NON-NLS-1$
+		servlet = new PDFServlet(app);
+		app.registerWebService("pdf_forms", servlet); //$NON-NLS-1$
 	}
 
 	public PreferencePanel[] getPreferencePanels()
@@ -63,6 +67,8 @@ public class PDFFormsPlugin implements IServerPlugin
 		HashMap req = new HashMap();
 		req.put(PDFServlet.SERVER_NAME_PROPERTY, "The name of the server to locate the required pdf_form_values,pdf_templates,pdf_actions SQL tabels"); //$NON-NLS-1$
 		req.put(PDFServlet.TEMPLATE_LOCATION_PROPERTY, "The url to retrieve the pdf templates(using file name from database)"); //$NON-NLS-1$
+		req.put(PDFServlet.TEMPLATE_CACHE_SIZE_PROPERTY, "The maximum size in MB of the cached pdf templates, 0 to disable the cache (default 32)"); //$NON-NLS-1$
+		req.put(PDFServlet.TEMPLATE_CACHE_TIMEOUT_PROPERTY, "The time in seconds a pdf template is cached before it is read again from the database (default 300)"); //$NON-NLS-1$
 		return req;
 	}
 
@@ -72,6 +78,16 @@ public class PDFFormsPlugin implements IServerPlugin
 
 	public void unload() throws PluginException
 	{
+		if (servlet != null) servlet.getTemplateCache().clear();
+	}
+
+	/**
+	 * The cache of the pdf templates, null if the plugin is not initialized. A template that is changed in the pdf_templates table
+	 * can be invalidated in it to be used before the cache timeout.
+	 */
+	public PDFTemplateCache getTemplateCache()
+	{
+		return servlet == null ? null : servlet.getTemplateCache();
 	}
 
 	public Properties getProperties()
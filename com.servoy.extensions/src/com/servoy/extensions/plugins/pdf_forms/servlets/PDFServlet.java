@@ -44,8 +44,7 @@ import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
 import com.adobe.fdf.FDFDoc;
-import com.lowagie.text.pdf.PdfReader;
-import com.lowagie.text.pdf.XfaForm;
+import com.servoy.extensions.plugins.pdf_forms.servlets.PDFTemplateCache.PDFTemplate;
 import com.servoy.j2db.dataprocessing.IDataServer;
 import com.servoy.j2db.dataprocessing.IDataSet;
 import com.servoy.j2db.dataprocessing.ISQLActionTypes;
@@ -75,6 +74,8 @@ public class PDFServlet extends HttpServlet
 	private static final String URL_PROPERTY = "servoy_pdf_submit_url";
 	public static final String SERVER_NAME_PROPERTY = "pdf_forms_plugin_servername";//$NON-NLS-1$
 	public static final String TEMPLATE_LOCATION_PROPERTY = "pdf_forms_plugin_template_location";//$NON-NLS-1$
+	public static final String TEMPLATE_CACHE_SIZE_PROPERTY = "pdf_forms_plugin_template_cache_size";//$NON-NLS-1$
+	public static final String TEMPLATE_CACHE_TIMEOUT_PROPERTY = "pdf_forms_plugin_template_cache_timeout";//$NON-NLS-1$
 //	private static final int VIEW = 0;
 	private static final int EDIT = 1;
 	private static Random rnd = new Random();
@@ -89,6 +90,7 @@ public class PDFServlet extends HttpServlet
 	private HashMap<String, Integer> valuesColumnOrder;
 	private String valuesColumnInsertString;
 	private String genericTemplateLocation;
+	private final PDFTemplateCache templateCache;
 
 	public PDFServlet(IServerAccess app)
 	{
@@ -100,6 +102,19 @@ public class PDFServlet extends HttpServlet
 		{
 			genericTemplateLocation += "/";
 		}
+		// size in MB, timeout in seconds
+		long cacheSize = Utils.getAsLong(app.getSettings().getProperty(TEMPLATE_CACHE_SIZE_PROPERTY, "32"));
+		long cacheTimeout = Utils.getAsLong(app.getSettings().getProperty(TEMPLATE_CACHE_TIMEOUT_PROPERTY, "300"));
+		templateCache = new PDFTemplateCache(cacheSize * 1024 * 1024, cacheTimeout * 1000);
+	}
+
+	/**
+	 * The cache of the parsed templates, a template must be invalidated when it is changed in the pdf_templates table
+	 * to see the changes before the cache timeout.
+	 */
+	public PDFTemplateCache getTemplateCache()
+	{
+		return templateCache;
 	}
 
 	@Override
@@ -150,17 +165,10 @@ public class PDFServlet extends HttpServlet
 						if (closed == 0)
 						{
 							Map<String, String> values = new HashMap<String, String>();
-							byte[] pdfContent = null;
-							Statement stContent = conn.createStatement();
-							ResultSet rsContent = stContent.executeQuery("select actual_pdf_form from pdf_templates where template_id = " + template_id);
-							if (rsContent.next())
-							{
-								pdfContent = rsContent.getBytes(1);
-							}
-							PdfReader reader = new PdfReader(pdfContent);
-							XfaForm xfa = new XfaForm(reader);
+							PDFTemplate template = templateCache.get(conn, template_id);
+							boolean xfaPresent = template != null && template.isXfaPresent();
 							FDFDoc outputFDF = null;
-							if (!xfa.isXfaPresent())
+							if (!xfaPresent)
 							{
 								outputFDF = new FDFDoc();
 							}
@@ -168,7 +176,7 @@ public class PDFServlet extends HttpServlet
 							String sub = uri.substring(0, uri.length() - path.length());
 							String url = base + sub + "/pdf_forms/pdf_process_data";
 
-							if (action_type == EDIT || !xfa.isXfaPresent())
+							if (action_type == EDIT || !xfaPresent)
 							{
 								values.put(ACTION_PROPERTY, Integer.toString(action_id));
 								Debug.trace("Using " + URL_PROPERTY + ": " + url);
@@ -189,16 +197,11 @@ public class PDFServlet extends HttpServlet
 							//get name
 							String filename = "fromdb";
 							boolean skipButton = false;
-							Statement st2 = conn.createStatement();
-							ResultSet rs2 = st2
-								.executeQuery("select filename,skip_placing_submit_button from pdf_templates where template_id = " + template_id);
-							if (rs2.next())
+							if (template != null)
 							{
-								filename = rs2.getString(1);
-								skipButton = rs2.getBoolean(2);
+								filename = template.filename;
+								skipButton = template.skipButton;
 							}
-							rs2.close();
-							st2.close();
 
 							String templateLocation = request.getParameter("overrideTemplateLocation");
 							;
@@ -328,12 +331,11 @@ public class PDFServlet extends HttpServlet
 					if (conn == null) Debug.error("Could not find Server " + PDF_SERVER);
 					if (conn != null)
 					{
-						Statement st = conn.createStatement();
-						ResultSet rs = st.executeQuery("select actual_pdf_form from pdf_templates where template_id = " + template_id);
-						if (rs.next())
+						PDFTemplate template = templateCache.get(conn, template_id);
+						if (template != null)
 						{
 							response.setContentType("application/pdf");
-							byte[] array = rs.getBytes(1);
+							byte[] array = template.content;
 							if (array != null)
 							{
 								response.setContentLength(array.length);
@@ -346,8 +348,6 @@ public class PDFServlet extends HttpServlet
 								response.sendError(404);
 							}
 						}
-						rs.close();
-						st.close();
 					}
 					return;
 				}
@@ -503,79 +503,83 @@ public class PDFServlet extends HttpServlet
 								}
 							}
 
-							Iterator it = values.keySet().iterator();
-							while (it.hasNext())
+							// all the changes are send in one performUpdates call
+							List<ISQLStatement> statements = new ArrayList<ISQLStatement>(values.size() + currentValues.size() + 1);
+							List<String> newNames = new ArrayList<String>();
+							for (Map.Entry<String, String> entry : values.entrySet())
 							{
-								String name = (String)it.next();
+								String name = entry.getKey();
 								if (name.equals(ACTION_PROPERTY) || name.equals(URL_PROPERTY)) continue;
-								String val = values.get(name);
-
-								ISQLStatement ps = null;
 								if (!currentValues.containsKey(name))
 								{
-									Number i = (Number)app.getNextSequence(PDF_SERVER, "pdf_form_values", "fval_id");
-									Object[] pkData;
-									Object[] questionData;
-									String sql2;
-									// In case we work with DBIDENT (this is the meaning of getting back a NULL), we don't send the id to the database.
-									if (i == null)
-									{
-										pkData = new Object[] { };
-										questionData = new Object[3];
-										if (valuesColumnOrderWithoutPk == null) createValuesColumnOrderWithoutPk();
-										questionData[valuesColumnOrderWithoutPk.get("form_id")] = new Integer(form_id);
-										questionData[valuesColumnOrderWithoutPk.get("value_name")] = name;
-										questionData[valuesColumnOrderWithoutPk.get("field_value")] = val;
-
-										sql2 = "insert into pdf_form_values (" + valuesColumnInsertStringWithoutPk + ") values (?,?,?)";
-									}
-									else
-									{
-										pkData = new Object[] { i };
-										questionData = new Object[4];
-										if (valuesColumnOrder == null) createValuesColumnOrder();
-										questionData[valuesColumnOrder.get("fval_id")] = i;
-										questionData[valuesColumnOrder.get("form_id")] = new Integer(form_id);
-										questionData[valuesColumnOrder.get("value_name")] = name;
-										questionData[valuesColumnOrder.get("field_value")] = val;
-
-										sql2 = "insert into pdf_form_values (" + valuesColumnInsertString + ") values (?,?,?,?)";
-									}
-									ps = ds.createSQLStatement(ISQLActionTypes.INSERT_ACTION, PDF_SERVER, "pdf_form_values", pkData, null, sql2, questionData);
+									newNames.add(name);
 								}
 								else
 								{
 									Number fval_id = (Number)currentValues.get(name);
 									Object[] pkData = new Object[] { fval_id };
-									Object[] questionData = new Object[] { val, fval_id };
+									Object[] questionData = new Object[] { entry.getValue(), fval_id };
 									String sql2 = "update pdf_form_values set field_value = ? where fval_id = ?";
-									ps = ds.createSQLStatement(ISQLActionTypes.UPDATE_ACTION, PDF_SERVER, "pdf_form_values", pkData, null, sql2, questionData);
+									statements.add(
+										ds.createSQLStatement(ISQLActionTypes.UPDATE_ACTION, PDF_SERVER, "pdf_form_values", pkData, null, sql2, questionData));
 
 									currentValues.remove(name);
 								}
-								ds.performUpdates(ApplicationServerRegistry.get().getClientId(), new ISQLStatement[] { ps });
+							}
+
+							Number[] sequences = allocateSequences(newNames.size());
+							for (int n = 0; n < newNames.size(); n++)
+							{
+								String name = newNames.get(n);
+								String val = values.get(name);
+								Number i = sequences[n];
+								Object[] pkData;
+								Object[] questionData;
+								String sql2;
+								// In case we work with DBIDENT (this is the meaning of getting back a NULL), we don't send the id to the database.
+								if (i == null)
+								{
+									pkData = new Object[] { };
+									questionData = new Object[3];
+									if (valuesColumnOrderWithoutPk == null) createValuesColumnOrderWithoutPk();
+									questionData[valuesColumnOrderWithoutPk.get("form_id")] = new Integer(form_id);
+									questionData[valuesColumnOrderWithoutPk.get("value_name")] = name;
+									questionData[valuesColumnOrderWithoutPk.get("field_value")] = val;
+
+									sql2 = "insert into pdf_form_values (" + valuesColumnInsertStringWithoutPk + ") values (?,?,?)";
+								}
+								else
+								{
+									pkData = new Object[] { i };
+									questionData = new Object[4];
+									if (valuesColumnOrder == null) createValuesColumnOrder();
+									questionData[valuesColumnOrder.get("fval_id")] = i;
+									questionData[valuesColumnOrder.get("form_id")] = new Integer(form_id);
+									questionData[valuesColumnOrder.get("value_name")] = name;
+									questionData[valuesColumnOrder.get("field_value")] = val;
+
+									sql2 = "insert into pdf_form_values (" + valuesColumnInsertString + ") values (?,?,?,?)";
+								}
+								statements.add(
+									ds.createSQLStatement(ISQLActionTypes.INSERT_ACTION, PDF_SERVER, "pdf_form_values", pkData, null, sql2, questionData));
 							}
 
 							//delete the leftovers (it seems empty fields are not always submitted)
-							List delList = new ArrayList();
 							Iterator it2 = currentValues.values().iterator();
 							while (it2.hasNext())
 							{
 								Object fval_id = it2.next();
 								Object[] pkData = new Object[] { fval_id };
 								Object[] questionData = new Object[] { fval_id };
-								ISQLStatement ps = ds.createSQLStatement(ISQLActionTypes.DELETE_ACTION, PDF_SERVER, "pdf_form_values", pkData, null,
-									"delete from pdf_form_values where fval_id = ?", questionData);
-								delList.add(ps);
+								statements.add(ds.createSQLStatement(ISQLActionTypes.DELETE_ACTION, PDF_SERVER, "pdf_form_values", pkData, null,
+									"delete from pdf_form_values where fval_id = ?", questionData));
 							}
-							ds.performUpdates(ApplicationServerRegistry.get().getClientId(),
-								(ISQLStatement[])delList.toArray(new ISQLStatement[delList.size()]));
 
 							Object[] pkData = new Object[] { new Integer(action_id) };
 							Object[] questionData = new Object[] { new Integer(action_id) };
 							String sql5 = "update pdf_actions set closed = 1 where action_id = ?";
-							ds.performUpdates(ApplicationServerRegistry.get().getClientId(), new ISQLStatement[] { ds.createSQLStatement(
-								ISQLActionTypes.UPDATE_ACTION, PDF_SERVER, "pdf_actions", pkData, null, sql5, questionData) });
+							statements.add(ds.createSQLStatement(ISQLActionTypes.UPDATE_ACTION, PDF_SERVER, "pdf_actions", pkData, null, sql5, questionData));
+							ds.performUpdates(ApplicationServerRegistry.get().getClientId(), statements.toArray(new ISQLStatement[statements.size()]));
 						}
 						else
 						{
@@ -624,6 +628,21 @@ public class PDFServlet extends HttpServlet
 		}
 	}
 
+	/**
+	 * Gets the fval_id sequence values for the new rows before the statements are created, so that all the inserts can be send at once.
+	 * When the first value is null the column is a database identity and no more sequences are requested.
+	 */
+	private Number[] allocateSequences(int count) throws Exception
+	{
+		Number[] sequences = new Number[count];
+		for (int i = 0; i < count; i++)
+		{
+			sequences[i] = (Number)app.getNextSequence(PDF_SERVER, "pdf_form_values", "fval_id");
+			if (sequences[i] == null) break;
+		}
+		return sequences;
+	}
+
 	private List<String> getValuesTableColumnNames()
 	{
 		// sorts and returns relevant column names
@@ -0,0 +1,175 @@
+/*
+ This file belongs to the Servoy development and deployment environment, Copyright (C) 1997-2026 Servoy BV
+
+ This program is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Affero General Public License as published by the Free
+ Software Foundation; either version 3 of the License, or (at your option) any
+ later version.
+
+ This program is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more details.
+
+ You should have received a copy of the GNU Affero General Public License along
+ with this program; if not, see http://www.gnu.org/licenses or write to the Free
+ Software Foundation,Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301
+ */
+package com.servoy.extensions.plugins.pdf_forms.servlets;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.XfaForm;
+
+/**
+ * Size bounded cache of the pdf templates (the pdf_templates table), keyed by template id.
+ * <p>
+ * A template is read from the database once, the cache keeps the pdf bytes and, when a form is created from it, the parse result
+ * (is it an xfa form) so the {@link PdfReader} is not needed anymore for the next requests. Entries expire after the configured time so that changes in the table
+ * are picked up, and can be invalidated directly with {@link #invalidate(int)}.
+ */
+public class PDFTemplateCache
+{
+	private final long maxBytes;
+	private final long timeout;
+	private long currentBytes;
+
+	private final LinkedHashMap<Integer, PDFTemplate> templates = new LinkedHashMap<Integer, PDFTemplate>(16, 0.75f, true);
+
+	/**
+	 * @param maxBytes the maximum total size of the cached templates, 0 disables the cache
+	 * @param timeout the time in milliseconds a template is cached
+	 */
+	PDFTemplateCache(long maxBytes, long timeout)
+	{
+		this.maxBytes = maxBytes;
+		this.timeout = timeout;
+	}
+
+	/**
+	 * @return the template, null if it doesn't exist
+	 */
+	PDFTemplate get(Connection conn, int template_id) throws SQLException
+	{
+		Integer key = Integer.valueOf(template_id);
+		synchronized (this)
+		{
+			PDFTemplate template = templates.get(key);
+			if (template != null)
+			{
+				if (System.currentTimeMillis() - template.loaded < timeout) return template;
+				remove(key);
+			}
+		}
+
+		PDFTemplate template = load(conn, template_id);
+		if (template != null && maxBytes > 0 && template.size() <= maxBytes)
+		{
+			synchronized (this)
+			{
+				remove(key);
+				templates.put(key, template);
+				currentBytes += template.size();
+				Iterator<PDFTemplate> it = templates.values().iterator();
+				while (currentBytes > maxBytes && it.hasNext())
+				{
+					currentBytes -= it.next().size();
+					it.remove();
+				}
+			}
+		}
+		return template;
+	}
+
+	/**
+	 * Removes the template from the cache, so it is read again from the database on the next request.
+	 */
+	public synchronized void invalidate(int template_id)
+	{
+		remove(Integer.valueOf(template_id));
+	}
+
+	public synchronized void clear()
+	{
+		templates.clear();
+		currentBytes = 0;
+	}
+
+	private void remove(Integer key)
+	{
+		PDFTemplate removed = templates.remove(key);
+		if (removed != null) currentBytes -= removed.size();
+	}
+
+	@SuppressWarnings("nls")
+	private static PDFTemplate load(Connection conn, int template_id) throws SQLException
+	{
+		try (PreparedStatement ps = conn.prepareStatement(
+			"select actual_pdf_form,filename,skip_placing_submit_button from pdf_templates where template_id = ?"))
+		{
+			ps.setInt(1, template_id);
+			try (ResultSet rs = ps.executeQuery())
+			{
+				if (!rs.next()) return null;
+				byte[] content = rs.getBytes(1);
+				String filename = rs.getString(2);
+				boolean skipButton = rs.getBoolean(3);
+				return new PDFTemplate(template_id, content, filename, skipButton);
+			}
+		}
+	}
+
+	static final class PDFTemplate
+	{
+		final int template_id;
+		final byte[] content;
+		final String filename;
+		final boolean skipButton;
+		final long loaded = System.currentTimeMillis();
+		private Boolean xfaPresent;
+
+		PDFTemplate(int template_id, byte[] content, String filename, boolean skipButton)
+		{
+			this.template_id = template_id;
+			this.content = content;
+			this.filename = filename;
+			this.skipButton = skipButton;
+		}
+
+		/**
+		 * Parses the template the first time it is needed, the plain template download doesn't need to parse it.
+		 */
+		synchronized boolean isXfaPresent() throws IOException
+		{
+			if (xfaPresent == null)
+			{
+				if (content == null) return false;
+				PdfReader reader = new PdfReader(content);
+				try
+				{
+					xfaPresent = Boolean.valueOf(new XfaForm(reader).isXfaPresent());
+				}
+				catch (Exception e)
+				{
+					throw new IOException("Can't read the xfa form of template " + template_id, e); //$NON-NLS-1$
+				}
+				finally
+				{
+					reader.close();
+				}
+			}
+			return xfaPresent.booleanValue();
+		}
+
+		long size()
+		{
+			return content == null ? 0 : content.length;
+		}
+	}
+}
@@ -18,6 +18,7 @@ import com.lowagie.text.Image;
 import com.lowagie.text.pdf.BaseFont;
 import com.lowagie.text.pdf.PdfContentByte;
 import com.lowagie.text.pdf.PdfEncryptor;
+import com.lowagie.text.pdf.PdfImportedPage;
 import com.lowagie.text.pdf.PdfReader;
 import com.lowagie.text.pdf.PdfStamper;
 import com.servoy.j2db.Messages;
@@ -61,22 +62,8 @@ public class ITextTools
 		PdfStamper stamp = new PdfStamper(reader, outputStream);
 		try
 		{
-			int i = 0;
-			PdfContentByte over = null;
-
-			BaseFont bf = BaseFont.createFont(font, BaseFont.CP1252, BaseFont.EMBEDDED);
-			while (i < totalPages)
-			{
-				i++;
-				over = stamp.getOverContent(i);
-				over.beginText();
-				over.setColorFill(fontColor);
-				over.setFontAndSize(bf, fontSize);
-				over.setTextMatrix(locationX, locationY);// x, y
-				over.showText("Page " + i + " of " + totalPages); //$NON-NLS-1$//$NON-NLS-2$
-				over.endText();
-			}
-
+			BaseFont bf = PDFFontRegistry.getFont(font, BaseFont.CP1252, BaseFont.EMBEDDED);
+			numberPages(stamp, totalPages, fontSize, locationX, locationY, bf, fontColor);
 		}
 		finally
 		{
@@ -116,25 +103,7 @@ public class ITextTools
 		PdfStamper stamp = new PdfStamper(reader, outputStream);
 		try
 		{
-			watermark.setAbsolutePosition(locationX, locationY);
-			int i = 0;
-			PdfContentByte under = null;
-
-			int[] pagesToWatermark = convertStringArrayToIntArray(pages);
-
-			while (i < totalPages)
-			{
-				i++;
-				if (pagesToWatermark == null || Arrays.binarySearch(pagesToWatermark, i) >= 0)
-				{
-					if (isOver) under = stamp.getOverContent(i);
-					else under = stamp.getUnderContent(i);
-					under.beginText();
-					under.addImage(watermark);
-					under.endText();
-				}
-			}
-
+			watermark(stamp, totalPages, watermark, locationX, locationY, isOver, convertStringArrayToIntArray(pages));
 		}
 		finally
 		{
@@ -169,42 +138,11 @@ public class ITextTools
 		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
 		PdfStamper stamp = new PdfStamper(reader, outputStream);
 
-		PdfContentByte under;
-
 		PdfReader reader2 = new PdfReader(mergeInputStream);
 
 		try
 		{
-			int i = 0;
-			int[] pagesToStamp = convertStringArrayToIntArray(pages);
-
-			if (pages != null)
-			{
-				while (i < totalPages)
-				{
-					i++;
-
-					if (Arrays.binarySearch(pagesToStamp, i) >= 0)
-					{
-						if (isOver) under = stamp.getOverContent(i);
-						else under = stamp.getUnderContent(i);
-
-						under.addTemplate(stamp.getImportedPage(reader2, 1), 1, 0, 0, 1, 0, 0);
-					}
-				}
-			}
-			else
-			{
-				while (i < totalPages)
-				{
-					i++;
-
-					if (isOver) under = stamp.getOverContent(i);
-					else under = stamp.getUnderContent(i);
-
-					under.addTemplate(stamp.getImportedPage(reader2, 1), 1, 0, 0, 1, 0, 0);
-				}
-			}
+			overlay(stamp, totalPages, reader2, isOver, convertStringArrayToIntArray(pages));
 		}
 		finally
 		{
@@ -275,21 +213,8 @@ public class ITextTools
 
 		try
 		{
-			int i = 0;
-			PdfContentByte over = null;
-
-			BaseFont bf = BaseFont.createFont(font, BaseFont.CP1252, BaseFont.EMBEDDED);
-			while (i < totalPages)
-			{
-				i++;
-				if (isOver) over = stamp.getOverContent(i);
-				else over = stamp.getUnderContent(i);
-				over.beginText();
-				over.setColorFill(fontColor);
-				over.setFontAndSize(bf, fontSize);
-				over.showTextAligned(Element.ALIGN_CENTER, text, locationX, locationY, angle);
-				over.endText();
-			}
+			BaseFont bf = PDFFontRegistry.getFont(font, BaseFont.CP1252, BaseFont.EMBEDDED);
+			overlayText(stamp, totalPages, text, locationX, locationY, isOver, fontSize, bf, fontColor, angle);
 		}
 		finally
 		{
@@ -300,6 +225,79 @@ public class ITextTools
 		return outputStream.toByteArray();
 	}
 
+	/**
+	 * Adds page numbers ("Page x of y") over the content of all the pages of the stamper.
+	 */
+	static void numberPages(PdfStamper stamp, int totalPages, int fontSize, int locationX, int locationY, BaseFont bf, Color fontColor)
+	{
+		for (int i = 1; i <= totalPages; i++)
+		{
+			PdfContentByte over = stamp.getOverContent(i);
+			over.beginText();
+			over.setColorFill(fontColor);
+			over.setFontAndSize(bf, fontSize);
+			over.setTextMatrix(locationX, locationY);// x, y
+			over.showText("Page " + i + " of " + totalPages); //$NON-NLS-1$//$NON-NLS-2$
+			over.endText();
+		}
+	}
+
+	/**
+	 * Adds the watermark image to the pages of the stamper.
+	 *
+	 * @param pages the sorted page numbers to put the watermark on, null for all pages
+	 */
+	static void watermark(PdfStamper stamp, int totalPages, Image watermark, int locationX, int locationY, boolean isOver, int[] pages)
+		throws DocumentException
+	{
+		watermark.setAbsolutePosition(locationX, locationY);
+		for (int i = 1; i <= totalPages; i++)
+		{
+			if (pages == null || Arrays.binarySearch(pages, i) >= 0)
+			{
+				PdfContentByte content = isOver ? stamp.getOverContent(i) : stamp.getUnderContent(i);
+				content.beginText();
+				content.addImage(watermark);
+				content.endText();
+			}
+		}
+	}
+
+	/**
+	 * Adds the first page of the overlay to the pages of the stamper, the overlay reader must stay open until the stamper is closed.
+	 *
+	 * @param pages the sorted page numbers to put the overlay on, null for all pages
+	 */
+	static void overlay(PdfStamper stamp, int totalPages, PdfReader overlayReader, boolean isOver, int[] pages)
+	{
+		PdfImportedPage page = stamp.getImportedPage(overlayReader, 1);
+		for (int i = 1; i <= totalPages; i++)
+		{
+			if (pages == null || Arrays.binarySearch(pages, i) >= 0)
+			{
+				PdfContentByte content = isOver ? stamp.getOverContent(i) : stamp.getUnderContent(i);
+				content.addTemplate(page, 1, 0, 0, 1, 0, 0);
+			}
+		}
+	}
+
+	/**
+	 * Adds the text to all the pages of the stamper.
+	 */
+	static void overlayText(PdfStamper stamp, int totalPages, String text, int locationX, int locationY, boolean isOver, int fontSize, BaseFont bf,
+		Color fontColor, int angle)
+	{
+		for (int i = 1; i <= totalPages; i++)
+		{
+			PdfContentByte content = isOver ? stamp.getOverContent(i) : stamp.getUnderContent(i);
+			content.beginText();
+			content.setColorFill(fontColor);
+			content.setFontAndSize(bf, fontSize);
+			content.showTextAligned(Element.ALIGN_CENTER, text, locationX, locationY, angle);
+			content.endText();
+		}
+	}
+
 	/**
 	 * Adds meta data to the PDF provided as an {@link InputStream}<br/>
 	 * Method adapted from the PDF Pro plugin with full approval from the author
@@ -368,15 +366,15 @@ public class ITextTools
 	}
 
 	/**
-	 * Utility method to transform an array of String into an array of int<br/>
+	 * Utility method to transform an array of String into a sorted array of int<br/>
 	 * Method adapted from the PDF Pro plugin with full approval from the author
 	 *
 	 * @author Scott Buttler
 	 *
 	 * @param arr the String array to convert
-	 * @return an array of int
+	 * @return a sorted array of int, null if the array is null or contains something else than numbers
 	 */
-	private static int[] convertStringArrayToIntArray(String[] arr)
+	static int[] convertStringArrayToIntArray(String[] arr)
 	{
 		try
 		{
@@ -387,7 +385,8 @@ public class ITextTools
 			{
 				intArr[i] = Integer.parseInt(arr[i]);
 			}
-
+			// the pages are looked up with a binary search
+			Arrays.sort(intArr);
 			return intArr;
 		}
 		catch (Exception e)
@@ -0,0 +1,55 @@
+/*
+ This file belongs to the Servoy development and deployment environment, Copyright (C) 1997-2026 Servoy BV
+
+ This program is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Affero General Public License as published by the Free
+ Software Foundation; either version 3 of the License, or (at your option) any
+ later version.
+
+ This program is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more details.
+
+ You should have received a copy of the GNU Affero General Public License along
+ with this program; if not, see http://www.gnu.org/licenses or write to the Free
+ Software Foundation,Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301
+ */
+package com.servoy.extensions.plugins.pdf_output;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process wide thread pool for the pdf work that is split over threads (rendering pages, preparing merge inputs).
+ * <p>
+ * The pool is bounded by the number of processors, so concurrent calls of all clients share those threads instead of each creating their own.
+ * The tasks never wait for other tasks of this pool, the idle threads are stopped after a while.
+ */
+final class PDFExecutor
+{
+	static final int THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+	private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(THREADS, THREADS, 30, TimeUnit.SECONDS,
+		new LinkedBlockingQueue<Runnable>(), r -> {
+			Thread thread = new Thread(r, "PDF worker"); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		});
+
+	static
+	{
+		EXECUTOR.allowCoreThreadTimeOut(true);
+	}
+
+	private PDFExecutor()
+	{
+	}
+
+	static <T> Future<T> submit(Callable<T> task)
+	{
+		return EXECUTOR.submit(task);
+	}
+}
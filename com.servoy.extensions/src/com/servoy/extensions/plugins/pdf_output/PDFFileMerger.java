@@ -0,0 +1,160 @@
+/*
+ This file belongs to the Servoy development and deployment environment, Copyright (C) 1997-2026 Servoy BV
+
+ This program is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Affero General Public License as published by the Free
+ Software Foundation; either version 3 of the License, or (at your option) any
+ later version.
+
+ This program is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more details.
+
+ You should have received a copy of the GNU Affero General Public License along
+ with this program; if not, see http://www.gnu.org/licenses or write to the Free
+ Software Foundation,Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301
+ */
+package com.servoy.extensions.plugins.pdf_output;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+import com.lowagie.text.Document;
+import com.lowagie.text.pdf.PdfCopy;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.RandomAccessFileOrArray;
+import com.lowagie.text.pdf.SimpleBookmark;
+
+/**
+ * Merges PDF files into one output file without having the inputs or the result in memory.
+ * <p>
+ * Every input is opened with a file backed {@link RandomAccessFileOrArray} (partial reading), its pages are copied to the output
+ * and the reader is freed and closed before the next input is used. The next inputs are opened and prepared (named destinations, bookmarks)
+ * by the shared {@link PDFExecutor} while the current one is copied, only that window of readers is open at the same time.
+ */
+class PDFFileMerger
+{
+	private static final int PREPARE_WINDOW = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+	private PDFFileMerger()
+	{
+	}
+
+	/**
+	 * @param passwords the owner passwords of the inputs, can be null or contain nulls
+	 * @return the number of pages in the output
+	 */
+	static int merge(final File[] inputs, final byte[][] passwords, File output) throws Exception
+	{
+		List<Future<PreparedInput>> prepared = new ArrayList<Future<PreparedInput>>(inputs.length);
+		try (OutputStream out = new BufferedOutputStream(new FileOutputStream(output)))
+		{
+			for (int i = 0; i < inputs.length && i < PREPARE_WINDOW; i++)
+			{
+				prepared.add(submit(inputs[i], passwords == null ? null : passwords[i]));
+			}
+
+			int pageOffset = 0;
+			List<Map<String, Object>> master = new ArrayList<Map<String, Object>>();
+			Document document = null;
+			PdfCopy writer = null;
+			for (int f = 0; f < inputs.length; f++)
+			{
+				// keep the window of prepared inputs filled
+				int next = f + PREPARE_WINDOW;
+				if (next < inputs.length) prepared.add(submit(inputs[next], passwords == null ? null : passwords[next]));
+
+				PreparedInput input = prepared.get(f).get();
+				prepared.set(f, null);
+				PdfReader reader = input.reader;
+				try
+				{
+					int n = reader.getNumberOfPages();
+					if (input.bookmarks != null)
+					{
+						if (pageOffset != 0) SimpleBookmark.shiftPageNumbersInRange(input.bookmarks, pageOffset, null);
+						master.addAll(input.bookmarks);
+					}
+					pageOffset += n;
+
+					if (writer == null)
+					{
+						document = new Document(reader.getPageSizeWithRotation(1));
+						writer = new PdfCopy(document, out);
+						document.open();
+					}
+					for (int i = 1; i <= n; i++)
+					{
+						writer.addPage(writer.getImportedPage(reader, i));
+					}
+					if (reader.getAcroForm() != null) writer.copyAcroForm(reader);
+					// writes the remaining objects of this reader, so it can be released
+					writer.freeReader(reader);
+				}
+				finally
+				{
+					reader.close();
+				}
+			}
+			if (writer != null && document != null)
+			{
+				if (master.size() > 0) writer.setOutlines(master);
+				document.close();
+			}
+			return pageOffset;
+		}
+		finally
+		{
+			// close the readers that were prepared but not used because of an error, the prepares that are still running are waited for
+			for (Future<PreparedInput> future : prepared)
+			{
+				if (future != null)
+				{
+					try
+					{
+						future.get().reader.close();
+					}
+					catch (Exception e)
+					{
+						// the prepare itself failed
+					}
+				}
+			}
+		}
+	}
+
+	private static Future<PreparedInput> submit(final File input, final byte[] password)
+	{
+		return PDFExecutor.submit(() -> {
+			PdfReader reader = new PdfReader(new RandomAccessFileOrArray(input.getAbsolutePath(), false, true), password);
+			try
+			{
+				reader.consolidateNamedDestinations();
+				return new PreparedInput(reader, SimpleBookmark.getBookmarkList(reader));
+			}
+			catch (Exception e)
+			{
+				reader.close();
+				throw e;
+			}
+		});
+	}
+
+	private static final class PreparedInput
+	{
+		final PdfReader reader;
+		final List<Map<String, Object>> bookmarks;
+
+		PreparedInput(PdfReader reader, List<Map<String, Object>> bookmarks)
+		{
+			this.reader = reader;
+			this.bookmarks = bookmarks;
+		}
+	}
+}
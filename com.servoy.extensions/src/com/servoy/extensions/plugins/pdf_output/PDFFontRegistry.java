@@ -0,0 +1,135 @@
+/*
+ This file belongs to the Servoy development and deployment environment, Copyright (C) 1997-2026 Servoy BV
+
+ This program is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Affero General Public License as published by the Free
+ Software Foundation; either version 3 of the License, or (at your option) any
+ later version.
+
+ This program is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more details.
+
+ You should have received a copy of the GNU Affero General Public License along
+ with this program; if not, see http://www.gnu.org/licenses or write to the Free
+ Software Foundation,Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301
+ */
+package com.servoy.extensions.plugins.pdf_output;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.pdf.BaseFont;
+import com.lowagie.text.pdf.DefaultFontMapper;
+import com.lowagie.text.pdf.DefaultFontMapper.BaseFontParameters;
+
+/**
+ * Process wide registry of the fonts used by the pdf output plugin.
+ * <p>
+ * A font directory is scanned (all the font files parsed for their names) only once, the result is copied into the {@link DefaultFontMapper}
+ * of every printer job that inserts the directory. The directory is scanned again when a font file is added, removed or changed,
+ * detected by the number and the last modified times of the font files, which doesn't need to parse them.
+ * The fonts created by name for the overlay and page number functions are cached by name, encoding and embedding.
+ */
+final class PDFFontRegistry
+{
+	private static final ConcurrentHashMap<String, DirectoryFonts> DIRECTORIES = new ConcurrentHashMap<String, DirectoryFonts>();
+	private static final ConcurrentHashMap<String, BaseFont> FONTS = new ConcurrentHashMap<String, BaseFont>();
+
+	private PDFFontRegistry()
+	{
+	}
+
+	/**
+	 * @return the font, created only the first time it is asked for
+	 */
+	static BaseFont getFont(String name, String encoding, boolean embedded) throws DocumentException, IOException
+	{
+		String key = name + '|' + encoding + '|' + embedded;
+		BaseFont font = FONTS.get(key);
+		if (font == null)
+		{
+			font = BaseFont.createFont(name, encoding, embedded);
+			BaseFont previous = FONTS.putIfAbsent(key, font);
+			if (previous != null) font = previous;
+		}
+		return font;
+	}
+
+	/**
+	 * Adds the fonts of the directory to the mapper, scanning the directory only when it is not scanned before or when it has changed.
+	 *
+	 * @return the number of fonts in the directory
+	 */
+	static int insertDirectory(DefaultFontMapper mapper, String path)
+	{
+		File dir = new File(path);
+		String key = dir.getAbsolutePath();
+		long stamp = stamp(dir);
+		DirectoryFonts fonts = DIRECTORIES.get(key);
+		if (fonts == null || fonts.stamp != stamp)
+		{
+			// scanning the same directory twice at the same time gives the same result, no need to lock
+			fonts = scan(path, stamp);
+			DIRECTORIES.put(key, fonts);
+		}
+		for (Map.Entry<String, BaseFontParameters> entry : fonts.names.entrySet())
+		{
+			mapper.putName(entry.getKey(), entry.getValue());
+		}
+		for (Map.Entry<String, String> entry : fonts.aliases.entrySet())
+		{
+			mapper.putAlias(entry.getKey(), entry.getValue());
+		}
+		return fonts.count;
+	}
+
+	private static DirectoryFonts scan(String path, long stamp)
+	{
+		DefaultFontMapper mapper = new DefaultFontMapper();
+		int count = mapper.insertDirectory(path);
+		return new DirectoryFonts(stamp, count, new HashMap<String, BaseFontParameters>(mapper.getMapper()),
+			new HashMap<String, String>(mapper.getAliases()));
+	}
+
+	/**
+	 * @return a value that changes when a font file in the directory is added, removed or changed
+	 */
+	private static long stamp(File dir)
+	{
+		File[] files = dir.listFiles();
+		if (files == null) return -1;
+		long stamp = dir.lastModified();
+		for (File file : files)
+		{
+			String name = file.getName().toLowerCase(Locale.ENGLISH);
+			if (name.endsWith(".ttf") || name.endsWith(".otf") || name.endsWith(".ttc") || name.endsWith(".afm") || name.endsWith(".pfm")) //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+			{
+				stamp = 31 * stamp + file.lastModified() + file.length();
+				stamp = 31 * stamp + name.hashCode();
+			}
+		}
+		return stamp;
+	}
+
+	private static final class DirectoryFonts
+	{
+		final long stamp;
+		final int count;
+		final Map<String, BaseFontParameters> names;
+		final Map<String, String> aliases;
+
+		DirectoryFonts(long stamp, int count, Map<String, BaseFontParameters> names, Map<String, String> aliases)
+		{
+			this.stamp = stamp;
+			this.count = count;
+			this.names = names;
+			this.aliases = aliases;
+		}
+	}
+}
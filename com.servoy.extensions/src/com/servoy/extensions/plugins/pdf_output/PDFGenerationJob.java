@@ -0,0 +1,316 @@
+/*
+ This file belongs to the Servoy development and deployment environment, Copyright (C) 1997-2026 Servoy BV
+
+ This program is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Affero General Public License as published by the Free
+ Software Foundation; either version 3 of the License, or (at your option) any
+ later version.
+
+ This program is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more details.
+
+ You should have received a copy of the GNU Affero General Public License along
+ with this program; if not, see http://www.gnu.org/licenses or write to the Free
+ Software Foundation,Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301
+ */
+package com.servoy.extensions.plugins.pdf_output;
+
+import java.awt.print.Pageable;
+import java.awt.print.PrinterException;
+import java.awt.print.PrinterJob;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.lowagie.text.pdf.DefaultFontMapper;
+import com.servoy.base.scripting.annotations.ServoyClientSupport;
+import com.servoy.j2db.documentation.ServoyDocumented;
+import com.servoy.j2db.scripting.IJavaScriptType;
+import com.servoy.j2db.scripting.IScriptable;
+import com.servoy.j2db.util.Debug;
+
+/**
+ * <p>A <code>PDFGenerationJob</code> prints the pages of one or more print calls straight into one PDF file.</p>
+ *
+ * <p>Every job has its own {@link PDFPrinterJob}, so the jobs of different clients (like headless clients that generate reports in bulk)
+ * don't wait on each other, each one prints on its own client thread. The pages can't be drawn on another thread, the forms that are printed
+ * are not thread safe. The PDF is only kept in the file, not in memory. The job reports its state, the pages printed and the time it took
+ * to print and finish the PDF.</p>
+ *
+ * <p>A job must be finished or cancelled, that closes the file. The jobs that are still open when the client is closed are cancelled.</p>
+ */
+@ServoyDocumented(scriptingName = "PDFGenerationJob")
+@ServoyClientSupport(ng = false, wc = true, sc = true)
+public class PDFGenerationJob implements IScriptable, IJavaScriptType
+{
+	private static final String STATE_COLLECTING = "collecting"; //$NON-NLS-1$
+	private static final String STATE_DONE = "done"; //$NON-NLS-1$
+	private static final String STATE_FAILED = "failed"; //$NON-NLS-1$
+	private static final String STATE_CANCELLED = "cancelled"; //$NON-NLS-1$
+
+	private final File file;
+	private final List<String> fontDirectories = new ArrayList<String>();
+	private final PrinterJob printer;
+
+	// the PDF the print calls are written to, created by the first print call
+	private PDFPrinterJob pdfJob;
+
+	private volatile String state = STATE_COLLECTING;
+	private volatile long renderTime;
+	private volatile int pagesPrinted;
+	private volatile Exception error;
+
+	/**
+	 * For developer scripting introspection only
+	 */
+	public PDFGenerationJob()
+	{
+		this.file = null;
+		this.printer = null;
+	}
+
+	PDFGenerationJob(File file)
+	{
+		this.file = file;
+		this.printer = new GenerationPrinterJob();
+	}
+
+	/**
+	 * Returns the printer that must be used in the print calls of this job, the pages of every print call are added to the PDF file when it is printed.
+	 *
+	 * @sample
+	 * var job = plugins.pdf_output.createGenerationJob('/reports/invoices_' + customer_id + '.pdf');
+	 * try {
+	 * 	forms.invoice_header.controller.print(false, false, job.getPDFPrinter());
+	 * 	forms.invoice_lines.controller.print(false, false, job.getPDFPrinter());
+	 * 	if (job.finish()) {
+	 * 		application.output('printed ' + job.getPagesPrinted() + ' pages in ' + job.getRenderTime() + 'ms');
+	 * 	} else {
+	 * 		application.output('generation failed: ' + job.getError());
+	 * 	}
+	 * } finally {
+	 * 	job.cancel(); // does nothing when the job is finished
+	 * }
+	 *
+	 * @return a PrinterJob object that prints the pages into the PDF of this job
+	 */
+	public PrinterJob js_getPDFPrinter()
+	{
+		return printer;
+	}
+
+	/**
+	 * Add a directory that should be searched for fonts when the pages of this job are printed.
+	 * The fonts of a directory are read once and shared by all the jobs, the directory is only read again when its font files change.
+	 *
+	 * @sample
+	 * var job = plugins.pdf_output.createGenerationJob('/reports/invoice.pdf');
+	 * job.insertFontDirectory('/usr/share/fonts/truetype');
+	 *
+	 * @param path the path to use
+	 *
+	 * @return the number of fonts in the specified directory
+	 */
+	public int js_insertFontDirectory(String path)
+	{
+		int count = PDFFontRegistry.insertDirectory(new DefaultFontMapper(), path);
+		synchronized (this)
+		{
+			fontDirectories.add(path);
+			if (pdfJob != null) pdfJob.insertDirectory(path);
+		}
+		return count;
+	}
+
+	/**
+	 * Finishes the PDF: writes the rest of the document (like the embedded fonts) and closes the file.
+	 * No print calls can be added to the job after this. A job without printed pages doesn't leave a file.
+	 *
+	 * @sampleas js_getPDFPrinter()
+	 *
+	 * @return true if the PDF is written, false if it failed or the job was already finished or cancelled
+	 */
+	public synchronized boolean js_finish()
+	{
+		if (state != STATE_COLLECTING) return false;
+		long start = System.nanoTime();
+		try
+		{
+			if (pdfJob != null)
+			{
+				// the pages are already written, this writes the fonts and the rest of the document and closes the file
+				pdfJob.close();
+				pagesPrinted = pdfJob.getTotalPagesPrinted();
+				pdfJob = null;
+			}
+			if (pagesPrinted == 0)
+			{
+				file.delete();//zero byte files makes no sense to leave
+			}
+			state = STATE_DONE;
+		}
+		catch (Exception e)
+		{
+			Debug.error("Error generating the PDF " + file, e); //$NON-NLS-1$
+			error = e;
+			state = STATE_FAILED;
+		}
+		finally
+		{
+			renderTime += System.nanoTime() - start;
+		}
+		return state == STATE_DONE;
+	}
+
+	/**
+	 * Cancels the job: closes and deletes the PDF file. Does nothing when the job is already finished or cancelled.
+	 *
+	 * @sampleas js_getPDFPrinter()
+	 *
+	 * @return true if the job was cancelled, false if it was already finished or cancelled
+	 */
+	public synchronized boolean js_cancel()
+	{
+		if (state != STATE_COLLECTING) return false;
+		state = STATE_CANCELLED;
+		if (pdfJob != null)
+		{
+			pdfJob.close();
+			pdfJob = null;
+			file.delete();
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the state of the job: 'collecting', 'done', 'failed' or 'cancelled'.
+	 *
+	 * @sampleas js_getPDFPrinter()
+	 *
+	 * @return the state of the job
+	 */
+	public String js_getState()
+	{
+		return state;
+	}
+
+	/**
+	 * Returns the time in milliseconds the job spent printing the pages into the PDF and finishing it.
+	 *
+	 * @sampleas js_getPDFPrinter()
+	 *
+	 * @return the render time in milliseconds
+	 */
+	public long js_getRenderTime()
+	{
+		return renderTime / 1000000;
+	}
+
+	/**
+	 * Returns the number of pages written to the PDF file.
+	 *
+	 * @sampleas js_getPDFPrinter()
+	 *
+	 * @return the number of pages printed
+	 */
+	public int js_getPagesPrinted()
+	{
+		return pagesPrinted;
+	}
+
+	/**
+	 * Returns the path of the PDF file of this job.
+	 *
+	 * @sampleas js_getPDFPrinter()
+	 *
+	 * @return the path of the PDF file
+	 */
+	public String js_getFile()
+	{
+		return file == null ? null : file.getAbsolutePath();
+	}
+
+	/**
+	 * Returns the error message when the job failed.
+	 *
+	 * @sampleas js_getPDFPrinter()
+	 *
+	 * @return the error message, null if the job didn't fail
+	 */
+	public String js_getError()
+	{
+		Exception e = error;
+		return e == null ? null : e.toString();
+	}
+
+	boolean isOpen()
+	{
+		return state == STATE_COLLECTING;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "PDFGenerationJob[" + file + ',' + state + ']'; //$NON-NLS-1$
+	}
+
+	/**
+	 * Printer job given to the print calls, it prints the pages on the calling (client) thread into the PDF of the job.
+	 */
+	private final class GenerationPrinterJob extends PDFPrinterJob
+	{
+		private Pageable pageable;
+
+		GenerationPrinterJob()
+		{
+			super(null, true);
+		}
+
+		@Override
+		public void setPageable(Pageable document)
+		{
+			pageable = document;
+		}
+
+		@Override
+		public void print() throws PrinterException
+		{
+			synchronized (PDFGenerationJob.this)
+			{
+				if (state != STATE_COLLECTING) throw new IllegalStateException("The PDF generation job is already " + state); //$NON-NLS-1$
+				if (pageable == null) return;
+				long start = System.nanoTime();
+				try
+				{
+					if (pdfJob == null)
+					{
+						try
+						{
+							pdfJob = new PDFPrinterJob(new BufferedOutputStream(new FileOutputStream(file)), true);
+						}
+						catch (FileNotFoundException e)
+						{
+							throw new PrinterException("Can't create the PDF file " + file + ": " + e.getMessage()); //$NON-NLS-1$ //$NON-NLS-2$
+						}
+						for (String path : fontDirectories)
+						{
+							pdfJob.insertDirectory(path);
+						}
+					}
+					pdfJob.setPageable(pageable);
+					pdfJob.print();
+					pagesPrinted = pdfJob.getTotalPagesPrinted();
+					pageable = null;
+				}
+				finally
+				{
+					renderTime += System.nanoTime() - start;
+				}
+			}
+		}
+	}
+}
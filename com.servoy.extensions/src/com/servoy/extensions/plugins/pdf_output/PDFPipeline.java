@@ -0,0 +1,410 @@
+/*
+ This file belongs to the Servoy development and deployment environment, Copyright (C) 1997-2026 Servoy BV
+
+ This program is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Affero General Public License as published by the Free
+ Software Foundation; either version 3 of the License, or (at your option) any
+ later version.
+
+ This program is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more details.
+
+ You should have received a copy of the GNU Affero General Public License along
+ with this program; if not, see http://www.gnu.org/licenses or write to the Free
+ Software Foundation,Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301
+ */
+package com.servoy.extensions.plugins.pdf_output;
+
+import java.awt.Color;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.mozilla.javascript.Scriptable;
+
+import com.lowagie.text.Image;
+import com.lowagie.text.pdf.BaseFont;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.PdfStamper;
+import com.servoy.base.scripting.annotations.ServoyClientSupport;
+import com.servoy.extensions.plugins.file.JSFile;
+import com.servoy.j2db.documentation.ServoyDocumented;
+import com.servoy.j2db.scripting.IJavaScriptType;
+import com.servoy.j2db.scripting.IScriptable;
+
+/**
+ * <p>A <code>PDFPipeline</code> collects a number of post processing steps (watermark, page numbers, overlays, metadata, encryption)
+ * for one PDF and applies them all at once when the result is requested with <code>toBytes()</code> or <code>toFile()</code>.</p>
+ *
+ * <p>The PDF is parsed and written only once, where calling the separate plugin functions one after the other
+ * parses and writes the complete PDF for every step.</p>
+ */
+@ServoyDocumented(scriptingName = "PDFPipeline")
+@ServoyClientSupport(ng = true, wc = true, sc = true)
+public class PDFPipeline implements IScriptable, IJavaScriptType
+{
+	private final byte[] data;
+	private final File file;
+	private final List<Step> steps = new ArrayList<Step>();
+	private Map<String, String> metaData;
+	private Encryption encryption;
+
+	/**
+	 * For developer scripting introspection only
+	 */
+	public PDFPipeline()
+	{
+		this.data = null;
+		this.file = null;
+	}
+
+	PDFPipeline(byte[] data, File file)
+	{
+		this.data = data;
+		this.file = file;
+	}
+
+	/**
+	 * Adds an image as a watermark on every page.
+	 *
+	 * @sample
+	 * var result = plugins.pdf_output.pipeline(data)
+	 * 	.watermark(imageBytes)
+	 * 	.numberPages()
+	 * 	.encrypt('secretPassword')
+	 * 	.toBytes();
+	 *
+	 * @param image the path of an image to use or array of bytes containing actual image
+	 *
+	 * @return this pipeline
+	 */
+	public PDFPipeline js_watermark(Object image) throws Exception
+	{
+		return js_watermark(image, 200, 400, false, null);
+	}
+
+	/**
+	 * Adds an image as a watermark on every page, or the pages specified as a parameter.
+	 *
+	 * @sampleas js_watermark(Object)
+	 *
+	 * @param image the path of an image to use or array of bytes containing actual image
+	 * @param locationX the x location of the image
+	 * @param locationY the y location of the image
+	 * @param isOver whether to put over the content
+	 * @param pages an array of pages where to apply the watermark, null for all pages
+	 *
+	 * @return this pipeline
+	 */
+	public PDFPipeline js_watermark(Object image, final int locationX, final int locationY, final boolean isOver, String[] pages) throws Exception
+	{
+		final Image watermark = PDFProvider.getImage(image);
+		final int[] pagesToWatermark = ITextTools.convertStringArrayToIntArray(pages);
+		steps.add(
+			(stamp, totalPages, readers) -> ITextTools.watermark(stamp, totalPages, watermark, locationX, locationY, isOver, pagesToWatermark));
+		return this;
+	}
+
+	/**
+	 * Adds page numbers ("Page x of y") to every page.
+	 *
+	 * @sampleas js_watermark(Object)
+	 *
+	 * @return this pipeline
+	 */
+	public PDFPipeline js_numberPages() throws Exception
+	{
+		return js_numberPages(10, 520, 30, BaseFont.HELVETICA, "#000000"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Adds page numbers ("Page x of y") to every page.
+	 *
+	 * @sampleas js_watermark(Object)
+	 *
+	 * @param fontSize the font size to use
+	 * @param locationX the x location of the numbers
+	 * @param locationY the y location of the numbers
+	 * @param font the font to use
+	 * @param hexColor the font color to use
+	 *
+	 * @return this pipeline
+	 */
+	public PDFPipeline js_numberPages(final int fontSize, final int locationX, final int locationY, String font, String hexColor) throws Exception
+	{
+		final Color color = Color.decode(hexColor);
+		final BaseFont bf = PDFFontRegistry.getFont(font, BaseFont.CP1252, BaseFont.EMBEDDED);
+		steps.add((stamp, totalPages, readers) -> ITextTools.numberPages(stamp, totalPages, fontSize, locationX, locationY, bf, color));
+		return this;
+	}
+
+	/**
+	 * Adds the first page of another PDF under the content of every page.
+	 *
+	 * @sample
+	 * var result = plugins.pdf_output.pipeline(data)
+	 * 	.overlay(letterhead, false, null)
+	 * 	.overlayText('COPY')
+	 * 	.toFile('/tmp/invoice.pdf');
+	 *
+	 * @param forOverlay a PDF to use as overlay
+	 *
+	 * @return this pipeline
+	 */
+	public PDFPipeline js_overlay(byte[] forOverlay) throws Exception
+	{
+		return js_overlay(forOverlay, false, null);
+	}
+
+	/**
+	 * Adds the first page of another PDF on every page, or the pages specified as a parameter.
+	 *
+	 * @sampleas js_overlay(byte[])
+	 *
+	 * @param forOverlay a PDF to use as overlay
+	 * @param isOver whether the overlay will be put over the content
+	 * @param pages an array of page numbers to put the overlay on, null for all pages
+	 *
+	 * @return this pipeline
+	 */
+	public PDFPipeline js_overlay(byte[] forOverlay, final boolean isOver, String[] pages) throws Exception
+	{
+		if (forOverlay == null) throw new IllegalArgumentException("Missing argument"); //$NON-NLS-1$
+		final int[] pagesToStamp = ITextTools.convertStringArrayToIntArray(pages);
+		steps.add((stamp, totalPages, readers) -> {
+			// the overlay is read while the stamper is closed, the reader is closed after that by apply()
+			PdfReader overlayReader = new PdfReader(forOverlay);
+			readers.add(overlayReader);
+			ITextTools.overlay(stamp, totalPages, overlayReader, isOver, pagesToStamp);
+		});
+		return this;
+	}
+
+	/**
+	 * Adds text over every page at a 45 degree angle.
+	 *
+	 * @sampleas js_overlay(byte[])
+	 *
+	 * @param text the text to use for the overlay
+	 *
+	 * @return this pipeline
+	 */
+	public PDFPipeline js_overlayText(String text) throws Exception
+	{
+		return js_overlayText(text, 230, 430, true, 32, BaseFont.HELVETICA, "#000000", 45); //$NON-NLS-1$
+	}
+
+	/**
+	 * Adds text on every page.
+	 *
+	 * @sampleas js_overlay(byte[])
+	 *
+	 * @param text the text to use for the overlay
+	 * @param locationX the x location of the overlay
+	 * @param locationY the y location of the overlay
+	 * @param isOver whether to put the overlay over the content
+	 * @param fontSize the font size to use
+	 * @param font the font to use
+	 * @param hexColor the font color to use
+	 * @param angle the angle of the overlay
+	 *
+	 * @return this pipeline
+	 */
+	public PDFPipeline js_overlayText(final String text, final int locationX, final int locationY, final boolean isOver, final int fontSize, String font,
+		String hexColor, final int angle) throws Exception
+	{
+		if (ITextTools.isNullOrEmpty(text) || ITextTools.isNullOrEmpty(font) || ITextTools.isNullOrEmpty(hexColor))
+		{
+			throw new IllegalArgumentException("Missing argument"); //$NON-NLS-1$
+		}
+		final Color color = Color.decode(hexColor);
+		final BaseFont bf = PDFFontRegistry.getFont(font, BaseFont.CP1252, BaseFont.EMBEDDED);
+		steps.add((stamp, totalPages, readers) -> ITextTools.overlayText(stamp, totalPages, text, locationX, locationY, isOver, fontSize, bf, color,
+			angle));
+		return this;
+	}
+
+	/**
+	 * Adds metadata to the PDF, like Author.
+	 *
+	 * @sample
+	 * var result = plugins.pdf_output.pipeline(data)
+	 * 	.addMetaData({ Author: 'Servoy' })
+	 * 	.encrypt('secretPassword', 'secretUserPassword')
+	 * 	.toBytes();
+	 *
+	 * @param metaData a JavaScript object that contains the metadata as property/value pairs
+	 *
+	 * @return this pipeline
+	 */
+	public PDFPipeline js_addMetaData(Scriptable metaData)
+	{
+		Map<String, String> map = ITextTools.getMapFromScriptable(metaData);
+		if (ITextTools.isNullOrEmpty(map)) throw new IllegalArgumentException("No metadata to add"); //$NON-NLS-1$
+		if (this.metaData == null) this.metaData = map;
+		else this.metaData.putAll(map);
+		return this;
+	}
+
+	/**
+	 * Encrypts the PDF with all permissions allowed, the owner password is also used as user password.
+	 *
+	 * @sampleas js_addMetaData(Scriptable)
+	 *
+	 * @param ownerPassword the owner password
+	 *
+	 * @return this pipeline
+	 */
+	public PDFPipeline js_encrypt(String ownerPassword)
+	{
+		return js_encrypt(ownerPassword, ownerPassword);
+	}
+
+	/**
+	 * Encrypts the PDF with all permissions allowed.
+	 *
+	 * @sampleas js_addMetaData(Scriptable)
+	 *
+	 * @param ownerPassword the owner password
+	 * @param userPassword the user password
+	 *
+	 * @return this pipeline
+	 */
+	public PDFPipeline js_encrypt(String ownerPassword, String userPassword)
+	{
+		return js_encrypt(ownerPassword, userPassword, true, true, true, true, true, true, true, true, true);
+	}
+
+	/**
+	 * Encrypts the PDF with password protection and security options.
+	 *
+	 * @sampleas js_addMetaData(Scriptable)
+	 *
+	 * @param ownerPassword the owner password
+	 * @param userPassword the user password
+	 * @param allowAssembly whether to set the allow assembly permission
+	 * @param allowCopy whether to set the allow copy permission
+	 * @param allowDegradedPrinting whether to set the allow degraded printing permission
+	 * @param allowFillIn whether to set the allow fill in permission
+	 * @param allowModifyAnnotations whether to set the allow modify annotations permission
+	 * @param allowModifyContents whether to set the allow modify contents permission
+	 * @param allowPrinting whether to set the allow printing permission
+	 * @param allowScreenreaders whether to set the allow screen readers permission
+	 * @param is128bit whether to use 128-bit encryption
+	 *
+	 * @return this pipeline
+	 */
+	public PDFPipeline js_encrypt(String ownerPassword, String userPassword, boolean allowAssembly, boolean allowCopy, boolean allowDegradedPrinting,
+		boolean allowFillIn, boolean allowModifyAnnotations, boolean allowModifyContents, boolean allowPrinting, boolean allowScreenreaders, boolean is128bit)
+	{
+		if (ownerPassword == null || userPassword == null) throw new IllegalArgumentException("Missing argument"); //$NON-NLS-1$
+		encryption = new Encryption(ownerPassword, userPassword, PDFProvider.getPermissions(allowAssembly, allowCopy, allowDegradedPrinting, allowFillIn,
+			allowModifyAnnotations, allowModifyContents, allowPrinting, allowScreenreaders), is128bit);
+		return this;
+	}
+
+	/**
+	 * Applies all the steps and returns the resulting PDF.
+	 *
+	 * @sampleas js_watermark(Object)
+	 *
+	 * @return the resulting PDF
+	 */
+	public byte[] js_toBytes() throws Exception
+	{
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream(data != null ? data.length + data.length / 4 : 64 * 1024);
+		apply(outputStream);
+		return outputStream.toByteArray();
+	}
+
+	/**
+	 * Applies all the steps and writes the resulting PDF directly to a file, without creating it in memory first.
+	 *
+	 * @sampleas js_overlay(byte[])
+	 *
+	 * @param file the file to write to, a path or a JSFile
+	 *
+	 * @return true when the file is written
+	 */
+	public boolean js_toFile(Object file) throws Exception
+	{
+		File target = null;
+		if (file instanceof JSFile) target = ((JSFile)file).getFile();
+		else if (file instanceof File) target = (File)file;
+		else if (file != null) target = new File(file.toString());
+		if (target == null) throw new IllegalArgumentException("Missing argument"); //$NON-NLS-1$
+		try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(target)))
+		{
+			apply(outputStream);
+		}
+		return true;
+	}
+
+	private void apply(OutputStream outputStream) throws Exception
+	{
+		PdfReader reader = data != null ? new PdfReader(data) : new PdfReader(file.getAbsolutePath());
+		List<PdfReader> readers = new ArrayList<PdfReader>();
+		try
+		{
+			int totalPages = reader.getNumberOfPages();
+			PdfStamper stamp = new PdfStamper(reader, outputStream);
+			try
+			{
+				if (encryption != null)
+				{
+					// must be set before anything is written
+					stamp.setEncryption(encryption.userPassword.getBytes(), encryption.ownerPassword.getBytes(), encryption.permissions,
+						encryption.is128bit);
+				}
+				for (Step step : steps)
+				{
+					step.apply(stamp, totalPages, readers);
+				}
+				if (metaData != null) stamp.setInfoDictionary(metaData);
+			}
+			finally
+			{
+				stamp.close();
+			}
+		}
+		finally
+		{
+			reader.close();
+			for (PdfReader stepReader : readers)
+			{
+				stepReader.close();
+			}
+		}
+	}
+
+	@FunctionalInterface
+	private interface Step
+	{
+		/**
+		 * @param readers the readers the step opened, they are closed after the stamper
+		 */
+		void apply(PdfStamper stamp, int totalPages, List<PdfReader> readers) throws Exception;
+	}
+
+	private static final class Encryption
+	{
+		final String ownerPassword;
+		final String userPassword;
+		final int permissions;
+		final boolean is128bit;
+
+		Encryption(String ownerPassword, String userPassword, int permissions, boolean is128bit)
+		{
+			this.ownerPassword = ownerPassword;
+			this.userPassword = userPassword;
+			this.permissions = permissions;
+			this.is128bit = is128bit;
+		}
+	}
+}
@@ -66,6 +66,7 @@ public class PDFPlugin implements IClientPlugin, IIconProvider
 	 */
 	public void unload() throws PluginException
 	{
+		if (impl != null) impl.cancelGenerationJobs();
 		access = null;
 		impl = null;
 	}
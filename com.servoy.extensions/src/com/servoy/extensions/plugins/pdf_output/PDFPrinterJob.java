@@ -106,7 +106,7 @@ public class PDFPrinterJob extends PrinterJob
 
 	public int insertDirectory(String path)
 	{
-		return mapper.insertDirectory(path);
+		return PDFFontRegistry.insertDirectory(mapper, path);
 	}
 
 	@Override
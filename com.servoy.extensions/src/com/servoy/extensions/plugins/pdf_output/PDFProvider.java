@@ -18,7 +18,6 @@ package com.servoy.extensions.plugins.pdf_output;
 
 import java.awt.Color;
 import java.awt.Window;
-import java.awt.image.BufferedImage;
 import java.awt.print.PrinterJob;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -30,11 +29,6 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
-import javax.imageio.ImageIO;
-
-import org.apache.pdfbox.Loader;
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.rendering.PDFRenderer;
 import org.mozilla.javascript.Scriptable;
 
 import com.lowagie.text.Document;
@@ -50,10 +44,12 @@ import com.lowagie.text.pdf.PdfStamper;
 import com.lowagie.text.pdf.PdfWriter;
 import com.lowagie.text.pdf.SimpleBookmark;
 import com.servoy.base.scripting.annotations.ServoyClientSupport;
+import com.servoy.extensions.plugins.file.JSFile;
 import com.servoy.j2db.documentation.ServoyDocumented;
 import com.servoy.j2db.plugins.IClientPluginAccess;
 import com.servoy.j2db.plugins.IRuntimeWindow;
 import com.servoy.j2db.plugins.ISmartRuntimeWindow;
+import com.servoy.j2db.scripting.IReturnedTypesProvider;
 import com.servoy.j2db.scripting.IScriptable;
 import com.servoy.j2db.util.Debug;
 import com.servoy.j2db.util.FileChooserUtils;
@@ -74,17 +70,58 @@ import com.servoy.j2db.util.FileChooserUtils;
  */
 @ServoyDocumented(publicName = PDFPlugin.PLUGIN_NAME, scriptingName = "plugins." + PDFPlugin.PLUGIN_NAME)
 @ServoyClientSupport(ng = true, wc = true, sc = true)
-public class PDFProvider implements IScriptable
+public class PDFProvider implements IScriptable, IReturnedTypesProvider
 {
 	private final PDFPlugin plugin;
 	private PDFPrinterJob metaPrintJob;
 	private File pdfFile = null;
+	private final List<PDFGenerationJob> generationJobs = new ArrayList<PDFGenerationJob>();
 
 	public PDFProvider(PDFPlugin plugin)
 	{
 		this.plugin = plugin;
 	}
 
+	public Class< ? >[] getAllReturnedTypes()
+	{
+		return new Class< ? >[] { PDFPipeline.class, PDFGenerationJob.class };
+	}
+
+	/**
+	 * Creates a pipeline to apply multiple post processing steps (watermark, numberPages, overlay, overlayText, addMetaData, encrypt) to a PDF.
+	 * All the steps are applied at once when toBytes() or toFile() is called, so the PDF is only parsed and written once
+	 * instead of once for every step when calling the separate functions.
+	 *
+	 * @sample
+	 * var pdf = plugins.file.readFile('/path/to/invoice.pdf');
+	 * var result = plugins.pdf_output.pipeline(pdf)
+	 * 	.watermark('/path/to/logo.png')
+	 * 	.overlayText('PAID')
+	 * 	.numberPages()
+	 * 	.encrypt('secretPassword')
+	 * 	.toBytes();
+	 *
+	 * @param data the PDF, as bytes or as a file (path or JSFile)
+	 *
+	 * @return a pipeline for the PDF
+	 */
+	@ServoyClientSupport(ng = true, wc = true, sc = true)
+	public PDFPipeline js_pipeline(Object data)
+	{
+		if (data instanceof byte[]) return new PDFPipeline((byte[])data, null);
+		File file = getFile(data);
+		if (file != null) return new PDFPipeline(null, file);
+		throw new IllegalArgumentException("The PDF must be an array of bytes, a path or a file: " + data); //$NON-NLS-1$
+	}
+
+	private static File getFile(Object file)
+	{
+		if (file instanceof JSFile) return ((JSFile)file).getFile();
+		if (file instanceof File) return (File)file;
+		if (file instanceof String) return new File((String)file);
+		return null;
+	}
+
 	/**
 	 * Returns a PDF printer that can be used in print calls. Returns the last started meta print job.
 	 *
@@ -247,6 +284,7 @@ public class PDFProvider implements IScriptable
 
 	/**
 	 * Add a directory that should be searched for fonts. Call this only in the context of an active meta print job.
+	 * The fonts of a directory are read once and shared by all the print jobs on the server, the directory is only read again when its font files change.
 	 *
 	 * @sample
 	 * //Insert font directories for font embedding.
@@ -269,6 +307,49 @@ public class PDFProvider implements IScriptable
 		return -1;
 	}
 
+	/**
+	 * Creates a job that prints the pages of one or more print calls straight into a PDF file, with its own PDF printer job.
+	 * Use the printer of the job (job.getPDFPrinter()) in the print calls and call job.finish() to finish the PDF and close the file,
+	 * or job.cancel() to discard it. The jobs that are not finished are cancelled when the client is closed.
+	 *
+	 * @sample
+	 * var job = plugins.pdf_output.createGenerationJob('/reports/invoices_' + customer_id + '.pdf');
+	 * forms.invoice_header.controller.print(false, false, job.getPDFPrinter());
+	 * forms.invoice_lines.controller.print(false, false, job.getPDFPrinter());
+	 * job.finish();
+	 *
+	 * @param filename the file name of the PDF to generate
+	 *
+	 * @return the generation job
+	 */
+	@ServoyClientSupport(ng = false, wc = true, sc = true)
+	public PDFGenerationJob js_createGenerationJob(String filename)
+	{
+		if (filename == null) throw new IllegalArgumentException("A file name is required for a PDF generation job"); //$NON-NLS-1$
+		PDFGenerationJob job = new PDFGenerationJob(new File(filename));
+		synchronized (generationJobs)
+		{
+			generationJobs.removeIf(j -> !j.isOpen());
+			generationJobs.add(job);
+		}
+		return job;
+	}
+
+	/**
+	 * Cancels the generation jobs of this client that are not finished, so their files are closed.
+	 */
+	void cancelGenerationJobs()
+	{
+		synchronized (generationJobs)
+		{
+			for (PDFGenerationJob job : generationJobs)
+			{
+				job.js_cancel();
+			}
+			generationJobs.clear();
+		}
+	}
+
 	/**
 	 * Combine multiple protected PDF docs into one.
 	 * Note: this function may fail when creating large PDF files due to lack of available heap memory. To compensate, please configure the application server with more heap memory via -Xmx parameter.
@@ -372,6 +453,72 @@ public class PDFProvider implements IScriptable
 		return js_combineProtectedPDFDocuments(pdf_docs_bytearrays, null);
 	}
 
+	/**
+	 * Combine multiple PDF files into one output file.
+	 * The files are read one at a time from disk and the result is written directly to the output file,
+	 * so unlike combinePDFDocuments() the documents don't have to fit in memory.
+	 *
+	 * @sample
+	 * var files = plugins.file.getFolderContents('/statements', '.pdf');
+	 * var pages = plugins.pdf_output.combinePDFDocumentsToFile(files, '/print/statements.pdf');
+	 * application.output(pages + ' pages written');
+	 *
+	 * @param pdf_docs the array of documents to combine, paths or JSFiles
+	 * @param outputFile the file to write the combined PDF to, a path or a JSFile
+	 *
+	 * @return the number of pages of the combined PDF
+	 */
+	@ServoyClientSupport(ng = true, wc = true, sc = true)
+	public int js_combinePDFDocumentsToFile(Object[] pdf_docs, Object outputFile)
+	{
+		return js_combineProtectedPDFDocumentsToFile(pdf_docs, null, outputFile);
+	}
+
+	/**
+	 * Combine multiple protected PDF files into one output file.
+	 * The files are read one at a time from disk and the result is written directly to the output file,
+	 * so unlike combineProtectedPDFDocuments() the documents don't have to fit in memory.
+	 *
+	 * @sample
+	 * var pages = plugins.pdf_output.combineProtectedPDFDocumentsToFile(['/in/a.pdf', '/in/b.pdf'], ['passA', 'passB'], '/out/combined.pdf');
+	 *
+	 * @param pdf_docs the array of documents to combine, paths or JSFiles
+	 * @param pdf_docs_passwords an array of passwords to use
+	 * @param outputFile the file to write the combined PDF to, a path or a JSFile
+	 *
+	 * @return the number of pages of the combined PDF
+	 */
+	@ServoyClientSupport(ng = true, wc = true, sc = true)
+	public int js_combineProtectedPDFDocumentsToFile(Object[] pdf_docs, Object[] pdf_docs_passwords, Object outputFile)
+	{
+		File output = getFile(outputFile);
+		if (pdf_docs == null || pdf_docs.length == 0 || output == null) throw new IllegalArgumentException("Missing argument"); //$NON-NLS-1$
+
+		List<File> inputs = new ArrayList<File>(pdf_docs.length);
+		List<byte[]> passwords = new ArrayList<byte[]>(pdf_docs.length);
+		for (int f = 0; f < pdf_docs.length; f++)
+		{
+			File input = getFile(pdf_docs[f]);
+			if (input == null) continue;
+			inputs.add(input);
+			byte[] password = null;
+			if (pdf_docs_passwords != null && pdf_docs_passwords.length > f && pdf_docs_passwords[f] instanceof String)
+			{
+				password = pdf_docs_passwords[f].toString().getBytes();
+			}
+			passwords.add(password);
+		}
+		try
+		{
+			return PDFFileMerger.merge(inputs.toArray(new File[inputs.size()]), passwords.toArray(new byte[passwords.size()][]), output);
+		}
+		catch (Exception e)
+		{
+			Debug.error(e);
+			throw new RuntimeException("Error combinding pdf documents: " + e.getMessage(), e); //$NON-NLS-1$
+		}
+	}
+
 	/**
 	 * Convert a protected PDF form to a PDF document. Can specify if all fields or just specified fields will be flattened.
 	 *
@@ -789,6 +936,17 @@ public class PDFProvider implements IScriptable
 		Scriptable metaData) throws Exception
 	{
 		if (data == null) throw new IllegalArgumentException("Missing argument"); //$NON-NLS-1$
+		int sec = getPermissions(allowAssembly, allowCopy, allowDegradedPrinting, allowFillIn, allowModifyAnnotations, allowModifyContents, allowPrinting,
+			allowScreenreaders);
+		Map<String, String> map = ITextTools.getMapFromScriptable(metaData);
+
+		ByteArrayInputStream bais = new ByteArrayInputStream(data);
+		return ITextTools.encrypt(bais, ownerPassword, userPassword, sec, is128bit, map);
+	}
+
+	static int getPermissions(boolean allowAssembly, boolean allowCopy, boolean allowDegradedPrinting, boolean allowFillIn, boolean allowModifyAnnotations,
+		boolean allowModifyContents, boolean allowPrinting, boolean allowScreenreaders)
+	{
 		int sec = 0;
 		if (allowAssembly)
 		{
@@ -822,10 +980,7 @@ public class PDFProvider implements IScriptable
 		{
 			sec = sec | PdfWriter.ALLOW_SCREENREADERS;
 		}
-		Map<String, String> map = ITextTools.getMapFromScriptable(metaData);
-
-		ByteArrayInputStream bais = new ByteArrayInputStream(data);
-		return ITextTools.encrypt(bais, ownerPassword, userPassword, sec, is128bit, map);
+		return sec;
 	}
 
 
@@ -962,21 +1117,22 @@ public class PDFProvider implements IScriptable
 	{
 		if (data == null) throw new IllegalArgumentException("Missing argument"); //$NON-NLS-1$
 
-		Image watermark = null;
+		Image watermark = getImage(image);
+		ByteArrayInputStream bais = new ByteArrayInputStream(data);
+		return ITextTools.watermarkPDF(bais, watermark, locationX, locationY, isOver, pages);
+	}
+
+	static Image getImage(Object image) throws Exception
+	{
 		if (image instanceof String)
 		{
-			watermark = Image.getInstance((String)image);
+			return Image.getInstance((String)image);
 		}
 		else if (image instanceof byte[])
 		{
-			watermark = Image.getInstance((byte[])image);
+			return Image.getInstance((byte[])image);
 		}
-		else
-		{
-			throw new IllegalArgumentException("Image must be a path or array of bytes: " + image); //$NON-NLS-1$
-		}
-		ByteArrayInputStream bais = new ByteArrayInputStream(data);
-		return ITextTools.watermarkPDF(bais, watermark, locationX, locationY, isOver, pages);
+		throw new IllegalArgumentException("Image must be a path or array of bytes: " + image); //$NON-NLS-1$
 	}
 
 
@@ -1154,15 +1310,59 @@ public class PDFProvider implements IScriptable
 	@ServoyClientSupport(ng = true, wc = true, sc = true)
 	public byte[] js_getThumbnailImage(byte[] data, int pageNumber, int dpi) throws Exception
 	{
-		PDDocument pdfDoc = Loader.loadPDF(data);
-		PDFRenderer pdfRenderer = new PDFRenderer(pdfDoc);
-		BufferedImage myImage = pdfRenderer.renderImageWithDPI(pageNumber, dpi);
-		ByteArrayOutputStream baos = new ByteArrayOutputStream(myImage.getData().getDataBuffer().getSize());
-		ImageIO.write(myImage, "png", baos);
-		baos.flush();
-		byte[] imgArray = baos.toByteArray();
-		baos.close();
-		return imgArray;
+		return PDFThumbnailRenderer.render(data, pageNumber, pageNumber + 1, dpi, "png")[0]; //$NON-NLS-1$
+	}
+
+	/**
+	 * Create thumbnails of all the pages of the provided PDF, the pages are rendered in parallel.
+	 * The rendered pages are cached (by the content of the PDF, the page, the dpi and the format), so asking again for the thumbnails of the same PDF is cheap.
+	 *
+	 * @sample
+	 * var pdf = plugins.file.showFileOpenDialog();
+	 * if (pdf) {
+	 * 	var data = plugins.file.readFile(pdf);
+	 * 	// all the pages as png at 72 dpi
+	 * 	var thumbnails = plugins.pdf_output.getThumbnailImages(data);
+	 * 	// the first 10 pages as jpg at 36 dpi
+	 * 	var small = plugins.pdf_output.getThumbnailImages(data, 0, 10, 36, 'jpg');
+	 * }
+	 *
+	 * @param data the PDF
+	 *
+	 * @return the thumbnails of the pages as PNG format
+	 *
+	 * @throws Exception
+	 */
+	@ServoyClientSupport(ng = true, wc = true, sc = true)
+	public byte[][] js_getThumbnailImages(byte[] data) throws Exception
+	{
+		return js_getThumbnailImages(data, 0, Integer.MAX_VALUE, 72, "png"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Create thumbnails of a range of pages of the provided PDF, the pages are rendered in parallel.
+	 * The rendered pages are cached (by the content of the PDF, the page, the dpi and the format), so asking again for the thumbnails of the same PDF is cheap.
+	 *
+	 * @sampleas js_getThumbnailImages(byte[])
+	 *
+	 * @param data the PDF
+	 * @param fromPage the first page to get a thumbnail of (inclusive). This parameter is zero based index.
+	 * @param toPage the last page to get a thumbnail of (exclusive). This parameter is zero based index.
+	 * @param dpi resolution used to render the thumbnail images
+	 * @param format the image format of the thumbnails, like 'png', 'jpg' or 'gif'
+	 *
+	 * @return the thumbnails of the pages in the given format
+	 *
+	 * @throws Exception
+	 */
+	@ServoyClientSupport(ng = true, wc = true, sc = true)
+	public byte[][] js_getThumbnailImages(byte[] data, int fromPage, int toPage, int dpi, String format) throws Exception
+	{
+		int pages = js_getNumberOfPages(data);
+		int from = Math.max(0, fromPage);
+		int to = Math.min(pages, toPage);
+		if (from >= to) return new byte[0][];
+		return PDFThumbnailRenderer.render(data, from, to, dpi, format == null ? "png" : format); //$NON-NLS-1$
 	}
 
 	/**
@@ -1180,10 +1380,7 @@ public class PDFProvider implements IScriptable
 	@ServoyClientSupport(ng = true, wc = true, sc = true)
 	public int js_getNumberOfPages(byte[] data) throws IOException
 	{
-		PDDocument pdfDoc = Loader.loadPDF(data);
-		int pages = pdfDoc.getNumberOfPages();
-		pdfDoc.close();
-		return pages;
+		return PDFThumbnailRenderer.getNumberOfPages(data);
 	}
 
 	/**
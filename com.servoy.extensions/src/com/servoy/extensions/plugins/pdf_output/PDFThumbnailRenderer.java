@@ -0,0 +1,169 @@
+/*
+ This file belongs to the Servoy development and deployment environment, Copyright (C) 1997-2026 Servoy BV
+
+ This program is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Affero General Public License as published by the Free
+ Software Foundation; either version 3 of the License, or (at your option) any
+ later version.
+
+ This program is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more details.
+
+ You should have received a copy of the GNU Affero General Public License along
+ with this program; if not, see http://www.gnu.org/licenses or write to the Free
+ Software Foundation,Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301
+ */
+package com.servoy.extensions.plugins.pdf_output;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+
+/**
+ * Renders PDF pages to images, with a process wide cache of the rendered pages.
+ * <p>
+ * A {@link PDDocument} is not thread safe, so every render thread loads the document once and renders its share of the pages with it.
+ * The calling thread renders pages itself, helped by threads of the shared {@link PDFExecutor} when there are enough pages.
+ * The rendered images are cached by the hash of the PDF content, the page, the dpi and the format, bounded by the total size of the images.
+ */
+class PDFThumbnailRenderer
+{
+	private static final long MAX_CACHE_BYTES = 32 * 1024 * 1024;
+	// every render thread loads the complete document, so a thread must have a few pages to render
+	private static final int MIN_PAGES_PER_THREAD = 4;
+
+	private static final LinkedHashMap<String, byte[]> CACHE = new LinkedHashMap<String, byte[]>(64, 0.75f, true);
+	private static long cacheBytes;
+
+	private PDFThumbnailRenderer()
+	{
+	}
+
+	/**
+	 * Renders the pages from (inclusive) to (exclusive), zero based.
+	 */
+	static byte[][] render(final byte[] data, int from, int to, final int dpi, final String format) throws Exception
+	{
+		String hash = hash(data);
+		final byte[][] images = new byte[to - from][];
+		final List<Integer> missing = new ArrayList<Integer>();
+		for (int page = from; page < to; page++)
+		{
+			images[page - from] = getCached(key(hash, page, dpi, format));
+			if (images[page - from] == null) missing.add(Integer.valueOf(page));
+		}
+		if (missing.isEmpty()) return images;
+
+		final AtomicInteger next = new AtomicInteger();
+		int threads = Math.max(1, Math.min(PDFExecutor.THREADS, missing.size() / MIN_PAGES_PER_THREAD));
+		final String fHash = hash;
+		final int fFrom = from;
+		List<Future<Void>> futures = new ArrayList<Future<Void>>(threads - 1);
+		for (int i = 1; i < threads; i++)
+		{
+			futures.add(PDFExecutor.submit(() -> {
+				renderPages(data, missing, next, dpi, format, fHash, images, fFrom);
+				return null;
+			}));
+		}
+		try
+		{
+			// this thread is one of the render threads
+			renderPages(data, missing, next, dpi, format, hash, images, from);
+		}
+		finally
+		{
+			// after an error the other threads stop at their next page
+			next.set(missing.size());
+		}
+		for (Future<Void> future : futures)
+		{
+			future.get();
+		}
+		return images;
+	}
+
+	/**
+	 * Counts the pages with the library that renders them, so a damaged PDF that is repaired while loading has the same pages for both.
+	 */
+	static int getNumberOfPages(byte[] data) throws IOException
+	{
+		try (PDDocument document = Loader.loadPDF(data))
+		{
+			return document.getNumberOfPages();
+		}
+	}
+
+	private static void renderPages(byte[] data, List<Integer> pages, AtomicInteger next, int dpi, String format, String hash, byte[][] images, int from)
+		throws IOException
+	{
+		int index = next.getAndIncrement();
+		if (index >= pages.size()) return;
+		try (PDDocument document = Loader.loadPDF(data))
+		{
+			PDFRenderer renderer = new PDFRenderer(document);
+			do
+			{
+				int page = pages.get(index).intValue();
+				BufferedImage image = renderer.renderImageWithDPI(page, dpi, ImageType.RGB);
+				ByteArrayOutputStream baos = new ByteArrayOutputStream(image.getWidth() * image.getHeight() / 4);
+				if (!ImageIO.write(image, format, baos)) throw new IllegalArgumentException("Unsupported image format: " + format); //$NON-NLS-1$
+				byte[] bytes = baos.toByteArray();
+				images[page - from] = bytes;
+				putCached(key(hash, page, dpi, format), bytes);
+			}
+			while ((index = next.getAndIncrement()) < pages.size());
+		}
+	}
+
+	private static String key(String hash, int page, int dpi, String format)
+	{
+		return hash + ':' + page + ':' + dpi + ':' + format;
+	}
+
+	private static synchronized byte[] getCached(String key)
+	{
+		return CACHE.get(key);
+	}
+
+	private static synchronized void putCached(String key, byte[] image)
+	{
+		if (image.length > MAX_CACHE_BYTES) return;
+		byte[] previous = CACHE.put(key, image);
+		if (previous != null) cacheBytes -= previous.length;
+		cacheBytes += image.length;
+		Iterator<byte[]> it = CACHE.values().iterator();
+		while (cacheBytes > MAX_CACHE_BYTES && it.hasNext())
+		{
+			cacheBytes -= it.next().length;
+			it.remove();
+		}
+	}
+
+	private static String hash(byte[] data) throws NoSuchAlgorithmException
+	{
+		byte[] digest = MessageDigest.getInstance("SHA-256").digest(data); //$NON-NLS-1$
+		StringBuilder sb = new StringBuilder(digest.length * 2);
+		for (byte b : digest)
+		{
+			sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		return sb.toString();
+	}
+}
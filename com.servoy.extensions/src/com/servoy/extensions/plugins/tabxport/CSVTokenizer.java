@@ -0,0 +1,162 @@
+/*
+ This file belongs to the Servoy development and deployment environment, Copyright (C) 1997-2026 Servoy BV
+
+ This program is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Affero General Public License as published by the Free
+ Software Foundation; either version 3 of the License, or (at your option) any
+ later version.
+
+ This program is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more details.
+
+ You should have received a copy of the GNU Affero General Public License along
+ with this program; if not, see http://www.gnu.org/licenses or write to the Free
+ Software Foundation,Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301
+ */
+package com.servoy.extensions.plugins.tabxport;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming RFC 4180 tokenizer, reads one record at a time from a reader.
+ * Quoted fields can contain separators, doubled quotes and line breaks; lines can end with CRLF, LF or CR and empty lines are skipped.
+ * An empty unquoted field is returned as null, an empty quoted field as an empty string.
+ */
+class CSVTokenizer
+{
+	private static final int NO_CHAR = -2;
+
+	private final Reader reader;
+	private final char separator;
+	private final char[] buffer = new char[64 * 1024];
+	private final StringBuilder field = new StringBuilder();
+	private final List<String> fields = new ArrayList<String>();
+	private int position;
+	private int limit;
+	private int lookAhead = NO_CHAR;
+	private int line = 1;
+	private int recordLine;
+
+	CSVTokenizer(Reader reader, char separator)
+	{
+		this.reader = reader;
+		this.separator = separator;
+	}
+
+	/**
+	 * @return the fields of the next record, null at the end of the input
+	 */
+	String[] next() throws IOException
+	{
+		fields.clear();
+		field.setLength(0);
+		recordLine = line;
+		boolean inQuotes = false;
+		boolean quoted = false;
+		int c;
+		while ((c = read()) != -1)
+		{
+			char ch = (char)c;
+			if (inQuotes)
+			{
+				if (ch == '"')
+				{
+					if (peek() == '"')
+					{
+						read();
+						field.append('"');
+					}
+					else
+					{
+						inQuotes = false;
+					}
+				}
+				else
+				{
+					if (ch == '\n' || (ch == '\r' && peek() != '\n')) line++;
+					field.append(ch);
+				}
+			}
+			else if (ch == '"' && field.length() == 0 && !quoted)
+			{
+				inQuotes = true;
+				quoted = true;
+			}
+			else if (ch == separator)
+			{
+				addField(quoted);
+				quoted = false;
+			}
+			else if (ch == '\n' || ch == '\r')
+			{
+				if (ch == '\r' && peek() == '\n') read();
+				line++;
+				if (fields.isEmpty() && field.length() == 0 && !quoted)
+				{
+					// skip empty lines
+					recordLine = line;
+					continue;
+				}
+				addField(quoted);
+				return fields.toArray(new String[fields.size()]);
+			}
+			else
+			{
+				field.append(ch);
+			}
+		}
+		if (fields.isEmpty() && field.length() == 0 && !quoted) return null;
+		addField(quoted);
+		return fields.toArray(new String[fields.size()]);
+	}
+
+	/**
+	 * @return the (1 based) line number on which the record last returned by {@link #next()} started
+	 */
+	int getRecordLine()
+	{
+		return recordLine;
+	}
+
+	private void addField(boolean quoted)
+	{
+		fields.add(field.length() == 0 && !quoted ? null : field.toString());
+		field.setLength(0);
+	}
+
+	private int peek() throws IOException
+	{
+		if (lookAhead == NO_CHAR) lookAhead = readFromBuffer();
+		return lookAhead;
+	}
+
+	private int read() throws IOException
+	{
+		if (lookAhead != NO_CHAR)
+		{
+			int c = lookAhead;
+			lookAhead = NO_CHAR;
+			return c;
+		}
+		return readFromBuffer();
+	}
+
+	private int readFromBuffer() throws IOException
+	{
+		if (position == limit)
+		{
+			limit = reader.read(buffer, 0, buffer.length);
+			position = 0;
+			if (limit <= 0)
+			{
+				limit = 0;
+				return -1;
+			}
+		}
+		return buffer[position++];
+	}
+}
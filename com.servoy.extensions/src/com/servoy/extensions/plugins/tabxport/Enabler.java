@@ -16,6 +16,9 @@
  */
 package com.servoy.extensions.plugins.tabxport;
 
+import java.io.IOException;
+import java.io.StringWriter;
+
 import javax.swing.JMenuItem;
 
 import com.servoy.base.scripting.annotations.ServoyClientSupport;
@@ -24,6 +27,7 @@ import com.servoy.j2db.dataprocessing.IFoundSet;
 import com.servoy.j2db.documentation.ServoyDocumented;
 import com.servoy.j2db.scripting.IReturnedTypesProvider;
 import com.servoy.j2db.scripting.IScriptable;
+import com.servoy.j2db.util.Debug;
 
 /**
  * <p>The <code>TextXport</code> plugin provides functionality for exporting data from a
@@ -67,7 +71,7 @@ public class Enabler implements IReturnedTypesProvider, IScriptable
 	@Override
 	public Class< ? >[] getAllReturnedTypes()
 	{
-		return new Class[] { TabExporter.class, DataProviderExport.class };
+		return new Class[] { TabExporter.class, DataProviderExport.class, TextImporter.class, TextImportResult.class };
 	}
 
 	@ServoyClientSupport(ng = false, wc = false, sc = true)
@@ -199,10 +203,18 @@ public class Enabler implements IReturnedTypesProvider, IScriptable
 	{
 		if (foundSet != null && dataProviderIds != null && dataProviderIds.length > 0)
 		{
-			StringBuffer fileData = new StringBuffer();
-			if (exportHeader) fileData.insert(0, ExportSpecifyFilePanel.createHeader(dataProviderIds, separator));
-			fileData.append(ExportSpecifyFilePanel.populateFileData(application, foundSet, dataProviderIds, separator, null, null));
-
+			StringWriter fileData = new StringWriter();
+			try
+			{
+				TextExportWriter writer = new TextExportWriter(application, dataProviderIds, separator, null, null, null);
+				if (exportHeader) writer.writeHeader(fileData, dataProviderIds);
+				writer.writeRows(fileData, foundSet);
+			}
+			catch (IOException e)
+			{
+				// can't happen on a StringWriter
+				Debug.error(e);
+			}
 			return fileData.toString();
 		}
 		return null;
@@ -226,4 +238,26 @@ public class Enabler implements IReturnedTypesProvider, IScriptable
 	{
 		return new TabExporter(application, foundSet, separator, exportHeader);
 	}
+
+	/**
+	 * Create an importer that imports 'separated value' (csv) text into a datasource, without the import wizard.
+	 * The text is streamed, converted to the column types (optionally in parallel) and saved in batches.
+	 *
+	 * @sample
+	 * var importer = plugins.textxport.createImporter('db:/example_data/orders', ',', true);
+	 * importer.setBatchSize(5000).setParallelism(4);
+	 * var result = importer.importFile(plugins.file.convertToJSFile('/data/orders.csv'));
+	 * application.output(result.importedCount + ' rows imported (' + result.rowsPerSecond + ' rows/sec), ' + result.rejectedCount + ' rejected');
+	 *
+	 * @param dataSource the datasource to import in
+	 * @param separator the separator of the data
+	 * @param hasHeader true when the first line is a header, the header is used as column names when no columns are set on the importer
+	 *
+	 * @return A TextImporter object to set up and run the import.
+	 */
+	@ServoyClientSupport(ng = true, wc = true, sc = true)
+	public TextImporter js_createImporter(String dataSource, String separator, boolean hasHeader)
+	{
+		return new TextImporter(application, dataSource, separator, hasHeader);
+	}
 }
@@ -22,12 +22,10 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.BufferedWriter;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.OutputStreamWriter;
+import java.io.StringWriter;
 import java.nio.charset.Charset;
-import java.sql.Types;
-import java.text.DecimalFormat;
-import java.text.SimpleDateFormat;
-import java.util.Date;
 
 import javax.swing.BorderFactory;
 import javax.swing.Box;
@@ -46,13 +44,8 @@ import javax.swing.border.TitledBorder;
 import com.servoy.extensions.plugins.tabxport.ExportSpecifyDestinationPanel.DataProviderWithLabel;
 import com.servoy.j2db.IApplication;
 import com.servoy.j2db.Messages;
-import com.servoy.j2db.component.ComponentFactory;
 import com.servoy.j2db.dataprocessing.IFoundSet;
-import com.servoy.j2db.dataprocessing.IRecord;
-import com.servoy.j2db.dataprocessing.IValueList;
-import com.servoy.j2db.persistence.ValueList;
 import com.servoy.j2db.util.Debug;
-import com.servoy.j2db.util.Utils;
 import com.servoy.j2db.util.gui.FileNameSuggestionFileChooser;
 import com.servoy.j2db.util.wizard.IWizard;
 import com.servoy.j2db.util.wizard.IWizardPanel;
@@ -229,8 +222,10 @@ public class ExportSpecifyFilePanel extends JPanel implements ActionListener, IW
 						dataProviders[i] = ((DataProviderWithLabel)dlm.get(i)).dataProvider.getDataProviderID();
 					}
 					IFoundSet data = (IFoundSet)state.getProperty("foundset"); //$NON-NLS-1$
-					fileData = populateFileData(null, data, dataProviders, sep, null, null);
-					rows = data.getSize();
+					// the size of the foundset is not the number of records, they are read in chunks
+					StringWriter fData = new StringWriter();
+					rows = new TextExportWriter(null, dataProviders, sep, null, null, null).writeRows(fData, data);
+					fileData = fData.getBuffer();
 				}
 				catch (Exception ex)
 				{
@@ -248,81 +243,16 @@ public class ExportSpecifyFilePanel extends JPanel implements ActionListener, IW
 	public static StringBuffer populateFileData(IApplication application, IFoundSet foundSet, String[] dataProviders, String sep, String[] formats,
 		String[] valuelists)
 	{
-		IValueList[] runtimeValuelists = new IValueList[dataProviders.length];
-		if (application != null && valuelists != null)
+		StringWriter fData = new StringWriter();
+		try
 		{
-			for (int i = 0; i < dataProviders.length; i++)
-			{
-				if (valuelists[i] != null)
-				{
-					ValueList vl = application.getFlattenedSolution().getValueList(valuelists[i]);
-					if (vl != null)
-					{
-						runtimeValuelists[i] = ComponentFactory.getRealValueList(application, vl, true, Types.OTHER, null, null, true);
-					}
-				}
-			}
+			new TextExportWriter(application, dataProviders, sep, null, formats, valuelists).writeRows(fData, foundSet);
 		}
-		StringBuffer fData = new StringBuffer();
-		for (int i = 0; i < foundSet.getSize(); i++)
+		catch (IOException e)
 		{
-			IRecord s = foundSet.getRecord(i);
-			for (int k = 0; k < dataProviders.length; k++)
-			{
-				Object obj = s.getValue(dataProviders[k]);
-				if (runtimeValuelists[k] != null)
-				{
-					int index = runtimeValuelists[k].realValueIndexOf(obj);
-					if (index != -1)
-					{
-						obj = runtimeValuelists[k].getElementAt(index);
-					}
-				}
-				if (obj instanceof String && ((String)obj).length() != 0)
-				{
-					fData.append("\""); //$NON-NLS-1$
-					obj = Utils.stringReplace((String)obj, "\"", "\"\""); //$NON-NLS-1$
-				}
-				if (obj instanceof Date)
-				{
-					fData.append("\""); //$NON-NLS-1$
-				}
-				if (obj != null)
-				{
-					if (formats != null && formats[k] != null)
-					{
-						try
-						{
-							if (obj instanceof Date)
-							{
-								SimpleDateFormat dformatter = new SimpleDateFormat(formats[k]);
-								obj = dformatter.format((Date)obj);
-							}
-							else if (obj instanceof Number)
-							{
-								DecimalFormat nformatter = new DecimalFormat(formats[k]);
-								obj = nformatter.format(obj);
-							}
-						}
-						catch (Exception ex)
-						{
-							Debug.error(ex);
-						}
-					}
-					fData.append(obj);
-				}
-				if (obj instanceof String && ((String)obj).length() != 0)
-				{
-					fData.append("\""); //$NON-NLS-1$
-				}
-				if (obj instanceof Date)
-				{
-					fData.append("\""); //$NON-NLS-1$
-				}
-				if (k < dataProviders.length - 1) fData.append(sep);
-			}
-			fData.append("\n"); //$NON-NLS-1$
+			// can't happen on a StringWriter
+			Debug.error(e);
 		}
-		return fData;
+		return fData.getBuffer();
 	}
 }
@@ -17,14 +17,25 @@
 
 package com.servoy.extensions.plugins.tabxport;
 
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
 import com.servoy.base.scripting.annotations.ServoyClientSupport;
+import com.servoy.extensions.plugins.file.JSFile;
 import com.servoy.j2db.IApplication;
 import com.servoy.j2db.dataprocessing.IFoundSet;
 import com.servoy.j2db.documentation.ServoyDocumented;
 import com.servoy.j2db.scripting.IScriptable;
+import com.servoy.j2db.util.Debug;
 
 /**
  * <p>The <code>TabExporter</code> plugin enables exporting data from a Servoy <code>FoundSet</code> into
@@ -50,6 +61,8 @@ public class TabExporter implements IScriptable
 	private final String separator;
 	private final boolean exportHeader;
 	private final List<DataProviderExport> dataproviders = new ArrayList<DataProviderExport>();
+	private Charset charset = StandardCharsets.UTF_8;
+	private String lineSeparator = TextExportWriter.DEFAULT_LINE_SEPARATOR;
 
 	public TabExporter(IApplication application, IFoundSet foundSet, String separator, boolean exportHeader)
 	{
@@ -96,39 +109,109 @@ public class TabExporter implements IScriptable
 	{
 		if (foundSet != null && !dataproviders.isEmpty())
 		{
-			StringBuffer fileData = new StringBuffer();
-			if (exportHeader)
+			StringWriter fileData = new StringWriter();
+			try
 			{
-				String[] headers = new String[dataproviders.size()];
-				for (int i = 0; i < dataproviders.size(); i++)
-				{
-					String headerText = dataproviders.get(i).headerText;
-					if (headerText != null)
-					{
-						headers[i] = application.getI18NMessageIfPrefixed(headerText);
-					}
-					else
-					{
-						headers[i] = dataproviders.get(i).dataprovider;
-					}
-				}
-				fileData.insert(0, ExportSpecifyFilePanel.createHeader(headers, separator));
+				export(fileData);
 			}
-			String[] dataProviderIds = new String[dataproviders.size()];
-			String[] formats = new String[dataproviders.size()];
-			String[] valuelists = new String[dataproviders.size()];
-			for (int i = 0; i < dataproviders.size(); i++)
+			catch (IOException e)
 			{
-				DataProviderExport dpExport = dataproviders.get(i);
-				dataProviderIds[i] = dpExport.dataprovider;
-				formats[i] = dpExport.format;
-				valuelists[i] = dpExport.valuelistName;
+				// can't happen on a StringWriter
+				Debug.error(e);
 			}
-			fileData.append(ExportSpecifyFilePanel.populateFileData(application, foundSet, dataProviderIds, separator, formats, valuelists));
-
 			return fileData.toString();
 		}
 		return null;
 	}
 
+	/**
+	 * Export to a text 'separated value' file (*.tab/*.csv), based on values set on exporter.
+	 * The data is written directly to the file while the foundset is read, so it is not kept in memory as one big string.
+	 *
+	 * @sample
+	 * var exporter = plugins.textxport.createExporter(forms.form1.foundset,';',true);
+	 * exporter.addDataProvider('orderid').setHeaderText('Order ID');
+	 * exporter.addDataProvider('mydate').setFormat('yyyy/dd/MM');
+	 * exporter.setCharset('UTF-8').setLineSeparator('\r\n');
+	 * var rows = exporter.textExportToFile(plugins.file.createTempFile('export', '.csv'));
+	 *
+	 * @param file the JSFile or file path to write to
+	 *
+	 * @return the number of exported rows, -1 if nothing was exported
+	 */
+	public int js_textExportToFile(Object file) throws IOException
+	{
+		File f = null;
+		if (file instanceof JSFile)
+		{
+			f = ((JSFile)file).getFile();
+		}
+		else if (file instanceof File)
+		{
+			f = (File)file;
+		}
+		else if (file instanceof String)
+		{
+			f = new File((String)file);
+		}
+		if (f == null || foundSet == null || dataproviders.isEmpty()) return -1;
+
+		try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(f), charset), 64 * 1024))
+		{
+			return export(out);
+		}
+	}
+
+	/**
+	 * Set the charset used by textExportToFile, default UTF-8.
+	 *
+	 * @sample
+	 * var exporter = plugins.textxport.createExporter(forms.form1.foundset,';',true);
+	 * exporter.setCharset('ISO-8859-1');
+	 *
+	 * @param charsetName the name of the charset
+	 *
+	 * @return the exporter
+	 */
+	public TabExporter js_setCharset(String charsetName)
+	{
+		this.charset = charsetName != null ? Charset.forName(charsetName) : StandardCharsets.UTF_8;
+		return this;
+	}
+
+	/**
+	 * Set the line separator written after every row, default '\n'.
+	 *
+	 * @sample
+	 * var exporter = plugins.textxport.createExporter(forms.form1.foundset,';',true);
+	 * exporter.setLineSeparator('\r\n');
+	 *
+	 * @param lineSeparator the line separator
+	 *
+	 * @return the exporter
+	 */
+	public TabExporter js_setLineSeparator(String lineSeparator)
+	{
+		this.lineSeparator = lineSeparator != null ? lineSeparator : TextExportWriter.DEFAULT_LINE_SEPARATOR;
+		return this;
+	}
+
+	private int export(Writer out) throws IOException
+	{
+		String[] dataProviderIds = new String[dataproviders.size()];
+		String[] formats = new String[dataproviders.size()];
+		String[] valuelists = new String[dataproviders.size()];
+		String[] headers = new String[dataproviders.size()];
+		for (int i = 0; i < dataproviders.size(); i++)
+		{
+			DataProviderExport dpExport = dataproviders.get(i);
+			dataProviderIds[i] = dpExport.dataprovider;
+			formats[i] = dpExport.format;
+			valuelists[i] = dpExport.valuelistName;
+			headers[i] = dpExport.headerText != null ? application.getI18NMessageIfPrefixed(dpExport.headerText) : dpExport.dataprovider;
+		}
+		TextExportWriter writer = new TextExportWriter(application, dataProviderIds, separator, lineSeparator, formats, valuelists);
+		if (exportHeader) writer.writeHeader(out, headers);
+		return writer.writeRows(out, foundSet);
+	}
 }
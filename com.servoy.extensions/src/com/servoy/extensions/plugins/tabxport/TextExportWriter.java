@@ -0,0 +1,190 @@
+/*
+ This file belongs to the Servoy development and deployment environment, Copyright (C) 1997-2026 Servoy BV
+
+ This program is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Affero General Public License as published by the Free
+ Software Foundation; either version 3 of the License, or (at your option) any
+ later version.
+
+ This program is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more details.
+
+ You should have received a copy of the GNU Affero General Public License along
+ with this program; if not, see http://www.gnu.org/licenses or write to the Free
+ Software Foundation,Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301
+ */
+package com.servoy.extensions.plugins.tabxport;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.sql.Types;
+import java.text.DecimalFormat;
+import java.text.Format;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import com.servoy.j2db.IApplication;
+import com.servoy.j2db.component.ComponentFactory;
+import com.servoy.j2db.dataprocessing.IFoundSet;
+import com.servoy.j2db.dataprocessing.IRecord;
+import com.servoy.j2db.dataprocessing.IValueList;
+import com.servoy.j2db.persistence.ValueList;
+import com.servoy.j2db.util.Debug;
+
+/**
+ * Writes a foundset as 'separated value' text directly to a {@link Writer}.
+ * The formatters and valuelists of the columns are created once per export instead of per value, and strings are quoted and escaped in one pass.
+ */
+class TextExportWriter
+{
+	static final String DEFAULT_LINE_SEPARATOR = "\n"; //$NON-NLS-1$
+
+	private final String[] dataProviders;
+	private final String separator;
+	private final String lineSeparator;
+	private final String[] formats;
+	private final IValueList[] valuelists;
+	private final Format[] dateFormats;
+	private final Format[] numberFormats;
+
+	TextExportWriter(IApplication application, String[] dataProviders, String separator, String lineSeparator, String[] formats, String[] valuelistNames)
+	{
+		this.dataProviders = dataProviders;
+		this.separator = separator;
+		this.lineSeparator = lineSeparator != null ? lineSeparator : DEFAULT_LINE_SEPARATOR;
+		this.formats = formats;
+		this.valuelists = new IValueList[dataProviders.length];
+		this.dateFormats = new Format[dataProviders.length];
+		this.numberFormats = new Format[dataProviders.length];
+		if (application != null && valuelistNames != null)
+		{
+			for (int i = 0; i < dataProviders.length; i++)
+			{
+				if (valuelistNames[i] != null)
+				{
+					ValueList vl = application.getFlattenedSolution().getValueList(valuelistNames[i]);
+					if (vl != null)
+					{
+						valuelists[i] = ComponentFactory.getRealValueList(application, vl, true, Types.OTHER, null, null, true);
+					}
+				}
+			}
+		}
+	}
+
+	void writeHeader(Writer out, String[] headers) throws IOException
+	{
+		for (int k = 0; k < headers.length; k++)
+		{
+			if (k > 0) out.write(separator);
+			writeQuoted(out, headers[k] != null ? headers[k] : ""); //$NON-NLS-1$
+		}
+		out.write(lineSeparator);
+	}
+
+	/**
+	 * Writes the records of the foundset, they are read in chunks with a {@link FoundSetExportIterator}.
+	 *
+	 * @return the number of written rows
+	 */
+	int writeRows(Writer out, IFoundSet foundSet) throws IOException
+	{
+		int rows = 0;
+		for (FoundSetExportIterator it = new FoundSetExportIterator(foundSet); it.hasNext();)
+		{
+			IRecord record = it.next();
+			for (int k = 0; k < dataProviders.length; k++)
+			{
+				if (k > 0) out.write(separator);
+				writeValue(out, k, record.getValue(dataProviders[k]));
+			}
+			out.write(lineSeparator);
+			rows++;
+		}
+		return rows;
+	}
+
+	private void writeValue(Writer out, int column, Object value) throws IOException
+	{
+		Object obj = value;
+		if (valuelists[column] != null)
+		{
+			int index = valuelists[column].realValueIndexOf(obj);
+			if (index != -1)
+			{
+				obj = valuelists[column].getElementAt(index);
+			}
+		}
+		if (obj == null) return;
+
+		boolean quote = obj instanceof Date;
+		Format formatter = getFormat(column, obj);
+		if (formatter != null)
+		{
+			try
+			{
+				obj = formatter.format(obj);
+			}
+			catch (Exception ex)
+			{
+				Debug.error(ex);
+			}
+		}
+		if (obj instanceof String)
+		{
+			String s = (String)obj;
+			if (s.length() == 0) return;
+			writeQuoted(out, s);
+		}
+		else if (quote)
+		{
+			writeQuoted(out, obj.toString());
+		}
+		else
+		{
+			out.write(obj.toString());
+		}
+	}
+
+	private Format getFormat(int column, Object obj)
+	{
+		if (formats == null || formats[column] == null) return null;
+		try
+		{
+			if (obj instanceof Date)
+			{
+				if (dateFormats[column] == null) dateFormats[column] = new SimpleDateFormat(formats[column]);
+				return dateFormats[column];
+			}
+			if (obj instanceof Number)
+			{
+				if (numberFormats[column] == null) numberFormats[column] = new DecimalFormat(formats[column]);
+				return numberFormats[column];
+			}
+		}
+		catch (Exception ex)
+		{
+			Debug.error(ex);
+		}
+		return null;
+	}
+
+	/**
+	 * Writes the string between double quotes, doubling the quotes in the string.
+	 */
+	static void writeQuoted(Writer out, String s) throws IOException
+	{
+		out.write('"');
+		int start = 0;
+		int index;
+		while ((index = s.indexOf('"', start)) != -1)
+		{
+			out.write(s, start, index - start + 1);
+			out.write('"');
+			start = index + 1;
+		}
+		out.write(s, start, s.length() - start);
+		out.write('"');
+	}
+}
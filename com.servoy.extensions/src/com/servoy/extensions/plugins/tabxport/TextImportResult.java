@@ -0,0 +1,139 @@
+/*
+ This file belongs to the Servoy development and deployment environment, Copyright (C) 1997-2026 Servoy BV
+
+ This program is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Affero General Public License as published by the Free
+ Software Foundation; either version 3 of the License, or (at your option) any
+ later version.
+
+ This program is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more details.
+
+ You should have received a copy of the GNU Affero General Public License along
+ with this program; if not, see http://www.gnu.org/licenses or write to the Free
+ Software Foundation,Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301
+ */
+package com.servoy.extensions.plugins.tabxport;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.servoy.base.scripting.annotations.ServoyClientSupport;
+import com.servoy.j2db.IApplication;
+import com.servoy.j2db.dataprocessing.BufferedDataSet;
+import com.servoy.j2db.dataprocessing.JSDataSet;
+import com.servoy.j2db.documentation.ServoyDocumented;
+import com.servoy.j2db.scripting.IScriptable;
+
+/**
+ * Result of a {@link TextImporter} import: the number of imported and rejected rows, the speed and the details of the rejected rows.
+ */
+@ServoyDocumented(scriptingName = "TextImportResult")
+@ServoyClientSupport(ng = true, wc = true, sc = true)
+public class TextImportResult implements IScriptable
+{
+	static final int MAX_REJECTED_DETAILS = 1000;
+
+	private final IApplication application;
+	private final String separator;
+	private final List<Object[]> rejected = new ArrayList<Object[]>();
+	private int importedCount;
+	private int rejectedCount;
+	private long elapsedTime;
+
+	TextImportResult(IApplication application, char separator)
+	{
+		this.application = application;
+		this.separator = String.valueOf(separator);
+	}
+
+	void imported(int count)
+	{
+		importedCount += count;
+	}
+
+	void rejected(int line, String message, String[] fields)
+	{
+		rejectedCount++;
+		if (rejected.size() < MAX_REJECTED_DETAILS)
+		{
+			rejected.add(new Object[] { Integer.valueOf(line), message, fields == null ? null : String.join(separator, fields) });
+		}
+	}
+
+	void setElapsedTime(long elapsedTime)
+	{
+		this.elapsedTime = elapsedTime;
+	}
+
+	/**
+	 * The number of imported rows.
+	 *
+	 * @sample
+	 * var result = importer.importFile(file);
+	 * application.output(result.importedCount + ' rows imported, ' + result.rejectedCount + ' rejected');
+	 *
+	 * @return the number of imported rows
+	 */
+	public int js_getImportedCount()
+	{
+		return importedCount;
+	}
+
+	/**
+	 * The number of rows that could not be converted or saved.
+	 *
+	 * @sampleas js_getImportedCount()
+	 *
+	 * @return the number of rejected rows
+	 */
+	public int js_getRejectedCount()
+	{
+		return rejectedCount;
+	}
+
+	/**
+	 * The time the import took in milliseconds.
+	 *
+	 * @sample
+	 * var result = importer.importFile(file);
+	 * application.output(result.importedCount + ' rows in ' + result.elapsedTime + 'ms (' + result.rowsPerSecond + ' rows/sec)');
+	 *
+	 * @return the import time in milliseconds
+	 */
+	public long js_getElapsedTime()
+	{
+		return elapsedTime;
+	}
+
+	/**
+	 * The number of imported rows per second.
+	 *
+	 * @sampleas js_getElapsedTime()
+	 *
+	 * @return the imported rows per second
+	 */
+	public double js_getRowsPerSecond()
+	{
+		return elapsedTime == 0 ? importedCount : importedCount * 1000d / elapsedTime;
+	}
+
+	/**
+	 * The details of the rejected rows (the first 1000): a dataset with the columns line, message and data.
+	 *
+	 * @sample
+	 * var result = importer.importFile(file);
+	 * var rejected = result.getRejectedRows();
+	 * for (var i = 1; i <= rejected.getMaxRowIndex(); i++)
+	 * {
+	 * 	application.output('line ' + rejected.getValue(i, 1) + ': ' + rejected.getValue(i, 2));
+	 * }
+	 *
+	 * @return dataset with the rejected rows
+	 */
+	public JSDataSet js_getRejectedRows()
+	{
+		return new JSDataSet(application, new BufferedDataSet(new String[] { "line", "message", "data" }, new ArrayList<Object[]>(rejected))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+}
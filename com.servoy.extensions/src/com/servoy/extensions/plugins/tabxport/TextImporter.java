@@ -0,0 +1,439 @@
+/*
+ This file belongs to the Servoy development and deployment environment, Copyright (C) 1997-2026 Servoy BV
+
+ This program is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Affero General Public License as published by the Free
+ Software Foundation; either version 3 of the License, or (at your option) any
+ later version.
+
+ This program is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more details.
+
+ You should have received a copy of the GNU Affero General Public License along
+ with this program; if not, see http://www.gnu.org/licenses or write to the Free
+ Software Foundation,Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301
+ */
+package com.servoy.extensions.plugins.tabxport;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.servoy.base.scripting.annotations.ServoyClientSupport;
+import com.servoy.extensions.plugins.file.JSFile;
+import com.servoy.j2db.IApplication;
+import com.servoy.j2db.dataprocessing.EditRecordList;
+import com.servoy.j2db.dataprocessing.IFoundSet;
+import com.servoy.j2db.dataprocessing.IFoundSetManagerInternal;
+import com.servoy.j2db.dataprocessing.IRecord;
+import com.servoy.j2db.dataprocessing.IRecordInternal;
+import com.servoy.j2db.dataprocessing.ISaveConstants;
+import com.servoy.j2db.documentation.ServoyDocumented;
+import com.servoy.j2db.persistence.Column;
+import com.servoy.j2db.persistence.IColumnTypes;
+import com.servoy.j2db.persistence.ITable;
+import com.servoy.j2db.scripting.IScriptable;
+
+/**
+ * <p>The <code>TextImporter</code> imports 'separated value' (RFC 4180 csv) text into a datasource without the import wizard.</p>
+ *
+ * <p>The text is read as a stream, so quoted fields can span multiple lines and the file is never completely in memory.
+ * The records are converted to the column types (optionally in parallel) and saved in batches, every batch in its own transaction
+ * unless a transaction was already started. Rows that can't be converted or saved are reported in the returned <code>TextImportResult</code>.</p>
+ */
+@ServoyDocumented(scriptingName = "TextImporter")
+@ServoyClientSupport(ng = true, wc = true, sc = true)
+public class TextImporter implements IScriptable
+{
+	private final IApplication application;
+	private final String dataSource;
+	private final char separator;
+	private final boolean hasHeader;
+
+	private String[] dataProviders;
+	private String dateFormat = "yyyy-MM-dd HH:mm:ss.S"; //$NON-NLS-1$
+	private Charset charset = StandardCharsets.UTF_8;
+	private int batchSize = 1000;
+	private int parallelism = 1;
+
+	public TextImporter(IApplication application, String dataSource, String separator, boolean hasHeader)
+	{
+		this.application = application;
+		this.dataSource = dataSource;
+		this.separator = separator != null && separator.length() > 0 ? separator.charAt(0) : ',';
+		this.hasHeader = hasHeader;
+	}
+
+	/**
+	 * Set the dataproviders (column names) of the datasource in the order of the columns in the text, use null to skip a column.
+	 * When not set, the header of the text is used.
+	 *
+	 * @sample
+	 * var importer = plugins.textxport.createImporter('db:/example_data/orders', ',', true);
+	 * importer.setColumns(['orderid', null, 'orderdate', 'freight']).setDateFormat('yyyy-MM-dd').setBatchSize(5000).setParallelism(4);
+	 * var result = importer.importFile('/data/orders.csv');
+	 *
+	 * @param columns the dataproviders to import the columns in
+	 *
+	 * @return the importer
+	 */
+	public TextImporter js_setColumns(String[] columns)
+	{
+		this.dataProviders = columns;
+		return this;
+	}
+
+	/**
+	 * Set the format of the date columns, default 'yyyy-MM-dd HH:mm:ss.S'.
+	 *
+	 * @sampleas js_setColumns(String[])
+	 *
+	 * @param format the date format
+	 *
+	 * @return the importer
+	 */
+	public TextImporter js_setDateFormat(String format)
+	{
+		if (format != null && format.trim().length() > 0) this.dateFormat = format;
+		return this;
+	}
+
+	/**
+	 * Set the charset of the imported file, default UTF-8.
+	 *
+	 * @sample
+	 * var importer = plugins.textxport.createImporter('db:/example_data/orders', ';', true);
+	 * importer.setCharset('ISO-8859-1');
+	 *
+	 * @param charsetName the name of the charset
+	 *
+	 * @return the importer
+	 */
+	public TextImporter js_setCharset(String charsetName)
+	{
+		this.charset = charsetName != null ? Charset.forName(charsetName) : StandardCharsets.UTF_8;
+		return this;
+	}
+
+	/**
+	 * Set the number of rows that are saved (and committed) together, default 1000.
+	 *
+	 * @sampleas js_setColumns(String[])
+	 *
+	 * @param size the number of rows in a batch
+	 *
+	 * @return the importer
+	 */
+	public TextImporter js_setBatchSize(int size)
+	{
+		this.batchSize = Math.max(1, size);
+		return this;
+	}
+
+	/**
+	 * Set the number of threads that convert the text to the column types, default 1.
+	 * When bigger then 1 the next batch is read and converted while the current batch is saved.
+	 *
+	 * @sampleas js_setColumns(String[])
+	 *
+	 * @param threads the number of converting threads
+	 *
+	 * @return the importer
+	 */
+	public TextImporter js_setParallelism(int threads)
+	{
+		this.parallelism = Math.max(1, threads);
+		return this;
+	}
+
+	/**
+	 * Import a text file.
+	 *
+	 * @sampleas js_setColumns(String[])
+	 *
+	 * @param file the JSFile or file path to import
+	 *
+	 * @return the result of the import
+	 */
+	public TextImportResult js_importFile(Object file) throws Exception
+	{
+		File f = null;
+		if (file instanceof JSFile)
+		{
+			f = ((JSFile)file).getFile();
+		}
+		else if (file instanceof File)
+		{
+			f = (File)file;
+		}
+		else if (file instanceof String)
+		{
+			f = new File((String)file);
+		}
+		if (f == null) throw new IllegalArgumentException("No file to import given"); //$NON-NLS-1$
+
+		try (Reader reader = new BufferedReader(new InputStreamReader(new FileInputStream(f), charset)))
+		{
+			return importData(reader);
+		}
+	}
+
+	/**
+	 * Import text.
+	 *
+	 * @sample
+	 * var importer = plugins.textxport.createImporter('db:/example_data/orders', ',', true);
+	 * var result = importer.importText('orderid,freight\n1,"12.5"\n2,3');
+	 *
+	 * @param text the text to import
+	 *
+	 * @return the result of the import
+	 */
+	public TextImportResult js_importText(String text) throws Exception
+	{
+		return importData(new StringReader(text != null ? text : "")); //$NON-NLS-1$
+	}
+
+	private TextImportResult importData(Reader reader) throws Exception
+	{
+		long start = System.currentTimeMillis();
+		ITable table = application.getFlattenedSolution().getTable(dataSource);
+		if (table == null) throw new IllegalArgumentException("Datasource " + dataSource + " not found"); //$NON-NLS-1$ //$NON-NLS-2$
+
+		CSVTokenizer tokenizer = new CSVTokenizer(reader, separator);
+		String[] columnNames = dataProviders;
+		if (hasHeader)
+		{
+			String[] header = tokenizer.next();
+			if (columnNames == null) columnNames = header;
+		}
+		if (columnNames == null) throw new IllegalArgumentException("No columns set and no header to read them from"); //$NON-NLS-1$
+		Column[] columns = new Column[columnNames.length];
+		for (int i = 0; i < columnNames.length; i++)
+		{
+			if (columnNames[i] != null && columnNames[i].trim().length() > 0)
+			{
+				columns[i] = table.getColumn(columnNames[i].trim());
+				if (columns[i] == null)
+				{
+					throw new IllegalArgumentException("Column " + columnNames[i] + " not found in datasource " + dataSource); //$NON-NLS-1$ //$NON-NLS-2$
+				}
+			}
+		}
+
+		TextImportResult result = new TextImportResult(application, separator);
+		IFoundSetManagerInternal fsm = application.getFoundSetManager();
+		IFoundSet fs = fsm.getNewFoundSet(table, null, fsm.getDefaultPKSortColumns(table.getDataSource()));
+		ExecutorService executor = parallelism > 1 ? Executors.newFixedThreadPool(parallelism, r -> {
+			Thread thread = new Thread(r, "textxport import converter"); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		}) : null;
+		try
+		{
+			// read and convert the next batch while the current batch is saved
+			CompletableFuture<Batch> pending = null;
+			while (true)
+			{
+				Batch batch = readBatch(tokenizer);
+				Batch converted = pending != null ? pending.get() : null;
+				pending = batch != null ? convert(batch, columns, executor) : null;
+				if (converted != null) save(converted, columns, fs, fsm, result);
+				if (batch == null) break;
+			}
+			fs.clear();
+		}
+		finally
+		{
+			if (executor != null) executor.shutdownNow();
+		}
+		result.setElapsedTime(System.currentTimeMillis() - start);
+		return result;
+	}
+
+	private Batch readBatch(CSVTokenizer tokenizer) throws Exception
+	{
+		Batch batch = null;
+		String[] fields;
+		while ((batch == null || batch.size < batchSize) && (fields = tokenizer.next()) != null)
+		{
+			if (batch == null) batch = new Batch(batchSize);
+			batch.lines[batch.size] = tokenizer.getRecordLine();
+			batch.fields[batch.size++] = fields;
+		}
+		return batch;
+	}
+
+	private CompletableFuture<Batch> convert(Batch batch, Column[] columns, ExecutorService executor)
+	{
+		if (executor == null)
+		{
+			convert(batch, columns, 0, batch.size);
+			return CompletableFuture.completedFuture(batch);
+		}
+		int slice = (batch.size + parallelism - 1) / parallelism;
+		CompletableFuture< ? >[] slices = new CompletableFuture[(batch.size + slice - 1) / slice];
+		for (int i = 0; i < slices.length; i++)
+		{
+			int from = i * slice;
+			int to = Math.min(batch.size, from + slice);
+			slices[i] = CompletableFuture.runAsync(() -> convert(batch, columns, from, to), executor);
+		}
+		return CompletableFuture.allOf(slices).thenApply(v -> batch);
+	}
+
+	private void convert(Batch batch, Column[] columns, int from, int to)
+	{
+		for (int i = from; i < to; i++)
+		{
+			String[] fields = batch.fields[i];
+			Object[] values = new Object[columns.length];
+			try
+			{
+				for (int k = 0; k < columns.length; k++)
+				{
+					if (columns[k] == null) continue;
+					String value = k < fields.length ? fields[k] : null;
+					if (value == null) continue;
+					String format = Column.mapToDefaultType(columns[k].getType()) == IColumnTypes.DATETIME ? dateFormat : null;
+					values[k] = columns[k].getAsRightType(value, format);
+					if (values[k] == null && value.length() > 0)
+					{
+						throw new IllegalArgumentException("Can't convert '" + value + "' for column " + columns[k].getDataProviderID()); //$NON-NLS-1$ //$NON-NLS-2$
+					}
+				}
+				batch.values[i] = values;
+			}
+			catch (Exception e)
+			{
+				batch.errors[i] = e.getMessage() != null ? e.getMessage() : e.toString();
+			}
+		}
+	}
+
+	private void save(Batch batch, Column[] columns, IFoundSet fs, IFoundSetManagerInternal fsm, TextImportResult result)
+	{
+		boolean startTransaction = !fsm.hasTransaction();
+		EditRecordList editRecordList = fsm.getEditRecordList();
+		// only the records of the current batch are kept in the foundset
+		fs.clear();
+		if (startTransaction) fsm.startTransaction();
+		List<IRecord> records = new ArrayList<IRecord>(batch.size);
+		int[] recordRows = new int[batch.size];
+		try
+		{
+			for (int i = 0; i < batch.size; i++)
+			{
+				if (batch.errors[i] != null) continue;
+				IRecord record = fs.getRecord(fs.newRecord(true, false));
+				if (!((IRecordInternal)record).startEditing(false))
+				{
+					batch.errors[i] = "Record could not be edited"; //$NON-NLS-1$
+					continue;
+				}
+				Object[] values = batch.values[i];
+				for (int k = 0; k < columns.length; k++)
+				{
+					if (columns[k] != null) record.setValue(columns[k].getDataProviderID(), values[k]);
+				}
+				recordRows[records.size()] = i;
+				records.add(record);
+			}
+			// only save the records of this batch, not the other edited records of the client
+			if (!records.isEmpty() && editRecordList.stopEditing(true, records) != ISaveConstants.STOPPED)
+			{
+				// the records that are still edited or failed are not saved
+				Set<IRecord> failed = Collections.newSetFromMap(new IdentityHashMap<IRecord, Boolean>());
+				Collections.addAll(failed, editRecordList.getFailedRecords());
+				Collections.addAll(failed, editRecordList.getEditedRecords());
+				if (startTransaction) throw new IllegalStateException(getSaveError(failed));
+				// the batch is part of the transaction of the caller, the saved records stay, the failed ones are reverted
+				List<IRecordInternal> rollback = new ArrayList<IRecordInternal>();
+				for (int r = 0; r < records.size(); r++)
+				{
+					IRecord record = records.get(r);
+					if (failed.contains(record))
+					{
+						batch.errors[recordRows[r]] = getSaveError(Collections.singleton(record));
+						rollback.add((IRecordInternal)record);
+					}
+				}
+				editRecordList.rollbackRecords(rollback);
+				result.imported(records.size() - rollback.size());
+			}
+			else
+			{
+				if (startTransaction) fsm.commitTransaction(false, true);
+				result.imported(records.size());
+			}
+		}
+		catch (Exception e)
+		{
+			if (startTransaction) fsm.rollbackTransaction();
+			else revert(editRecordList, records);
+			String message = e.getMessage() != null ? e.getMessage() : e.toString();
+			for (int i = 0; i < batch.size; i++)
+			{
+				if (batch.errors[i] == null) batch.errors[i] = message;
+			}
+		}
+		for (int i = 0; i < batch.size; i++)
+		{
+			if (batch.errors[i] != null) result.rejected(batch.lines[i], batch.errors[i], batch.fields[i]);
+		}
+	}
+
+	/**
+	 * Reverts the records of a batch that are not saved, so they are not saved later together with other records of the client.
+	 */
+	private static void revert(EditRecordList editRecordList, List<IRecord> records)
+	{
+		List<IRecordInternal> rollback = new ArrayList<IRecordInternal>(records.size());
+		for (IRecord record : records)
+		{
+			if (!record.existInDataSource() || ((IRecordInternal)record).isEditing()) rollback.add((IRecordInternal)record);
+		}
+		if (!rollback.isEmpty()) editRecordList.rollbackRecords(rollback);
+	}
+
+	private static String getSaveError(Set<IRecord> failed)
+	{
+		for (IRecord record : failed)
+		{
+			Exception exception = ((IRecordInternal)record).getRawData() != null ? ((IRecordInternal)record).getRawData().getLastException() : null;
+			if (exception != null) return exception.getMessage() != null ? exception.getMessage() : exception.toString();
+		}
+		return "Saving the records failed"; //$NON-NLS-1$
+	}
+
+	private static final class Batch
+	{
+		final int[] lines;
+		final String[][] fields;
+		final Object[][] values;
+		final String[] errors;
+		int size;
+
+		Batch(int capacity)
+		{
+			lines = new int[capacity];
+			fields = new String[capacity][];
+			values = new Object[capacity][];
+			errors = new String[capacity];
+		}
+	}
+}
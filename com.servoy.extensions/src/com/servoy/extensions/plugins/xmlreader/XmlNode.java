@@ -17,7 +17,14 @@
 package com.servoy.extensions.plugins.xmlreader;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
 
 import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
@@ -25,6 +32,7 @@ import org.w3c.dom.NodeList;
 
 import com.servoy.j2db.documentation.ServoyDocumented;
 import com.servoy.j2db.scripting.IScriptable;
+import com.servoy.j2db.util.Debug;
 
 /**
  * <p>XML nodes are structured elements that support interaction and manipulation through various methods.
@@ -44,8 +52,25 @@ import com.servoy.j2db.scripting.IScriptable;
 @ServoyDocumented
 public class XmlNode implements IScriptable
 {
+	private static final int MAX_CACHED_EXPRESSIONS = 100;
+
+	private static final ThreadLocal<XPathFactory> XPATH_FACTORY = ThreadLocal.withInitial(XPathFactory::newInstance);
+	private static final ThreadLocal<Map<String, XPathExpression>> XPATH_CACHE = ThreadLocal.withInitial(
+		() -> new LinkedHashMap<String, XPathExpression>(16, 0.75f, true)
+		{
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, XPathExpression> eldest)
+			{
+				return size() > MAX_CACHED_EXPRESSIONS;
+			}
+		});
+
 	private final Node node;
 
+	// the documents are not changed, so the wrappers of the children and the attribute names are created once
+	private XmlNode[] childNodes;
+	private String[] attributeNames;
+
 	// default constructor just for the tree.
 	public XmlNode()
 	{
@@ -133,7 +158,9 @@ public class XmlNode implements IScriptable
 	 */
 	public String js_getAttributeValue(String attributeName)
 	{
-		return node.getAttributes().getNamedItem(attributeName).getNodeValue();
+		NamedNodeMap attributes = node.getAttributes();
+		Node attribute = attributes != null ? attributes.getNamedItem(attributeName) : null;
+		return attribute != null ? attribute.getNodeValue() : null;
 	}
 
 	/**
@@ -152,18 +179,25 @@ public class XmlNode implements IScriptable
 	 */
 	public String[] js_getAttributeNames()
 	{
-		NamedNodeMap attributes = node.getAttributes();
-		if (attributes != null)
+		if (attributeNames == null)
 		{
-			int length = attributes.getLength();
-			String[] names = new String[length];
-			for (int i = 0; i < names.length; i++)
+			NamedNodeMap attributes = node.getAttributes();
+			if (attributes != null)
+			{
+				int length = attributes.getLength();
+				String[] names = new String[length];
+				for (int i = 0; i < names.length; i++)
+				{
+					names[i] = attributes.item(i).getNodeName();
+				}
+				attributeNames = names;
+			}
+			else
 			{
-				names[i] = attributes.item(i).getNodeName();
+				attributeNames = new String[0];
 			}
-			return names;
 		}
-		return new String[0];
+		return attributeNames;
 	}
 
 	/**
@@ -187,23 +221,96 @@ public class XmlNode implements IScriptable
 	 */
 	public XmlNode[] js_getChildNodes()
 	{
-		NodeList nl = node.getChildNodes();
-		List<XmlNode> al = new ArrayList<XmlNode>();
-		for (int i = 0; i < nl.getLength(); i++)
+		if (childNodes == null)
 		{
-			Node item = nl.item(i);
-			if (item.getNodeType() == Node.TEXT_NODE)
+			NodeList nl = node.getChildNodes();
+			List<XmlNode> al = new ArrayList<XmlNode>();
+			for (int i = 0; i < nl.getLength(); i++)
 			{
-				String value = item.getNodeValue();
-				if (value == null || "".equals(value.trim()))
+				Node item = nl.item(i);
+				if (item.getNodeType() == Node.TEXT_NODE)
 				{
-					continue;
+					String value = item.getNodeValue();
+					if (value == null || "".equals(value.trim()))
+					{
+						continue;
+					}
 				}
+				al.add(new XmlNode(item));
+			}
+			childNodes = al.toArray(new XmlNode[al.size()]);
+		}
+		return childNodes;
+	}
+
+	/**
+	 * Return the nodes selected by the XPath expression, evaluated with this node as context node.
+	 * The compiled expressions are cached, so the same expression can be used for many nodes.
+	 *
+	 * @sample
+	 * nodes = plugins.XmlReader.readXmlDocumentFromString('<books><book price="44.95"><title>Core Java</title></book><book price="59.95"><title>Servoy</title></book></books>');
+	 * var expensive = nodes[0].selectNodes('book[@price > 50]');
+	 * application.output(expensive[0].selectValue('title'));
+	 * var titles = nodes[0].selectNodes('//title');
+	 *
+	 * @param xpath the XPath expression
+	 *
+	 * @return an array of XmlNode objects for the selected nodes, or an empty array if nothing is selected.
+	 */
+	public XmlNode[] js_selectNodes(String xpath)
+	{
+		try
+		{
+			NodeList nl = (NodeList)compile(xpath).evaluate(node, XPathConstants.NODESET);
+			XmlNode[] nodes = new XmlNode[nl.getLength()];
+			for (int i = 0; i < nodes.length; i++)
+			{
+				nodes[i] = new XmlNode(nl.item(i));
 			}
-			al.add(new XmlNode(item));
+			return nodes;
+		}
+		catch (XPathExpressionException e)
+		{
+			Debug.error(e);
+		}
+		return new XmlNode[0];
+	}
+
+	/**
+	 * Return the string value of the XPath expression, evaluated with this node as context node.
+	 *
+	 * @sampleas js_selectNodes(String)
+	 *
+	 * @param xpath the XPath expression
+	 *
+	 * @return the string value of the expression, or null if the expression is invalid.
+	 */
+	public String js_selectValue(String xpath)
+	{
+		try
+		{
+			return (String)compile(xpath).evaluate(node, XPathConstants.STRING);
+		}
+		catch (XPathExpressionException e)
+		{
+			Debug.error(e);
+		}
+		return null;
+	}
+
+	/**
+	 * XPath and its compiled expressions are not thread safe, so they are cached per thread.
+	 */
+	private static XPathExpression compile(String xpath) throws XPathExpressionException
+	{
+		Map<String, XPathExpression> cache = XPATH_CACHE.get();
+		XPathExpression expression = cache.get(xpath);
+		if (expression == null)
+		{
+			expression = XPATH_FACTORY.get().newXPath().compile(xpath);
+			cache.put(xpath, expression);
 		}
-		XmlNode[] nodes = al.toArray(new XmlNode[al.size()]);
-		return nodes;
+		return expression;
 	}
 
 	@Override
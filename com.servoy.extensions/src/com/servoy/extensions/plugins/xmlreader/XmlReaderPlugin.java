@@ -37,11 +37,19 @@ public class XmlReaderPlugin implements IClientPlugin, IIconProvider
 {
 	public static final String PLUGIN_NAME = "XmlReader"; //$NON-NLS-1$
 
+	private IClientPluginAccess access;
+
 	/**
 	 * @see com.servoy.j2db.plugins.IClientPlugin#initialize(com.servoy.j2db.plugins.IClientPluginAccess)
 	 */
 	public void initialize(IClientPluginAccess app) throws PluginException
 	{
+		this.access = app;
+	}
+
+	public IClientPluginAccess getClientPluginAccess()
+	{
+		return access;
 	}
 
 	/**
@@ -78,7 +86,7 @@ public class XmlReaderPlugin implements IClientPlugin, IIconProvider
 
 	public IScriptable getScriptObject()
 	{
-		return new XmlReaderProvider();
+		return new XmlReaderProvider(this);
 	}
 
 	/**
@@ -16,14 +16,19 @@
  */
 package com.servoy.extensions.plugins.xmlreader;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.List;
 
+import javax.xml.XMLConstants;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
 
+import org.mozilla.javascript.Function;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
@@ -31,6 +36,7 @@ import org.xml.sax.InputSource;
 
 import com.servoy.extensions.plugins.file.JSFile;
 import com.servoy.j2db.documentation.ServoyDocumented;
+import com.servoy.j2db.scripting.FunctionDefinition;
 import com.servoy.j2db.scripting.IReturnedTypesProvider;
 import com.servoy.j2db.scripting.IScriptable;
 import com.servoy.j2db.util.Debug;
@@ -47,10 +53,24 @@ import com.servoy.j2db.util.Debug;
 @ServoyDocumented(publicName = XmlReaderPlugin.PLUGIN_NAME, scriptingName = "plugins." + XmlReaderPlugin.PLUGIN_NAME)
 public class XmlReaderProvider implements IScriptable, IReturnedTypesProvider
 {
+	private static final DocumentBuilderFactory DOCUMENT_BUILDER_FACTORY = createDocumentBuilderFactory();
+	private static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDER = new ThreadLocal<DocumentBuilder>();
+
+	private final XmlReaderPlugin plugin;
+
+	public XmlReaderProvider()
+	{
+		this(null);
+	}
+
+	public XmlReaderProvider(XmlReaderPlugin plugin)
+	{
+		this.plugin = plugin;
+	}
 
 	public Class< ? >[] getAllReturnedTypes()
 	{
-		return new Class[] { XmlNode.class };
+		return new Class[] { XmlNode.class, XmlStreamIterator.class };
 	}
 
 	/**
@@ -92,10 +112,9 @@ public class XmlReaderProvider implements IScriptable, IReturnedTypesProvider
 	 */
 	public XmlNode[] js_readXmlDocumentFromString(String argument)
 	{
-		DocumentBuilderFactory docBuilderFactory = DocumentBuilderFactory.newInstance();
 		try
 		{
-			DocumentBuilder docBuilder = docBuilderFactory.newDocumentBuilder();
+			DocumentBuilder docBuilder = getDocumentBuilder();
 			Document doc = docBuilder.parse(new InputSource(new StringReader(argument.trim())));
 			return readDoc(doc);
 		}
@@ -112,37 +131,162 @@ public class XmlReaderProvider implements IScriptable, IReturnedTypesProvider
 	@Deprecated
 	public XmlNode[] js_readXmlDocument(Object argument)
 	{
-		File file = null;
+		File file = getFile(argument);
+		if (file == null)
+		{
+			return null;
+		}
+
+		try
+		{
+			DocumentBuilder docBuilder = getDocumentBuilder();
+			Document doc = docBuilder.parse(file);
+			return readDoc(doc);
+		}
+		catch (Exception e)
+		{
+			Debug.error(e);
+		}
+		return null;
+	}
+
+	/**
+	 * Opens an XML file as a stream of the elements that match the element path. The file is not loaded in memory,
+	 * only the currently returned element is, so this can be used for XML files of any size.
+	 * The path is an absolute element path like '/catalog/item', '*' matches any element name and a path starting with '//' (like '//item') matches at any depth.
+	 * Close the returned iterator when not all elements are read.
+	 *
+	 * @sample
+	 * var it = plugins.XmlReader.openXmlStream('c:/catalog.xml', '/catalog/item');
+	 * try
+	 * {
+	 * 	while (it.hasNext())
+	 * 	{
+	 * 		var item = it.next();
+	 * 		application.output(item.getAttributeValue('id'));
+	 * 	}
+	 * }
+	 * finally
+	 * {
+	 * 	it.close();
+	 * }
+	 *
+	 * @param argument the JSFile or file path
+	 * @param elementPath the path of the elements to return
+	 *
+	 * @return An iterator over the matching elements, or null if the file could not be opened.
+	 */
+	public XmlStreamIterator js_openXmlStream(Object argument, String elementPath)
+	{
+		File file = getFile(argument);
+		if (file == null || elementPath == null)
+		{
+			return null;
+		}
+		try
+		{
+			return new XmlStreamIterator(new BufferedInputStream(new FileInputStream(file)), elementPath);
+		}
+		catch (Exception e)
+		{
+			Debug.error(e);
+		}
+		return null;
+	}
+
+	/**
+	 * Reads an XML file as a stream and calls the callback function for every element that matches the element path,
+	 * with the element (as XmlNode) and its index as arguments. When the callback returns false the reading stops.
+	 * The file is not loaded in memory, only the current element is, so this can be used for XML files of any size.
+	 *
+	 * @sample
+	 * var count = plugins.XmlReader.readXmlStream('c:/catalog.xml', '/catalog/item', function(item, index) {
+	 * 	var children = item.getChildNodes();
+	 * 	application.output(index + ': ' + item.getAttributeValue('id') + ' ' + children[0].getTextValue());
+	 * });
+	 *
+	 * @param argument the JSFile or file path
+	 * @param elementPath the path of the elements to return, like '/catalog/item' or '//item'
+	 * @param callback the function that gets every matching element
+	 *
+	 * @return The number of matched elements passed to the callback, -1 if the file could not be read.
+	 */
+	public int js_readXmlStream(Object argument, String elementPath, Function callback)
+	{
+		XmlStreamIterator it = js_openXmlStream(argument, elementPath);
+		if (it == null || callback == null)
+		{
+			return -1;
+		}
+		FunctionDefinition fd = new FunctionDefinition(callback);
+		int count = 0;
+		try
+		{
+			while (it.js_hasNext())
+			{
+				Object result = fd.executeSync(plugin.getClientPluginAccess(), new Object[] { it.js_next(), Integer.valueOf(count++) });
+				if (Boolean.FALSE.equals(result)) break;
+			}
+		}
+		finally
+		{
+			it.close();
+		}
+		return count;
+	}
+
+	private static File getFile(Object argument)
+	{
 		if (argument instanceof File)
 		{
-			file = (File)argument;
+			return (File)argument;
 		}
 		else if (argument instanceof JSFile)
 		{
-			file = ((JSFile)argument).getFile();
+			return ((JSFile)argument).getFile();
 		}
 		else if (argument instanceof String)
 		{
-			file = new File((String)argument);
+			return new File((String)argument);
 		}
+		return null;
+	}
 
-		if (file == null)
+	/**
+	 * @return the document builder of the current thread, created once from the shared (secured) factory
+	 */
+	static DocumentBuilder getDocumentBuilder() throws ParserConfigurationException
+	{
+		DocumentBuilder builder = DOCUMENT_BUILDER.get();
+		if (builder == null)
 		{
-			return null;
+			builder = DOCUMENT_BUILDER_FACTORY.newDocumentBuilder();
+			DOCUMENT_BUILDER.set(builder);
+		}
+		else
+		{
+			builder.reset();
 		}
+		return builder;
+	}
 
-		DocumentBuilderFactory docBuilderFactory = DocumentBuilderFactory.newInstance();
+	private static DocumentBuilderFactory createDocumentBuilderFactory()
+	{
+		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
 		try
 		{
-			DocumentBuilder docBuilder = docBuilderFactory.newDocumentBuilder();
-			Document doc = docBuilder.parse(file);
-			return readDoc(doc);
+			// no external entities or dtds, the documents can come from anywhere
+			factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+			factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+			factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+			factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
 		}
-		catch (Exception e)
+		catch (ParserConfigurationException e)
 		{
 			Debug.error(e);
 		}
-		return null;
+		factory.setXIncludeAware(false);
+		return factory;
 	}
 
 	/**
@@ -0,0 +1,267 @@
+/*
+ This file belongs to the Servoy development and deployment environment, Copyright (C) 1997-2026 Servoy BV
+
+ This program is free software; you can redistribute it and/or modify it under
+ the terms of the GNU Affero General Public License as published by the Free
+ Software Foundation; either version 3 of the License, or (at your option) any
+ later version.
+
+ This program is distributed in the hope that it will be useful, but WITHOUT
+ ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ FOR A PARTICULAR PURPOSE. See the GNU Affero General Public License for more details.
+
+ You should have received a copy of the GNU Affero General Public License along
+ with this program; if not, see http://www.gnu.org/licenses or write to the Free
+ Software Foundation,Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301
+ */
+package com.servoy.extensions.plugins.xmlreader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import com.servoy.j2db.documentation.ServoyDocumented;
+import com.servoy.j2db.scripting.IScriptable;
+import com.servoy.j2db.util.Debug;
+
+/**
+ * <p>Iterator over the elements of an XML document that match an element path, the document is read as a stream.
+ * Only the currently matched element is kept in memory (as a small <code>XmlNode</code> tree), so the size of the document doesn't matter.</p>
+ *
+ * <p>The path is an absolute element path like <code>/catalog/item</code>, a <code>*</code> matches any element name,
+ * a path starting with <code>//</code> (like <code>//item</code>) matches the elements ending with that path at any depth.</p>
+ */
+@SuppressWarnings("nls")
+@ServoyDocumented
+public class XmlStreamIterator implements IScriptable, Closeable
+{
+	private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+	private final InputStream input;
+	private final XMLStreamReader reader;
+	private final String[] path;
+	private final boolean anyDepth;
+	private final DocumentBuilder documentBuilder;
+	private final List<String> elements = new ArrayList<String>();
+	private XmlNode next;
+	private boolean closed;
+
+	// default constructor just for the tree.
+	public XmlStreamIterator()
+	{
+		input = null;
+		reader = null;
+		path = null;
+		anyDepth = false;
+		documentBuilder = null;
+	}
+
+	XmlStreamIterator(InputStream input, String path) throws Exception
+	{
+		this.input = input;
+		this.reader = INPUT_FACTORY.createXMLStreamReader(input);
+		this.anyDepth = path.startsWith("//");
+		String trimmed = path.replaceAll("^/+", "").replaceAll("/+$", "");
+		if (trimmed.length() == 0) throw new IllegalArgumentException("Invalid element path: " + path);
+		this.path = trimmed.split("/");
+		this.documentBuilder = XmlReaderProvider.getDocumentBuilder();
+	}
+
+	private static XMLInputFactory createInputFactory()
+	{
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		// no dtd/external entity processing on untrusted input
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+		factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+		return factory;
+	}
+
+	/**
+	 * Returns true when there is a next matching element, the stream is closed when the end of the document is reached.
+	 *
+	 * @sample
+	 * var it = plugins.XmlReader.openXmlStream('c:/catalog.xml', '/catalog/item');
+	 * try
+	 * {
+	 * 	while (it.hasNext())
+	 * 	{
+	 * 		var item = it.next();
+	 * 		application.output(item.getAttributeValue('id'));
+	 * 	}
+	 * }
+	 * finally
+	 * {
+	 * 	it.close();
+	 * }
+	 *
+	 * @return true if there is a next matching element
+	 */
+	public boolean js_hasNext()
+	{
+		if (next == null && !closed)
+		{
+			try
+			{
+				next = readNext();
+			}
+			catch (Exception e)
+			{
+				Debug.error(e);
+				close();
+			}
+			if (next == null) close();
+		}
+		return next != null;
+	}
+
+	/**
+	 * Returns the next matching element, or null when there are no more matching elements.
+	 *
+	 * @sampleas js_hasNext()
+	 *
+	 * @return the next matching element
+	 */
+	public XmlNode js_next()
+	{
+		if (!js_hasNext()) return null;
+		XmlNode node = next;
+		next = null;
+		return node;
+	}
+
+	/**
+	 * Closes the stream, needed when not all the elements are read.
+	 *
+	 * @sampleas js_hasNext()
+	 */
+	public void js_close()
+	{
+		close();
+	}
+
+	@Override
+	public void close()
+	{
+		if (closed) return;
+		closed = true;
+		next = null;
+		try
+		{
+			reader.close();
+		}
+		catch (XMLStreamException e)
+		{
+			Debug.error(e);
+		}
+		try
+		{
+			input.close();
+		}
+		catch (IOException e)
+		{
+			Debug.error(e);
+		}
+	}
+
+	private XmlNode readNext() throws XMLStreamException
+	{
+		while (reader.hasNext())
+		{
+			int event = reader.next();
+			if (event == XMLStreamConstants.START_ELEMENT)
+			{
+				elements.add(reader.getLocalName());
+				if (matches())
+				{
+					Document doc = documentBuilder.newDocument();
+					doc.appendChild(readElement(doc));
+					return new XmlNode(doc.getDocumentElement());
+				}
+			}
+			else if (event == XMLStreamConstants.END_ELEMENT)
+			{
+				elements.remove(elements.size() - 1);
+			}
+		}
+		return null;
+	}
+
+	private boolean matches()
+	{
+		int depth = elements.size();
+		if (anyDepth ? depth < path.length : depth != path.length) return false;
+		int offset = depth - path.length;
+		for (int i = 0; i < path.length; i++)
+		{
+			if (!"*".equals(path[i]) && !path[i].equals(elements.get(offset + i))) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Reads the element the reader is positioned on (and all its children) in a DOM element, the reader ends on the end element.
+	 */
+	private Element readElement(Document doc) throws XMLStreamException
+	{
+		Element element = createElement(doc);
+		Node current = element;
+		int depth = 0;
+		while (reader.hasNext())
+		{
+			switch (reader.next())
+			{
+				case XMLStreamConstants.START_ELEMENT :
+					Element child = createElement(doc);
+					current.appendChild(child);
+					current = child;
+					depth++;
+					break;
+				case XMLStreamConstants.END_ELEMENT :
+					if (depth == 0)
+					{
+						elements.remove(elements.size() - 1);
+						return element;
+					}
+					current = current.getParentNode();
+					depth--;
+					break;
+				case XMLStreamConstants.CHARACTERS :
+				case XMLStreamConstants.CDATA :
+				case XMLStreamConstants.SPACE :
+					current.appendChild(doc.createTextNode(reader.getText()));
+					break;
+				default :
+					break;
+			}
+		}
+		return element;
+	}
+
+	private Element createElement(Document doc)
+	{
+		String prefix = reader.getPrefix();
+		String qname = prefix != null && prefix.length() > 0 ? prefix + ':' + reader.getLocalName() : reader.getLocalName();
+		Element element = reader.getNamespaceURI() != null ? doc.createElementNS(reader.getNamespaceURI(), qname) : doc.createElement(qname);
+		for (int i = 0; i < reader.getAttributeCount(); i++)
+		{
+			String attributePrefix = reader.getAttributePrefix(i);
+			String attributeName = attributePrefix != null && attributePrefix.length() > 0 ? attributePrefix + ':' + reader.getAttributeLocalName(i)
+				: reader.getAttributeLocalName(i);
+			element.setAttribute(attributeName, reader.getAttributeValue(i));
+		}
+		return element;
+	}
+}